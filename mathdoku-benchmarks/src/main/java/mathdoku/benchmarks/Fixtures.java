@@ -0,0 +1,108 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Generator;
+import mathdoku.Logic;
+import mathdoku.Puzzle;
+import mathdoku.PuzzleLoader;
+import mathdoku.Solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Puzzles shared by the benchmarks. Every size is generated from a fixed seed, so every run measures the same
+ * puzzles
+ */
+public class Fixtures {
+
+    // The seed the puzzles of every size are generated from
+    private static final long SEED = 20210221L;
+
+    /**
+     * Generates a fixed set of puzzles
+     * @param size the size of the puzzles
+     * @param count the number of puzzles to be generated
+     * @return the generated puzzles
+     */
+    public static List<Logic> generate(int size, int count) {
+
+        List<Logic> puzzles = new ArrayList<>();
+
+        Logic generatorLogic = new Logic();
+        generatorLogic.getGenerator().setSeed(SEED + size);
+
+        for(int index = 0; index < count; index++) {
+
+            generatorLogic.getGenerator().generateBoard(size);
+
+            // Every puzzle gets its own board, rebuilt from the generated description
+            Logic gameLogic = new Logic();
+
+            try {
+                new PuzzleLoader(gameLogic).load(PuzzleLoader.toCageLines(generatorLogic));
+            } catch (Exception e) {
+                throw new IllegalStateException("A generated puzzle could not be loaded", e);
+            }
+
+            puzzles.add(gameLogic);
+        }
+
+        return puzzles;
+    }
+
+    /**
+     * Generates a fixed set of puzzle definitions, without building a board for them
+     * @param size the size of the puzzles
+     * @param count the number of puzzles to be generated
+     * @return the generated puzzles
+     */
+    public static List<Puzzle> generatePuzzles(int size, int count) {
+
+        List<Puzzle> puzzles = new ArrayList<>();
+        Generator generator = new Generator(null, new SplittableRandom(SEED + size));
+
+        for(int index = 0; index < count; index++) {
+            puzzles.add(generator.generatePuzzle(size));
+        }
+
+        return puzzles;
+    }
+
+    /**
+     * Generates a fixed set of puzzles and keeps the third of them that falls into a difficulty band, judged by
+     * the number of search nodes the backtracking solver needs
+     * @param size the size of the puzzles
+     * @param count the number of puzzles to be generated
+     * @param band the difficulty band, easy, medium or hard
+     * @return the puzzles of the band
+     */
+    public static List<Logic> generate(int size, int count, String band) {
+
+        List<Logic> puzzles = generate(size, count);
+        List<long[]> effort = new ArrayList<>();
+
+        for(int index = 0; index < puzzles.size(); index++) {
+
+            Solver solver = new Solver(puzzles.get(index));
+            solver.solvePuzzle();
+
+            effort.add(new long[] {solver.getNodeCount(), index});
+        }
+
+        effort.sort(Comparator.comparingLong((long[] entry) -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+        int third = band.equals("easy") ? 0 : band.equals("medium") ? 1 : 2;
+        int from = third * effort.size() / 3;
+        int to = (third + 1) * effort.size() / 3;
+
+        List<Logic> banded = new ArrayList<>();
+
+        for(int index = from; index < to; index++) {
+            banded.add(puzzles.get((int) effort.get(index)[1]));
+        }
+
+        return banded;
+    }
+}
@@ -0,0 +1,45 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Logic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many puzzles the generator creates per second, by size
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"3", "4", "5", "6", "7", "8", "9"})
+    public int size;
+
+    private Logic gameLogic;
+
+    /**
+     * Seeds the generator, so every run generates the same sequence of puzzles
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        gameLogic = new Logic();
+        gameLogic.getGenerator().setSeed(20210221L + size);
+    }
+
+    /**
+     * Generates the next puzzle
+     * @return the cages of the puzzle, so the work isn't eliminated
+     */
+    @Benchmark
+    public Object generateBoard() {
+
+        gameLogic.getGenerator().generateBoard(size);
+
+        return gameLogic.getClusterCells();
+    }
+}
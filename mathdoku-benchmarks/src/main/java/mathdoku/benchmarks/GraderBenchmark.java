@@ -0,0 +1,54 @@
+package mathdoku.benchmarks;
+
+import mathdoku.DifficultyGrader;
+import mathdoku.Puzzle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many puzzles the difficulty grader grades per second, by size, with its default node limit
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraderBenchmark {
+
+    @Param({"4", "5", "6", "7", "8", "9"})
+    public int size;
+
+    private DifficultyGrader grader;
+
+    // The puzzles, graded in turn
+    private List<Puzzle> puzzles;
+
+    // The puzzle to be graded next
+    private int next;
+
+    /**
+     * Generates the puzzles
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        grader = new DifficultyGrader();
+        puzzles = Fixtures.generatePuzzles(size, 50);
+    }
+
+    /**
+     * Grades the next puzzle
+     * @return the grade, so the work isn't eliminated
+     */
+    @Benchmark
+    public DifficultyGrader.Grade gradePuzzle() {
+
+        DifficultyGrader.Grade grade = grader.grade(puzzles.get(next));
+        next = (next + 1) % puzzles.size();
+
+        return grade;
+    }
+}
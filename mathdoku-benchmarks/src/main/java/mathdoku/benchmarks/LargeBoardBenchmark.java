@@ -0,0 +1,125 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Generator;
+import mathdoku.Puzzle;
+import mathdoku.Solver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long generating and solving take on boards larger than 9x9, by size. Every generated puzzle is
+ * solved in turn with a budget of search nodes, and the numbers of puzzles solved and given up on are reported
+ * next to the times. The generator splits cages until the solver finishes its puzzles within a small budget, so
+ * generating includes those searches, and solving should never give up. The time of a puzzle given up on is the
+ * time the budget took
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LargeBoardBenchmark {
+
+    // The search nodes the solver gets for every puzzle, a few seconds of search on a 12x12 board
+    private static final long NODE_BUDGET = 100_000;
+
+    /**
+     * Generates puzzles one after another
+     */
+    @State(Scope.Thread)
+    public static class Generation {
+
+        @Param({"10", "12", "14", "16"})
+        public int generateSize;
+
+        private Generator generator;
+
+        /**
+         * Seeds the generator, so every run generates the same sequence of puzzles
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            generator = new Generator(null, new SplittableRandom(20210221L + generateSize));
+        }
+    }
+
+    /**
+     * Generated puzzles, solved in turn whether the solver finishes them or not
+     */
+    @State(Scope.Thread)
+    public static class Solving {
+
+        @Param({"10", "12", "14", "16"})
+        public int solveSize;
+
+        private List<Puzzle> puzzles;
+
+        // The puzzle to be solved next
+        private int next;
+
+        /**
+         * Generates the puzzles to be solved
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            puzzles = Fixtures.generatePuzzles(solveSize, 20);
+        }
+    }
+
+    /**
+     * The outcomes of the measured searches, reported by JMH next to the times
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        // The number of puzzles solved within the budget, and given up on once it ran out
+        public long solved;
+        public long givenUp;
+
+        /**
+         * Clears the counts before every iteration, so each iteration reports its own
+         */
+        @Setup(Level.Iteration)
+        public void clear() {
+            solved = 0;
+            givenUp = 0;
+        }
+    }
+
+    /**
+     * Generates the next puzzle
+     * @param generation the generator
+     * @return the puzzle, so the work isn't eliminated
+     */
+    @Benchmark
+    public Puzzle generatePuzzle(Generation generation) {
+        return generation.generator.generatePuzzle(generation.generateSize);
+    }
+
+    /**
+     * Solves the next puzzle, giving up once the node budget runs out
+     * @param solving the puzzles to be solved
+     * @param outcomes counts the puzzles solved and given up on
+     * @return the solution, null if the solver gave up, so the work isn't eliminated
+     */
+    @Benchmark
+    public int[][] solvePuzzle(Solving solving, Outcomes outcomes) {
+
+        Solver solver = new Solver(solving.puzzles.get(solving.next));
+        solving.next = (solving.next + 1) % solving.puzzles.size();
+
+        solver.setNodeLimit(NODE_BUDGET);
+
+        if(solver.solvePuzzle()) {
+            outcomes.solved++;
+        } else {
+            outcomes.givenUp++;
+        }
+
+        return solver.getSolvedBoard();
+    }
+}
@@ -0,0 +1,43 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Generator;
+import mathdoku.LatinSquareSampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many latin squares the Jacobson-Matthews chain samples per second, by size, with the mixing the
+ * generator uses by default
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatinSquareBenchmark {
+
+    @Param({"4", "6", "9", "12", "16"})
+    public int size;
+
+    private LatinSquareSampler sampler;
+
+    /**
+     * Seeds the sampler, so every run samples the same sequence of squares
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        sampler = new LatinSquareSampler(new SplittableRandom(20210221L + size));
+    }
+
+    /**
+     * Samples the next square
+     * @return the square, so the work isn't eliminated
+     */
+    @Benchmark
+    public int[][] sampleSquare() {
+        return sampler.sample(size, Generator.DEFAULT_LATIN_SQUARE_MIXING * size * size);
+    }
+}
@@ -0,0 +1,67 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Logic;
+import mathdoku.PuzzleLoader;
+import mathdoku.PuzzleParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to build a board from the description of its cages, as when a puzzle file is
+ * opened
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"3", "6", "9"})
+    public int size;
+
+    // The lines of a puzzle file
+    private List<String> lines;
+
+    // The whole text of a puzzle file
+    private String text;
+
+    private Logic gameLogic;
+
+    /**
+     * Describes a generated puzzle in the format of the puzzle files
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        lines = PuzzleLoader.toCageLines(Fixtures.generate(size, 1).get(0));
+        text = String.join("\n", lines);
+        gameLogic = new Logic();
+    }
+
+    /**
+     * Builds the board from the description of its cages
+     * @return the cages of the board, so the work isn't eliminated
+     * @throws Exception if the description is invalid
+     */
+    @Benchmark
+    public Object load() throws Exception {
+
+        new PuzzleLoader(gameLogic).load(lines);
+
+        return gameLogic.getClusterCells();
+    }
+
+    /**
+     * Reads the definition of the puzzle from its text, without building a board
+     * @return the puzzle, so the work isn't eliminated
+     * @throws Exception if the description is invalid
+     */
+    @Benchmark
+    public Object parse() throws Exception {
+        return PuzzleParser.parse(text);
+    }
+}
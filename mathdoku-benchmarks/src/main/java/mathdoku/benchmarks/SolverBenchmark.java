@@ -0,0 +1,55 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Logic;
+import mathdoku.Solver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the backtracking solver takes to solve a puzzle, by size and difficulty band
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"3", "4", "5", "6", "7", "8", "9"})
+    public int size;
+
+    @Param({"easy", "medium", "hard"})
+    public String band;
+
+    // The puzzles of the band, solved in turn
+    private List<Logic> puzzles;
+
+    // The puzzle to be solved next
+    private int next;
+
+    /**
+     * Generates the puzzles of the band
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        puzzles = Fixtures.generate(size, 15, band);
+    }
+
+    /**
+     * Solves the next puzzle of the band
+     * @return the solution, so the work isn't eliminated
+     */
+    @Benchmark
+    public int[][] solvePuzzle() {
+
+        Solver solver = new Solver(puzzles.get(next));
+        next = (next + 1) % puzzles.size();
+
+        solver.solvePuzzle();
+
+        return solver.getSolvedBoard();
+    }
+}
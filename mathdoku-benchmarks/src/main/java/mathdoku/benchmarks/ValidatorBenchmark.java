@@ -0,0 +1,64 @@
+package mathdoku.benchmarks;
+
+import mathdoku.Logic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checks run on every redraw of the board, on a full board with a mistake in a row, a column and
+ * a cage
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    @Param({"3", "6", "9"})
+    public int size;
+
+    private Logic gameLogic;
+
+    /**
+     * Fills a puzzle with its solution, and then breaks its first cell
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        gameLogic = Fixtures.generate(size, 1).get(0);
+        gameLogic.getSolver().solvePuzzle();
+        gameLogic.getSolver().solveBoard();
+
+        gameLogic.getBoard().setValue(0, 0, gameLogic.getBoard().getValue(0, 0) % size + 1);
+
+        // The mistakes are listed, as they are when the user asks for them to be highlighted
+        gameLogic.reverseHintsEnabled();
+    }
+
+    /**
+     * @return true if every row is correct
+     */
+    @Benchmark
+    public boolean areRowsCorrect() {
+        return gameLogic.areRowsCorrect();
+    }
+
+    /**
+     * @return true if every column is correct
+     */
+    @Benchmark
+    public boolean areColumnsCorrect() {
+        return gameLogic.areColumnsCorrect();
+    }
+
+    /**
+     * @return true if every cage is correct
+     */
+    @Benchmark
+    public boolean areCagesCorrect() {
+        return gameLogic.areCagesCorrect();
+    }
+}
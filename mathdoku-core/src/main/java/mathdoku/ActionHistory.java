@@ -0,0 +1,193 @@
+package mathdoku;
+
+import java.util.Arrays;
+
+/**
+ * The history of the values entered by the user, used to undo and redo them. Every action is stored as the
+ * cell it changed with the value before and after the change, in primitive arrays used as a ring buffer, so
+ * undo, redo and dropping the actions that can no longer be redone take constant time. The history can be given
+ * a capacity, after which the oldest actions are forgotten
+ */
+public class ActionHistory {
+
+    // The number of actions the arrays can hold before they first grow
+    private static final int INITIAL_LENGTH = 64;
+
+    // The largest number of actions kept, 0 if the history is unbounded
+    private final int capacity;
+
+    // The cell changed by every action, and its value before and after the change
+    private int[] cells;
+    private byte[] oldValues;
+    private byte[] newValues;
+
+    // The slot of the oldest action kept
+    private int start;
+
+    // The number of actions kept, including the ones that were undone
+    private int size;
+
+    // The number of actions that are currently applied to the board
+    private int current;
+
+    /**
+     * Creates a history without a capacity
+     */
+    public ActionHistory() {
+        this(0);
+    }
+
+    /**
+     * @param capacity the largest number of actions kept, 0 if the history is unbounded
+     */
+    public ActionHistory(int capacity) {
+
+        if(capacity < 0) {
+            throw new IllegalArgumentException("The capacity of the history can't be negative");
+        }
+
+        this.capacity = capacity;
+
+        int length = capacity == 0 ? INITIAL_LENGTH : Math.min(capacity, INITIAL_LENGTH);
+
+        cells = new int[length];
+        oldValues = new byte[length];
+        newValues = new byte[length];
+    }
+
+    /**
+     * Adds a new action after the current one. Every action that was undone can no longer be redone
+     * @param cell the index of the changed cell
+     * @param oldValue the value of the cell before the change
+     * @param newValue the value of the cell after the change
+     */
+    public void record(int cell, int oldValue, int newValue) {
+
+        truncate();
+
+        if(size == cells.length) {
+
+            // A full bounded history forgets its oldest action
+            if(size == capacity) {
+                start = (start + 1) % cells.length;
+                size--;
+                current--;
+            } else {
+                grow();
+            }
+        }
+
+        int slot = (start + size) % cells.length;
+
+        cells[slot] = cell;
+        oldValues[slot] = (byte) oldValue;
+        newValues[slot] = (byte) newValue;
+
+        size++;
+        current++;
+    }
+
+    /**
+     * Changes the value after the current action, so a change entered in several steps is undone as one action
+     * @param cell the index of the changed cell, which must be the cell of the current action
+     * @param newValue the value of the cell after the change
+     */
+    public void amend(int cell, int newValue) {
+
+        int slot = (start + current + cells.length - 1) % cells.length;
+
+        if(current == 0 || cells[slot] != cell) {
+            throw new IllegalStateException("The current action didn't change cell " + cell);
+        }
+
+        newValues[slot] = (byte) newValue;
+    }
+
+    /**
+     * Doubles the length of the arrays, without going over the capacity. The arrays only grow before the
+     * oldest action was ever forgotten, so the actions start from the first slot
+     */
+    private void grow() {
+
+        int length = capacity == 0 ? cells.length * 2 : Math.min(capacity, cells.length * 2);
+
+        cells = Arrays.copyOf(cells, length);
+        oldValues = Arrays.copyOf(oldValues, length);
+        newValues = Arrays.copyOf(newValues, length);
+    }
+
+    /**
+     * Reverts the current action on the board
+     * @param board the board the action was applied to
+     */
+    public void undo(Logic.Board board) {
+
+        current--;
+
+        int slot = (start + current) % cells.length;
+
+        board.setValue(cells[slot] / board.getSize(), cells[slot] % board.getSize(), oldValues[slot]);
+    }
+
+    /**
+     * Applies the last undone action to the board again
+     * @param board the board the action was applied to
+     */
+    public void redo(Logic.Board board) {
+
+        int slot = (start + current) % cells.length;
+
+        board.setValue(cells[slot] / board.getSize(), cells[slot] % board.getSize(), newValues[slot]);
+
+        current++;
+    }
+
+    /**
+     * Forgets every action that was undone, so it can no longer be redone
+     */
+    public void truncate() {
+        size = current;
+    }
+
+    /**
+     * Forgets every action
+     */
+    public void clear() {
+
+        start = 0;
+        size = 0;
+        current = 0;
+    }
+
+    /**
+     * Checks if there is an action to be undone
+     * @return true if undo is possible, false otherwise
+     */
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    /**
+     * Checks if there is an undone action to be redone
+     * @return true if redo is possible, false otherwise
+     */
+    public boolean canRedo() {
+        return current < size;
+    }
+
+    /**
+     * Get the number of actions kept, including the ones that were undone
+     * @return the number of actions kept
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the largest number of actions kept
+     * @return the capacity of the history, 0 if it is unbounded
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
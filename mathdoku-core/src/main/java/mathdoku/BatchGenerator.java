@@ -0,0 +1,305 @@
+package mathdoku;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Generates a pool of puzzles on several threads and streams them to disk. Every puzzle is generated from its own
+ * seed, derived from the seed of the batch and the index of the puzzle, so the batch is the same on every run
+ * whatever the number of workers. Workers hand the generated puzzles to a queue, and a single writer puts them
+ * back in the order of their indices. At most a fixed number of puzzles can wait to be written, so workers wait
+ * whenever the writer falls behind. Puzzles are written in the cage line format, with an empty line after every
+ * puzzle
+ */
+public class BatchGenerator {
+
+    // How often the progress is reported, in milliseconds
+    private static final long REPORT_INTERVAL = 1000;
+
+    // The number of rows / columns of the generated puzzles
+    private final int size;
+
+    // The number of puzzles to be generated
+    private final int count;
+
+    // The seed every puzzle seed is derived from
+    private final long seed;
+
+    // The number of generator threads
+    private final int workers;
+
+    // Generated puzzles handed over to the writer
+    private final BlockingQueue<GeneratedPuzzle> queue;
+
+    // Permits to generate a puzzle, one for every puzzle that can wait to be written
+    private final Semaphore room;
+
+    // The number of puzzles that can wait to be written
+    private final int queueCapacity;
+
+    // If the puzzles must have exactly one solution
+    private boolean uniqueSolution;
+
+    // The number of puzzles handed out to workers
+    private final AtomicInteger claimed = new AtomicInteger();
+
+    // The number of puzzles generated and written so far
+    private final LongAdder generated = new LongAdder();
+    private volatile long written;
+
+    // The counts of solutions that ran out of search nodes while puzzles were made unique
+    private final LongAdder abortedCounts = new LongAdder();
+
+    // The time workers spent waiting for room for another puzzle, in nanoseconds
+    private final LongAdder blockedNanos = new LongAdder();
+
+    /**
+     * @param size the number of rows / columns of the generated puzzles
+     * @param count the number of puzzles to be generated
+     * @param seed the seed of the batch
+     * @param workers the number of generator threads
+     * @param queueCapacity the number of generated puzzles that can wait to be written
+     */
+    public BatchGenerator(int size, int count, long seed, int workers, int queueCapacity) {
+
+        this.size = size;
+        this.count = count;
+        this.seed = seed;
+        this.workers = workers;
+
+        this.queueCapacity = queueCapacity;
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        room = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * A generated puzzle and its index in the batch
+     */
+    private static class GeneratedPuzzle {
+
+        private final int index;
+        private final String text;
+
+        /**
+         * @param index the index of the puzzle in the batch
+         * @param text the puzzle in the cage line format
+         */
+        private GeneratedPuzzle(int index, String text) {
+
+            this.index = index;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Derives the seed of a puzzle of a batch, with the finalizer of SplitMix64. A single puzzle of a batch can be
+     * generated again from its seed with Generator.generatePuzzle(size, seed)
+     * @param seed the seed of the batch
+     * @param index the index of the puzzle in the batch
+     * @return the seed of the puzzle
+     */
+    public static long puzzleSeed(long seed, int index) {
+
+        long mixed = seed + (index + 1L) * 0x9E3779B97F4A7C15L;
+
+        mixed = (mixed ^ mixed >>> 30) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ mixed >>> 27) * 0x94D049BB133111EBL;
+
+        return mixed ^ mixed >>> 31;
+    }
+
+    /**
+     * Generates the puzzles and writes them
+     * @param output where the puzzles are written
+     * @param progress receives a line describing the progress about once a second, and at the end
+     * @throws IOException if the puzzles can't be written
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     */
+    public void run(Writer output, Consumer<String> progress) throws IOException, InterruptedException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for(int worker = 0; worker < workers; worker++) {
+            futures.add(pool.submit(this::generate));
+        }
+
+        long start = System.nanoTime();
+        long lastReport = start;
+
+        // Puzzles that arrived before a puzzle of a lower index, by index
+        Map<Integer, String> pending = new HashMap<>();
+
+        try {
+
+            while(written < count) {
+
+                GeneratedPuzzle puzzle = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if(puzzle != null) {
+
+                    pending.put(puzzle.index, puzzle.text);
+
+                    String next;
+
+                    while((next = pending.remove((int) written)) != null) {
+                        output.write(next);
+                        written++;
+                        room.release();
+                    }
+                } else {
+                    checkWorkers(futures);
+                }
+
+                if(System.nanoTime() - lastReport >= TimeUnit.MILLISECONDS.toNanos(REPORT_INTERVAL)) {
+                    lastReport = System.nanoTime();
+                    progress.accept(describeProgress(start));
+                }
+            }
+
+            output.flush();
+            checkWorkers(futures);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        progress.accept(describeProgress(start));
+    }
+
+    /**
+     * Generates puzzles until every puzzle of the batch has been handed out
+     * @return nothing, so the worker can be submitted as a task that throws
+     * @throws InterruptedException if the worker is stopped while waiting for room for another puzzle
+     */
+    private Void generate() throws InterruptedException {
+
+        // Every worker has its own generator, which doesn't need a board
+        Generator generator = new Generator();
+        generator.setUniqueSolution(uniqueSolution);
+
+        while(true) {
+
+            // Room is taken before the index, so the lowest index not yet written always has room and is finished
+            long waitStart = System.nanoTime();
+            room.acquire();
+            blockedNanos.add(System.nanoTime() - waitStart);
+
+            int index = claimed.getAndIncrement();
+
+            if(index >= count) {
+                room.release();
+                return null;
+            }
+
+            Puzzle generatedPuzzle = generator.generatePuzzle(size, puzzleSeed(seed, index));
+
+            StringBuilder puzzle = new StringBuilder();
+
+            for(String line : PuzzleLoader.toCageLines(generatedPuzzle)) {
+                puzzle.append(line).append('\n');
+            }
+
+            generated.increment();
+            abortedCounts.add(generator.getAbortedCountCount());
+
+            // Never waits, as the queue has room for every puzzle that holds a permit
+            queue.put(new GeneratedPuzzle(index, puzzle.append('\n').toString()));
+        }
+    }
+
+    /**
+     * Rethrows the failure of a worker, so the writer doesn't wait for puzzles that will never come
+     * @param futures the workers
+     * @throws InterruptedException if the thread is interrupted while checking the workers
+     */
+    private void checkWorkers(List<Future<?>> futures) throws InterruptedException {
+
+        for(Future<?> future : futures) {
+
+            if(!future.isDone()) {
+                continue;
+            }
+
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A generator worker failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Describes the progress of the batch
+     * @param start when the batch started, in nanoseconds
+     * @return the numbers of puzzles generated and written, the queue depth, the rate, the back-pressure and the
+     *         counts of solutions that gave up
+     */
+    private String describeProgress(long start) {
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+
+        return String.format("generated %d/%d, written %d, queued %d/%d, %.1f puzzles/s, workers blocked %.1f s, " +
+                        "aborted counts %d", generated.sum(), count, written, queueCapacity - room.availablePermits(),
+                queueCapacity, written / seconds, blockedNanos.sum() / 1e9, abortedCounts.sum());
+    }
+
+    /**
+     * Set if the puzzles must have exactly one solution
+     * @param uniqueSolution true if the solution must be unique, false otherwise
+     */
+    public void setUniqueSolution(boolean uniqueSolution) {
+        this.uniqueSolution = uniqueSolution;
+    }
+
+    /**
+     * Get the number of puzzles written so far
+     * @return the number of puzzles written
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Generates a pool of puzzles into a file
+     * @param args the size, the number of puzzles, the seed, the output file, and optionally the number of
+     *             workers and the word unique
+     * @throws Exception if the pool can't be generated or written
+     */
+    public static void main(String[] args) throws Exception {
+
+        if(args.length < 4) {
+            System.err.println("usage: BatchGenerator <size> <count> <seed> <output> [workers] [unique]");
+            System.exit(1);
+        }
+
+        int workers = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        BatchGenerator batch = new BatchGenerator(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                Long.parseLong(args[2]), workers, 1024);
+        batch.setUniqueSolution(args.length > 5 && args[5].equals("unique"));
+
+        try(BufferedWriter output = Files.newBufferedWriter(Paths.get(args[3]), StandardCharsets.UTF_8)) {
+            batch.run(output, System.err::println);
+        }
+    }
+}
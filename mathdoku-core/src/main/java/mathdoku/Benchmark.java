@@ -0,0 +1,129 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compares the solving engines on a corpus of generated puzzles, and measures how fast puzzles with a unique
+ * solution can be generated
+ */
+public class Benchmark {
+
+    /**
+     * Generates puzzles of every size and times each solving engine on the same puzzles
+     * @param args optionally the smallest size, the largest size and the number of puzzles per size
+     */
+    public static void main(String[] args) {
+
+        int smallestSize = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int largestSize = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int puzzleCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        System.out.printf("%-6s %-16s %12s %12s%n", "size", "solver", "ms/puzzle", "nodes/puzzle");
+
+        for(int size = smallestSize; size <= largestSize; size++) {
+
+            List<Logic> corpus = new ArrayList<>();
+
+            for(int count = 0; count < puzzleCount; count++) {
+
+                Logic gameLogic = new Logic();
+                gameLogic.getGenerator().generateBoard(size);
+                corpus.add(gameLogic);
+            }
+
+            report(size, "backtracking", corpus, Solver::new);
+            report(size, "dancing-links", corpus, DancingLinksSolver::new);
+            report(size, "parallel", corpus, ParallelSolver::new);
+        }
+
+        System.out.printf("%n%-6s %16s %16s %16s%n", "size", "unique/second", "repairs/puzzle", "aborts/puzzle");
+
+        for(int size = smallestSize; size <= largestSize; size++) {
+            reportUniqueGeneration(size, puzzleCount);
+        }
+    }
+
+    /**
+     * Generates puzzles with a unique solution on one core and prints the throughput, the repairs needed and the
+     * counts of solutions that ran out of search nodes
+     * @param size the size of the puzzles
+     * @param puzzleCount the number of puzzles to be generated
+     */
+    private static void reportUniqueGeneration(int size, int puzzleCount) {
+
+        Logic gameLogic = new Logic();
+        gameLogic.getGenerator().setUniqueSolution(true);
+
+        long repairs = 0;
+        long aborts = 0;
+        long start = System.nanoTime();
+
+        for(int count = 0; count < puzzleCount; count++) {
+
+            gameLogic.getGenerator().generateBoard(size);
+            repairs += gameLogic.getGenerator().getRepairCount();
+            aborts += gameLogic.getGenerator().getAbortedCountCount();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-6s %16.1f %16.2f %16.2f%n", size + "x" + size, puzzleCount / seconds,
+                (double) repairs / puzzleCount, (double) aborts / puzzleCount);
+    }
+
+    /**
+     * Solves every puzzle of the corpus with one engine and prints the average time and search effort
+     * @param size the size of the puzzles
+     * @param name the name of the engine
+     * @param corpus the puzzles to be solved
+     * @param engine creates the engine for a puzzle
+     */
+    private static void report(int size, String name, List<Logic> corpus, Function<Logic, PuzzleSolver> engine) {
+
+        long time = 0;
+        long nodes = 0;
+
+        for(Logic gameLogic : corpus) {
+
+            PuzzleSolver solver = engine.apply(gameLogic);
+
+            long start = System.nanoTime();
+
+            if(!solver.solvePuzzle() || !isSolution(gameLogic, solver.getSolvedBoard())) {
+                throw new IllegalStateException(name + " failed to solve a " + size + "x" + size + " puzzle");
+            }
+
+            time += System.nanoTime() - start;
+            nodes += solver.getNodeCount();
+        }
+
+        System.out.printf("%-6s %-16s %12.3f %12d%n", size + "x" + size, name,
+                time / 1e6 / corpus.size(), nodes / corpus.size());
+    }
+
+    /**
+     * Checks that a solution satisfies every rule of the puzzle
+     * @param gameLogic the logical representation of the puzzle
+     * @param solvedBoard the solution to be checked
+     * @return true if the solution is correct, false otherwise
+     */
+    private static boolean isSolution(Logic gameLogic, int[][] solvedBoard) {
+
+        int size = gameLogic.getBoard().getSize();
+
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+
+                gameLogic.getBoard().setValue(row, column, solvedBoard[row][column]);
+            }
+        }
+
+        boolean correct = gameLogic.isWinReached();
+
+        gameLogic.getBoard().resetBoardValues();
+
+        return correct;
+    }
+}
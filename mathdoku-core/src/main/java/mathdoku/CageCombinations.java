@@ -0,0 +1,307 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every combination of digits that satisfies a cage, enumerated once for each operation, target, cage size and
+ * board size. The combinations are shared between all puzzles and solvers, since the same cages appear
+ * again and again
+ */
+public class CageCombinations {
+
+    // Combinations that have already been enumerated
+    private static final Map<String, CageCombinations> CACHE = new ConcurrentHashMap<>();
+
+    // Cages with more orderings than this are never expanded into tuples
+    private static final long TUPLE_LIMIT = 5000;
+
+    // The valid multisets of digits, each one sorted in ascending order
+    private final int[][] combinations;
+
+    // Mask of every digit that appears in at least one combination. Digit d is represented by bit d - 1
+    private final int candidateMask;
+
+    // The number of distinct orderings of all the combinations, ignoring rows and columns
+    private final long orderingCount;
+
+    // The ordered tuples of digits, and the candidate digits of every cell, for every cage shape seen so far
+    private final Map<String, int[][]> tuplesByShape = new ConcurrentHashMap<>();
+    private final Map<String, int[]> cellMasksByShape = new ConcurrentHashMap<>();
+
+    /**
+     * @param combinations the valid multisets of digits
+     */
+    private CageCombinations(int[][] combinations) {
+
+        this.combinations = combinations;
+
+        int mask = 0;
+        long orderings = 0;
+
+        for(int[] combination : combinations) {
+
+            for(int digit : combination) {
+                mask |= 1 << (digit - 1);
+            }
+
+            orderings = Math.min(orderings + countOrderings(combination), Long.MAX_VALUE / 2);
+        }
+
+        candidateMask = mask;
+        orderingCount = orderings;
+    }
+
+    /**
+     * Counts the distinct orderings of a sorted combination
+     * @param combination the combination, sorted in ascending order
+     * @return the number of distinct orderings
+     */
+    private static long countOrderings(int[] combination) {
+
+        long orderings = 1;
+        int run = 0;
+
+        for(int index = 0; index < combination.length; index++) {
+
+            // The length of the run of equal digits ending at this index
+            run = index > 0 && combination[index] == combination[index - 1] ? run + 1 : 1;
+
+            orderings = orderings * (index + 1) / run;
+        }
+
+        return orderings;
+    }
+
+    /**
+     * Get the combinations of a cage, enumerating them if they haven't been requested before
+     * @param operation the operation of the cage
+     * @param target the value the cage has to reach
+     * @param cageSize the number of cells in the cage
+     * @param boardSize the number of rows / columns in the board
+     * @return the combinations that satisfy the cage
+     */
+    public static CageCombinations get(char operation, int target, int cageSize, int boardSize) {
+
+        String key = "" + operation + target + "/" + cageSize + "/" + boardSize;
+
+        return CACHE.computeIfAbsent(key, ignored -> enumerate(operation, target, cageSize, boardSize));
+    }
+
+    /**
+     * Get the combinations of one of the cages of a puzzle
+     * @param puzzle the puzzle containing the cage
+     * @param cage the index of the cage
+     * @return the combinations that satisfy the cage
+     */
+    public static CageCombinations get(Puzzle puzzle, int cage) {
+
+        return get(puzzle.getCageOperation(cage), puzzle.getCageTarget(cage),
+                puzzle.getCageCells(cage).length, puzzle.getSize());
+    }
+
+    /**
+     * Finds every multiset of digits that satisfies the cage
+     * @param operation the operation of the cage
+     * @param target the value the cage has to reach
+     * @param cageSize the number of cells in the cage
+     * @param boardSize the number of rows / columns in the board
+     * @return the enumerated combinations
+     */
+    private static CageCombinations enumerate(char operation, int target, int cageSize, int boardSize) {
+
+        List<int[]> found = new ArrayList<>();
+
+        enumerateCombinations(operation, target, new int[cageSize], 0, 1, boardSize, found);
+
+        return new CageCombinations(found.toArray(new int[0][]));
+    }
+
+    /**
+     * Recursively builds every non-decreasing sequence of digits and keeps the ones that satisfy the cage
+     * @param operation the operation of the cage
+     * @param target the value the cage has to reach
+     * @param digits the sequence built so far
+     * @param position the position in the sequence to be filled next
+     * @param smallest the smallest digit that can be placed at the position
+     * @param boardSize the number of rows / columns in the board
+     * @param found the combinations found so far
+     */
+    private static void enumerateCombinations(char operation, int target, int[] digits, int position, int smallest,
+                                              int boardSize, List<int[]> found) {
+
+        if(position == digits.length) {
+
+            if(Puzzle.isCageCorrect(operation, target, digits, digits.length)) {
+                found.add(digits.clone());
+            }
+
+            return;
+        }
+
+        for(int digit = smallest; digit <= boardSize; digit++) {
+
+            digits[position] = digit;
+            enumerateCombinations(operation, target, digits, position + 1, digit, boardSize, found);
+        }
+    }
+
+    /**
+     * Get the ordered tuples of digits that can fill the cells of a cage, where no two cells of the cage that
+     * share a row or column have the same digit. Tuples are cached per cage shape
+     * @param puzzle the puzzle containing the cage
+     * @param cage the index of the cage
+     * @return the tuples, each one listing the digits in the order of the cage cells, null if the cage has
+     * too many of them to be listed
+     */
+    public int[][] getTuples(Puzzle puzzle, int cage) {
+
+        if(orderingCount > TUPLE_LIMIT) {
+            return null;
+        }
+
+        int[] cells = puzzle.getCageCells(cage);
+
+        return tuplesByShape.computeIfAbsent(getShape(puzzle, cage),
+                ignored -> enumerateTuples(cells, puzzle.getSize()));
+    }
+
+    /**
+     * Describes the positions of the cells of a cage relative to its first cell
+     * @param puzzle the puzzle containing the cage
+     * @param cage the index of the cage
+     * @return the shape of the cage
+     */
+    private static String getShape(Puzzle puzzle, int cage) {
+
+        int[] cells = puzzle.getCageCells(cage);
+        int size = puzzle.getSize();
+
+        StringBuilder shape = new StringBuilder();
+
+        for(int cell : cells) {
+            shape.append(cell / size - cells[0] / size).append(',').append(cell % size - cells[0] % size).append(';');
+        }
+
+        return shape.toString();
+    }
+
+    /**
+     * Finds every ordering of every combination that can fill the cells of a cage
+     * @param cells the cells of the cage
+     * @param size the number of rows / columns in the board
+     * @return the valid tuples
+     */
+    private int[][] enumerateTuples(int[] cells, int size) {
+
+        List<int[]> found = new ArrayList<>();
+        int[] counts = new int[size + 1];
+
+        for(int[] combination : combinations) {
+
+            for(int digit : combination) {
+                counts[digit]++;
+            }
+
+            enumerateTuples(cells, size, counts, new int[cells.length], 0, found);
+
+            for(int digit : combination) {
+                counts[digit]--;
+            }
+        }
+
+        return found.toArray(new int[0][]);
+    }
+
+    /**
+     * Recursively places the remaining digits of a combination into the cells of a cage
+     * @param cells the cells of the cage
+     * @param size the number of rows / columns in the board
+     * @param counts how many times every digit still has to be placed
+     * @param tuple the tuple built so far
+     * @param position the position of the cell to be filled next
+     * @param found the tuples found so far
+     */
+    private static void enumerateTuples(int[] cells, int size, int[] counts, int[] tuple, int position,
+                                        List<int[]> found) {
+
+        if(position == cells.length) {
+            found.add(tuple.clone());
+            return;
+        }
+
+        nextDigit:
+        for(int digit = 1; digit <= size; digit++) {
+
+            if(counts[digit] == 0) {
+                continue;
+            }
+
+            // The digit can't repeat in the row or column of an earlier cell of the cage
+            for(int earlier = 0; earlier < position; earlier++) {
+
+                if(tuple[earlier] == digit && (cells[earlier] / size == cells[position] / size ||
+                        cells[earlier] % size == cells[position] % size)) {
+                    continue nextDigit;
+                }
+            }
+
+            counts[digit]--;
+            tuple[position] = digit;
+
+            enumerateTuples(cells, size, counts, tuple, position + 1, found);
+
+            counts[digit]++;
+        }
+    }
+
+    /**
+     * Get the candidate digits of every cell of a cage
+     * @param puzzle the puzzle containing the cage
+     * @param cage the index of the cage
+     * @return a mask of candidate digits for every cell, in the order of the cage cells. Must not be modified
+     */
+    public static int[] getCellMasks(Puzzle puzzle, int cage) {
+
+        CageCombinations combinations = get(puzzle, cage);
+
+        return combinations.cellMasksByShape.computeIfAbsent(getShape(puzzle, cage), ignored -> {
+
+            int[] masks = new int[puzzle.getCageCells(cage).length];
+            int[][] tuples = combinations.getTuples(puzzle, cage);
+
+            // Without the tuples, every cell can take any digit of any combination
+            if(tuples == null) {
+                Arrays.fill(masks, combinations.candidateMask);
+                return masks;
+            }
+
+            for(int[] tuple : tuples) {
+                for(int index = 0; index < tuple.length; index++) {
+                    masks[index] |= 1 << (tuple[index] - 1);
+                }
+            }
+
+            return masks;
+        });
+    }
+
+    /**
+     * Get the valid multisets of digits
+     * @return the combinations, each one sorted in ascending order
+     */
+    public int[][] getCombinations() {
+        return combinations;
+    }
+
+    /**
+     * Get the digits that can appear anywhere in the cage
+     * @return the mask of candidate digits
+     */
+    public int getCandidateMask() {
+        return candidateMask;
+    }
+}
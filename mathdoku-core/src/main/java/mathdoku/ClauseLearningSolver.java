@@ -0,0 +1,1341 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds a solution to a Mathdoku puzzle by turning it into clauses over true / false variables and searching
+ * them with clause learning. Every conflict adds a clause that rules out its cause, so the search never makes the
+ * same mistake twice, which keeps it fast on boards larger than 9x9 where backtracking gets lost. A variable of
+ * every cell and digit is true if the cell holds the digit. Cages with few tuples get a variable per tuple, and
+ * looser sum and product cages a variable per total their first cells can add up to. Looser cages of the other
+ * operations are only checked once every cell is filled, and a filling they reject is ruled out by a clause
+ */
+public class ClauseLearningSolver implements PuzzleSolver {
+
+    // The progress is published whenever the number of nodes is a multiple of this mask plus one
+    private static final long PROGRESS_INTERVAL = 1023;
+
+    // The number of conflicts of the shortest run between two restarts
+    private static final int RESTART_BASE = 100;
+
+    // The factor the activity bump grows by after every conflict, so recent conflicts count the most
+    private static final double ACTIVITY_DECAY = 1 / 0.95;
+
+    // The number of conflicts before the learnt clauses are first thinned out, and how much later every next time
+    private static final int REDUCE_BASE = 2000;
+    private static final int REDUCE_STEP = 300;
+
+    // The values of a variable or literal
+    private static final byte UNASSIGNED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+
+    // The logical representation of the current puzzle, null if the solver works on a fixed puzzle
+    private Logic gameLogic;
+
+    // The puzzle fixed when the solver was created, null if the puzzle is read from the board on every solve
+    private Puzzle fixedPuzzle;
+
+    private int[][] solvedBoard;
+
+    // The puzzle being solved, and the number of its rows / columns
+    private Puzzle puzzle;
+    private int boardSize;
+
+    // The number of decisions made during the last search, and the most it may make
+    private long nodeCount;
+    private long nodeLimit = Long.MAX_VALUE;
+
+    // If the last search or count gave up because of the node limit or the cancellation flag
+    private boolean limitReached;
+
+    // The number of decisions made so far, published for other threads to read
+    private volatile long progress;
+
+    // The solutions found by the last count of solutions
+    private List<int[][]> countedSolutions = new ArrayList<>();
+
+    // Once set, the search gives up as soon as possible
+    private AtomicBoolean cancelled = new AtomicBoolean();
+
+    /*
+     Literal 2 * v stands for variable v being true and 2 * v + 1 for it being false. Variable
+     (cell * size + digit - 1) is true if the cell holds the digit, and the variables after them belong to cages
+      */
+    private int variableCount;
+
+    // The search only decides on the variables of the cells, the variables of the cages follow from them
+    private int decisionVariables;
+
+    // Set once a clause that can't be satisfied was found, so the puzzle has no solution
+    private boolean unsatisfiable;
+
+    // Every clause, the clauses of the puzzle first and the learnt ones after them
+    private List<int[]> clauses;
+    private int puzzleClauseCount;
+
+    // The number of decision levels among the literals of every learnt clause by its index, 0 for clauses kept for good
+    private int[] levelCount = new int[0];
+
+    /*
+     The clauses watching every literal, by literal, as pairs of the index of a clause and another of its
+     literals. A clause watches its first two literals, and is skipped while the other literal is true
+      */
+    private int[][] watches;
+    private int[] watchCount;
+
+    // The number of conflicts so far, and after how many the learnt clauses are thinned out next
+    private long conflictCount;
+    private long nextReduce;
+    private int reduceCount;
+
+    // The value of every variable, and the decision level and the clause that implied it, -1 for decisions
+    private byte[] values;
+    private int[] level;
+    private int[] reason;
+
+    // The literals made true, in the order they were, and where every decision level starts
+    private int[] trail;
+    private int trailSize;
+    private int[] levelStart;
+    private int decisionLevel;
+
+    // The position in the trail up to which the literals were propagated
+    private int propagated;
+
+    // How often every variable took part in recent conflicts, kept in a heap with the most active on top
+    private double[] activity;
+    private double activityBump = 1;
+    private int[] heap;
+    private int heapSize;
+    private int[] heapIndex;
+
+    // The value every variable last had, tried again when it is decided on
+    private boolean[] savedPhase;
+
+    // Scratch space for analysing conflicts, and for counting the decision levels of a learnt clause
+    private boolean[] seen;
+    private int[] learnt;
+    private int[] levelStamp;
+    private int stamp;
+
+    // The loose cages whose arithmetic isn't in the clauses
+    private List<Integer> uncheckedCages;
+
+    /**
+     * Creates a solver for the current game board
+     * @param board the logical representation of the current board
+     */
+    public ClauseLearningSolver(Logic board) {
+
+        gameLogic = board;
+    }
+
+    /**
+     * Creates a solver for a puzzle definition, independent of any board
+     * @param puzzle the puzzle to be solved
+     */
+    public ClauseLearningSolver(Puzzle puzzle) {
+
+        fixedPuzzle = puzzle;
+    }
+
+    /**
+     * Solves the a Mathdoku puzzle
+     * @return true if the puzzle is solvable, false otherwise
+     */
+    @Override
+    public boolean solvePuzzle() {
+        return countSolutions(1) == 1;
+    }
+
+    /**
+     * Counts the solutions of the puzzle, stopping once the limit is reached. Every solution found is ruled out by
+     * a clause before the search goes on. A count cut short by the node limit or the cancellation flag only gives
+     * the solutions found so far, which wasLimitReached tells apart from a complete count
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions found, at most the limit
+     */
+    public int countSolutions(int limit) {
+
+        puzzle = fixedPuzzle != null ? fixedPuzzle : Puzzle.fromLogic(gameLogic);
+        boardSize = puzzle.getSize();
+
+        nodeCount = 0;
+        limitReached = false;
+        progress = 0;
+        countedSolutions = new ArrayList<>();
+        solvedBoard = null;
+
+        encode();
+
+        int[] allCells = new int[boardSize * boardSize];
+
+        for(int cell = 0; cell < allCells.length; cell++) {
+            allCells[cell] = cell;
+        }
+
+        while(countedSolutions.size() < limit && search()) {
+
+            int[][] solution = readSolution();
+            int cage = findWrongCage(solution);
+
+            cancelUntil(0);
+
+            if(cage == -1) {
+                countedSolutions.add(solution);
+                addClause(blockingClause(allCells, solution));
+            } else {
+                addClause(blockingClause(puzzle.getCageCells(cage), solution));
+            }
+        }
+
+        progress = nodeCount;
+
+        if(!countedSolutions.isEmpty()) {
+            solvedBoard = countedSolutions.get(0);
+        }
+
+        return countedSolutions.size();
+    }
+
+    /**
+     * Turns the puzzle into clauses: every cell holds one digit, every digit appears once in every row and
+     * column, and every cage reaches its target
+     */
+    private void encode() {
+
+        int cells = boardSize * boardSize;
+
+        variableCount = cells * boardSize;
+        decisionVariables = variableCount;
+        unsatisfiable = false;
+        clauses = new ArrayList<>();
+        uncheckedCages = new ArrayList<>();
+
+        List<int[]> pending = new ArrayList<>();
+
+        for(int cell = 0; cell < cells; cell++) {
+            addExactlyOne(pending, cell * boardSize, 1);
+        }
+
+        for(int line = 0; line < boardSize; line++) {
+            for(int digit = 0; digit < boardSize; digit++) {
+
+                // The digit in every cell of the row, and in every cell of the column
+                addExactlyOne(pending, line * boardSize * boardSize + digit, boardSize);
+                addExactlyOne(pending, line * boardSize + digit, cells);
+            }
+        }
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            int[][] tuples = CageCombinations.get(puzzle, cage).getTuples(puzzle, cage);
+            char operation = puzzle.getCageOperation(cage);
+
+            if(tuples != null) {
+                encodeTuples(pending, cage, tuples);
+            } else if(operation == '+' || operation == 'x') {
+                encodeTotals(pending, cage, operation);
+            } else {
+                encodeCandidates(pending, cage);
+                uncheckedCages.add(cage);
+            }
+        }
+
+        allocate();
+
+        for(int[] clause : pending) {
+            addClause(clause);
+        }
+
+        puzzleClauseCount = clauses.size();
+    }
+
+    /**
+     * Adds the clauses that make exactly one of a row of variables true, the variables of a cell, or of a digit
+     * in a row or column
+     * @param pending the clauses added so far
+     * @param first the first variable
+     * @param step the distance between two neighbouring variables
+     */
+    private void addExactlyOne(List<int[]> pending, int first, int step) {
+
+        int[] atLeastOne = new int[boardSize];
+
+        for(int index = 0; index < boardSize; index++) {
+
+            atLeastOne[index] = positive(first + index * step);
+
+            for(int other = index + 1; other < boardSize; other++) {
+                pending.add(new int[] {negative(first + index * step), negative(first + other * step)});
+            }
+        }
+
+        pending.add(atLeastOne);
+    }
+
+    /**
+     * Adds a variable for every tuple of a cage: a tuple puts its digits into the cells of the cage, the cage
+     * takes one of its tuples, and a digit can only go into a cage cell if a tuple puts it there
+     * @param pending the clauses added so far
+     * @param cage the index of the cage
+     * @param tuples the tuples of the cage
+     */
+    private void encodeTuples(List<int[]> pending, int cage, int[][] tuples) {
+
+        int[] cells = puzzle.getCageCells(cage);
+        int first = variableCount;
+        int[] anyTuple = new int[tuples.length];
+
+        variableCount += tuples.length;
+
+        // The tuples that put every digit into every cell
+        List<List<Integer>> supports = new ArrayList<>();
+
+        for(int index = 0; index < cells.length * boardSize; index++) {
+            supports.add(new ArrayList<>());
+        }
+
+        for(int tuple = 0; tuple < tuples.length; tuple++) {
+
+            anyTuple[tuple] = positive(first + tuple);
+
+            for(int index = 0; index < cells.length; index++) {
+
+                pending.add(new int[] {negative(first + tuple), cellLiteral(cells[index], tuples[tuple][index])});
+                supports.get(index * boardSize + tuples[tuple][index] - 1).add(positive(first + tuple));
+            }
+        }
+
+        pending.add(anyTuple);
+
+        for(int index = 0; index < cells.length; index++) {
+            for(int digit = 1; digit <= boardSize; digit++) {
+
+                List<Integer> support = supports.get(index * boardSize + digit - 1);
+                int[] clause = new int[support.size() + 1];
+
+                clause[0] = cellLiteral(cells[index], digit) ^ 1;
+
+                for(int tuple = 0; tuple < support.size(); tuple++) {
+                    clause[tuple + 1] = support.get(tuple);
+                }
+
+                pending.add(clause);
+            }
+        }
+    }
+
+    /**
+     * Adds a variable for every total the first cells of a sum or product cage can make up. The total of no cells
+     * is the identity and the total of all of them the target, every total comes from the total before it and the
+     * digit of the next cell, and two neighbouring totals fix the digit between them
+     * @param pending the clauses added so far
+     * @param cage the index of the cage
+     * @param operation the operation of the cage, + or x
+     */
+    private void encodeTotals(List<int[]> pending, int cage, char operation) {
+
+        int[] cells = puzzle.getCageCells(cage);
+        int[] masks = CageCombinations.getCellMasks(puzzle, cage);
+        long target = puzzle.getCageTarget(cage);
+
+        encodeCandidates(pending, cage);
+
+        // The totals of the first cells, by the number of cells, mapped to their variables
+        List<Map<Long, Integer>> totals = new ArrayList<>();
+
+        totals.add(new HashMap<>());
+        totals.get(0).put(operation == '+' ? 0L : 1L, -1);
+
+        for(int index = 0; index < cells.length; index++) {
+
+            Map<Long, Integer> next = new HashMap<>();
+
+            for(long total : totals.get(index).keySet()) {
+                for(int rest = masks[index]; rest != 0; rest &= rest - 1) {
+
+                    long combined = combine(operation, total, Integer.numberOfTrailingZeros(rest) + 1);
+
+                    if(combined <= target && (operation == '+' || target % combined == 0)) {
+                        next.put(combined, -1);
+                    }
+                }
+            }
+
+            totals.add(next);
+        }
+
+        // Only totals from which the target can still be reached are kept
+        totals.get(cells.length).keySet().removeIf(total -> total != target);
+
+        for(int index = cells.length - 1; index >= 0; index--) {
+
+            Map<Long, Integer> next = totals.get(index + 1);
+            int mask = masks[index];
+
+            totals.get(index).keySet().removeIf(total -> !hasSuccessor(operation, total, mask, next));
+        }
+
+        for(Map<Long, Integer> layer : totals) {
+            for(Map.Entry<Long, Integer> total : layer.entrySet()) {
+
+                total.setValue(variableCount++);
+            }
+        }
+
+        if(totals.get(0).isEmpty()) {
+            pending.add(new int[0]);
+            return;
+        }
+
+        // The first cells make up one of the totals, which lets a digit be ruled out once no total leads on with it
+        for(Map<Long, Integer> layer : totals) {
+            pending.add(layer.values().stream().mapToInt(ClauseLearningSolver::positive).toArray());
+        }
+
+        for(int index = 0; index < cells.length; index++) {
+
+            Map<Long, Integer> before = totals.get(index);
+            Map<Long, Integer> after = totals.get(index + 1);
+
+            for(Map.Entry<Long, Integer> total : before.entrySet()) {
+                for(int rest = masks[index]; rest != 0; rest &= rest - 1) {
+
+                    int digit = Integer.numberOfTrailingZeros(rest) + 1;
+                    Integer next = after.get(combine(operation, total.getKey(), digit));
+
+                    // The total and the digit lead to the next total, or can't go together
+                    if(next != null) {
+                        pending.add(new int[] {negative(total.getValue()), cellLiteral(cells[index], digit) ^ 1,
+                                positive(next)});
+                        pending.add(new int[] {negative(total.getValue()), negative(next),
+                                cellLiteral(cells[index], digit)});
+                    } else {
+                        pending.add(new int[] {negative(total.getValue()), cellLiteral(cells[index], digit) ^ 1});
+                    }
+                }
+            }
+
+            // Every total comes from one of the totals before it
+            for(Map.Entry<Long, Integer> total : after.entrySet()) {
+
+                List<Integer> clause = new ArrayList<>();
+
+                clause.add(negative(total.getValue()));
+
+                for(int rest = masks[index]; rest != 0; rest &= rest - 1) {
+
+                    Long previous = uncombine(operation, total.getKey(), Integer.numberOfTrailingZeros(rest) + 1);
+
+                    if(previous != null && before.containsKey(previous)) {
+                        clause.add(positive(before.get(previous)));
+                    }
+                }
+
+                pending.add(clause.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+    }
+
+    /**
+     * Checks if a total can be followed by one of the next totals
+     * @param operation the operation of the cage, + or x
+     * @param total the total
+     * @param mask the digits the next cell can hold
+     * @param next the next totals
+     * @return true if a digit of the next cell leads to one of them, false otherwise
+     */
+    private static boolean hasSuccessor(char operation, long total, int mask, Map<Long, Integer> next) {
+
+        for(int rest = mask; rest != 0; rest &= rest - 1) {
+            if(next.containsKey(combine(operation, total, Integer.numberOfTrailingZeros(rest) + 1))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds a digit to a total
+     * @param operation the operation of the cage, + or x
+     * @param total the total
+     * @param digit the digit
+     * @return the new total
+     */
+    private static long combine(char operation, long total, int digit) {
+        return operation == '+' ? total + digit : total * digit;
+    }
+
+    /**
+     * Finds the total that a digit was added to
+     * @param operation the operation of the cage, + or x
+     * @param total the total after the digit was added
+     * @param digit the digit
+     * @return the total before, null if there is none
+     */
+    private static Long uncombine(char operation, long total, int digit) {
+
+        if(operation == '+') {
+            return total - digit;
+        }
+
+        return total % digit == 0 ? total / digit : null;
+    }
+
+    /**
+     * Rules out the digits no combination of a cage can put into its cells
+     * @param pending the clauses added so far
+     * @param cage the index of the cage
+     */
+    private void encodeCandidates(List<int[]> pending, int cage) {
+
+        int[] cells = puzzle.getCageCells(cage);
+        int[] masks = CageCombinations.getCellMasks(puzzle, cage);
+
+        for(int index = 0; index < cells.length; index++) {
+            for(int digit = 1; digit <= boardSize; digit++) {
+
+                if((masks[index] & 1 << (digit - 1)) == 0) {
+                    pending.add(new int[] {cellLiteral(cells[index], digit) ^ 1});
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets up the search state for the variables of the puzzle
+     */
+    private void allocate() {
+
+        watches = new int[2 * variableCount][];
+        watchCount = new int[2 * variableCount];
+
+        for(int literal = 0; literal < watches.length; literal++) {
+            watches[literal] = new int[4];
+        }
+
+        values = new byte[variableCount];
+        level = new int[variableCount];
+        reason = new int[variableCount];
+        trail = new int[variableCount];
+        levelStart = new int[variableCount + 1];
+        trailSize = 0;
+        decisionLevel = 0;
+        propagated = 0;
+
+        activity = new double[variableCount];
+        activityBump = 1;
+        savedPhase = new boolean[variableCount];
+        seen = new boolean[variableCount];
+        learnt = new int[variableCount + 1];
+        levelStamp = new int[variableCount + 1];
+        stamp = 0;
+
+        conflictCount = 0;
+        nextReduce = REDUCE_BASE;
+        reduceCount = 0;
+
+        // A cell is first tried with a digit rather than without one, which settles more at once
+        Arrays.fill(savedPhase, 0, decisionVariables, true);
+
+        heap = new int[variableCount];
+        heapIndex = new int[variableCount];
+        heapSize = 0;
+
+        for(int variable = 0; variable < variableCount; variable++) {
+            heapIndex[variable] = -1;
+
+            if(variable < decisionVariables) {
+                heapInsert(variable);
+            }
+        }
+    }
+
+    /**
+     * Adds a clause while no decision is made. Literals already false are left out, and a clause already
+     * satisfied isn't added at all
+     * @param literals the literals of the clause
+     */
+    private void addClause(int[] literals) {
+
+        if(unsatisfiable) {
+            return;
+        }
+
+        int[] clause = new int[literals.length];
+        int length = 0;
+
+        for(int literal : literals) {
+
+            if(value(literal) == TRUE) {
+                return;
+            } else if(value(literal) == UNASSIGNED) {
+                clause[length++] = literal;
+            }
+        }
+
+        if(length == 0) {
+            unsatisfiable = true;
+        } else if(length == 1) {
+            assign(clause[0], -1);
+            unsatisfiable = propagate() != -1;
+        } else {
+            attach(Arrays.copyOf(clause, length), 0);
+        }
+    }
+
+    /**
+     * Stores a clause and watches its first two literals
+     * @param clause the clause, at least two literals long
+     * @param levels the number of decision levels among its literals, 0 for a clause that must never be removed
+     * @return the index of the clause
+     */
+    private int attach(int[] clause, int levels) {
+
+        int clauseIndex = clauses.size();
+
+        if(clauseIndex >= levelCount.length) {
+            levelCount = Arrays.copyOf(levelCount, Math.max(clauseIndex + 1, 2 * levelCount.length));
+        }
+
+        clauses.add(clause);
+        levelCount[clauseIndex] = levels;
+        watch(clause[0], clauseIndex, clause[1]);
+        watch(clause[1], clauseIndex, clause[0]);
+
+        return clauseIndex;
+    }
+
+    /**
+     * Adds a clause to the clauses watching a literal
+     * @param literal the literal
+     * @param clause the index of the clause
+     * @param blocker another literal of the clause, which satisfies it while it is true
+     */
+    private void watch(int literal, int clause, int blocker) {
+
+        if(watchCount[literal] + 2 > watches[literal].length) {
+            watches[literal] = Arrays.copyOf(watches[literal], watches[literal].length * 2);
+        }
+
+        watches[literal][watchCount[literal]++] = clause;
+        watches[literal][watchCount[literal]++] = blocker;
+    }
+
+    /**
+     * Searches for an assignment that satisfies every clause, deciding on the most active variables and
+     * restarting after runs of conflicts that grow along the Luby sequence
+     * @return true if one was found, false if there is none or the search gave up
+     */
+    private boolean search() {
+
+        if(unsatisfiable) {
+            return false;
+        }
+
+        for(int run = 0; ; run++) {
+
+            long conflictLimit = RESTART_BASE * luby(run);
+            long conflicts = 0;
+
+            while(conflicts < conflictLimit) {
+
+                int conflict = propagate();
+
+                if(conflict != -1) {
+
+                    if(decisionLevel == 0) {
+                        unsatisfiable = true;
+                        return false;
+                    }
+
+                    conflicts++;
+                    learn(conflict);
+
+                    if(++conflictCount >= nextReduce) {
+                        reduce();
+                        nextReduce = conflictCount + REDUCE_BASE + REDUCE_STEP * ++reduceCount;
+                    }
+
+                    continue;
+                }
+
+                if(cancelled.get() || nodeCount >= nodeLimit) {
+                    limitReached = true;
+                    return false;
+                }
+
+                int variable = nextDecision();
+
+                // Every variable is assigned without a conflict
+                if(variable == -1) {
+                    return true;
+                }
+
+                if((++nodeCount & PROGRESS_INTERVAL) == 0) {
+                    progress = nodeCount;
+                }
+
+                levelStart[++decisionLevel] = trailSize;
+                assign(savedPhase[variable] ? positive(variable) : negative(variable), -1);
+            }
+
+            cancelUntil(0);
+        }
+    }
+
+    /**
+     * Get an element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, ...
+     * @param index the position in the sequence, counted from 0
+     * @return the element
+     */
+    private static long luby(int index) {
+
+        // The smallest complete block of the sequence that holds the index, and its largest element
+        int blockSize = 1;
+        int exponent = 0;
+
+        while(blockSize < index + 1) {
+            blockSize = 2 * blockSize + 1;
+            exponent++;
+        }
+
+        // Every block is two copies of the block before it followed by its largest element
+        while(blockSize - 1 != index) {
+            blockSize = (blockSize - 1) / 2;
+            exponent--;
+            index %= blockSize;
+        }
+
+        return 1L << exponent;
+    }
+
+    /**
+     * Makes every literal true that is the only one left unassigned in a clause whose other literals are false
+     * @return the index of a clause whose literals are all false, -1 if there is none
+     */
+    private int propagate() {
+
+        while(propagated < trailSize) {
+
+            int falseLiteral = trail[propagated++] ^ 1;
+            int[] watching = watches[falseLiteral];
+            int count = watchCount[falseLiteral];
+            int kept = 0;
+
+            for(int index = 0; index < count; index += 2) {
+
+                int clauseIndex = watching[index];
+                int blocker = watching[index + 1];
+
+                // A clause satisfied by its blocker doesn't have to be looked at
+                if(value(blocker) == TRUE) {
+                    watching[kept++] = clauseIndex;
+                    watching[kept++] = blocker;
+                    continue;
+                }
+
+                int[] clause = clauses.get(clauseIndex);
+
+                // The false literal is kept second, so the first one is the literal the clause may imply
+                if(clause[0] == falseLiteral) {
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+
+                if(value(clause[0]) == TRUE) {
+                    watching[kept++] = clauseIndex;
+                    watching[kept++] = clause[0];
+                    continue;
+                }
+
+                boolean moved = false;
+
+                for(int other = 2; other < clause.length; other++) {
+
+                    if(value(clause[other]) != FALSE) {
+
+                        clause[1] = clause[other];
+                        clause[other] = falseLiteral;
+                        watch(clause[1], clauseIndex, clause[0]);
+                        moved = true;
+                        break;
+                    }
+                }
+
+                if(moved) {
+                    continue;
+                }
+
+                watching[kept++] = clauseIndex;
+                watching[kept++] = clause[0];
+
+                if(value(clause[0]) == FALSE) {
+
+                    // The rest of the clauses still watch the literal
+                    for(index += 2; index < count; index++) {
+                        watching[kept++] = watching[index];
+                    }
+
+                    watchCount[falseLiteral] = kept;
+                    propagated = trailSize;
+
+                    return clauseIndex;
+                }
+
+                assign(clause[0], clauseIndex);
+            }
+
+            watchCount[falseLiteral] = kept;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Learns the clause that rules out the cause of a conflict, the first unique implication point, then jumps
+     * back to the level at which the clause implies a literal. Literals implied by other literals of the clause are
+     * left out of it
+     * @param conflict the index of the clause whose literals are all false
+     */
+    private void learn(int conflict) {
+
+        // The first literal is the one of the current level that the clause will imply
+        int length = 1;
+        int pathCount = 0;
+        int literal = -1;
+        int index = trailSize - 1;
+        int clauseIndex = conflict;
+
+        do {
+
+            int[] clause = clauses.get(clauseIndex);
+
+            // The first literal of a reason is the literal it implied, which is already being resolved on
+            for(int position = literal == -1 ? 0 : 1; position < clause.length; position++) {
+
+                int variable = clause[position] >> 1;
+
+                if(!seen[variable] && level[variable] > 0) {
+
+                    seen[variable] = true;
+                    bump(variable);
+
+                    if(level[variable] == decisionLevel) {
+                        pathCount++;
+                    } else {
+                        learnt[length++] = clause[position];
+                    }
+                }
+            }
+
+            while(!seen[trail[index] >> 1]) {
+                index--;
+            }
+
+            literal = trail[index--];
+            clauseIndex = reason[literal >> 1];
+            seen[literal >> 1] = false;
+            pathCount--;
+        } while(pathCount > 0);
+
+        learnt[0] = literal ^ 1;
+
+        // Literals left out are marked by their complement, as every literal has to be unmarked as seen afterwards
+        for(int position = 1; position < length; position++) {
+            if(isImplied(learnt[position])) {
+                learnt[position] = ~learnt[position];
+            }
+        }
+
+        int kept = 1;
+
+        for(int position = 1; position < length; position++) {
+
+            int other = learnt[position] < 0 ? ~learnt[position] : learnt[position];
+
+            seen[other >> 1] = false;
+
+            if(learnt[position] >= 0) {
+                learnt[kept++] = other;
+            }
+        }
+
+        // The literal of the highest earlier level is watched second, so it is the last to be unassigned
+        int[] clause = Arrays.copyOf(learnt, kept);
+        int backLevel = 0;
+
+        for(int position = 1; position < clause.length; position++) {
+
+            int other = clause[position];
+
+            if(level[other >> 1] > backLevel) {
+
+                backLevel = level[other >> 1];
+                clause[position] = clause[1];
+                clause[1] = other;
+            }
+        }
+
+        activityBump *= ACTIVITY_DECAY;
+
+        int levels = countLevels(clause);
+
+        cancelUntil(backLevel);
+
+        if(clause.length == 1) {
+            assign(clause[0], -1);
+        } else {
+            assign(clause[0], attach(clause, levels));
+        }
+    }
+
+    /**
+     * Checks if a literal of a learnt clause can be left out, because every other literal of the clause that
+     * implied it is in the learnt clause too, or was assigned before any decision
+     * @param literal the literal of the learnt clause
+     * @return true if the literal can be left out, false otherwise
+     */
+    private boolean isImplied(int literal) {
+
+        int clauseIndex = reason[literal >> 1];
+
+        if(clauseIndex == -1) {
+            return false;
+        }
+
+        int[] clause = clauses.get(clauseIndex);
+
+        for(int position = 1; position < clause.length; position++) {
+
+            int variable = clause[position] >> 1;
+
+            if(!seen[variable] && level[variable] > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts the decision levels the literals of a clause were assigned at. Clauses over few levels tie
+     * decisions together closely, and are the ones kept when the learnt clauses are thinned out
+     * @param clause the clause
+     * @return the number of distinct levels
+     */
+    private int countLevels(int[] clause) {
+
+        int levels = 0;
+
+        stamp++;
+
+        for(int literal : clause) {
+
+            int literalLevel = level[literal >> 1];
+
+            if(levelStamp[literalLevel] != stamp) {
+                levelStamp[literalLevel] = stamp;
+                levels++;
+            }
+        }
+
+        return levels;
+    }
+
+    /**
+     * Removes half of the learnt clauses, those over the most decision levels first. Clauses over two levels or
+     * less, and clauses that implied a literal still assigned, are always kept
+     */
+    private void reduce() {
+
+        List<Integer> candidates = new ArrayList<>();
+
+        for(int clauseIndex = puzzleClauseCount; clauseIndex < clauses.size(); clauseIndex++) {
+
+            int first = clauses.get(clauseIndex)[0] >> 1;
+            boolean locked = values[first] != UNASSIGNED && reason[first] == clauseIndex;
+
+            if(levelCount[clauseIndex] > 2 && !locked) {
+                candidates.add(clauseIndex);
+            }
+        }
+
+        candidates.sort((first, second) -> levelCount[first] != levelCount[second] ?
+                levelCount[second] - levelCount[first] :
+                clauses.get(second).length - clauses.get(first).length);
+
+        boolean[] removed = new boolean[clauses.size()];
+
+        for(int index = 0; index < (clauses.size() - puzzleClauseCount) / 2 && index < candidates.size(); index++) {
+            removed[candidates.get(index)] = true;
+        }
+
+        // The clauses left are moved together, and the reasons and watches follow them to their new places
+        int[] newIndex = new int[clauses.size()];
+        List<int[]> kept = new ArrayList<>();
+
+        for(int clauseIndex = 0; clauseIndex < clauses.size(); clauseIndex++) {
+
+            if(removed[clauseIndex]) {
+                continue;
+            }
+
+            newIndex[clauseIndex] = kept.size();
+            levelCount[kept.size()] = levelCount[clauseIndex];
+            kept.add(clauses.get(clauseIndex));
+        }
+
+        clauses = kept;
+
+        for(int index = 0; index < trailSize; index++) {
+
+            int variable = trail[index] >> 1;
+
+            if(reason[variable] != -1) {
+                reason[variable] = newIndex[reason[variable]];
+            }
+        }
+
+        Arrays.fill(watchCount, 0);
+
+        for(int clauseIndex = 0; clauseIndex < clauses.size(); clauseIndex++) {
+
+            int[] clause = clauses.get(clauseIndex);
+
+            watch(clause[0], clauseIndex, clause[1]);
+            watch(clause[1], clauseIndex, clause[0]);
+        }
+    }
+
+    /**
+     * Undoes every assignment made above a decision level
+     * @param target the decision level to return to
+     */
+    private void cancelUntil(int target) {
+
+        if(decisionLevel <= target) {
+            return;
+        }
+
+        for(int index = trailSize - 1; index >= levelStart[target + 1]; index--) {
+
+            int variable = trail[index] >> 1;
+
+            savedPhase[variable] = values[variable] == TRUE;
+            values[variable] = UNASSIGNED;
+
+            if(heapIndex[variable] == -1 && variable < decisionVariables) {
+                heapInsert(variable);
+            }
+        }
+
+        trailSize = levelStart[target + 1];
+        propagated = trailSize;
+        decisionLevel = target;
+    }
+
+    /**
+     * Makes a literal true
+     * @param literal the literal
+     * @param clause the index of the clause that implied it, -1 for a decision
+     */
+    private void assign(int literal, int clause) {
+
+        int variable = literal >> 1;
+
+        values[variable] = (literal & 1) == 0 ? TRUE : FALSE;
+        level[variable] = decisionLevel;
+        reason[variable] = clause;
+        trail[trailSize++] = literal;
+    }
+
+    /**
+     * Get the value of a literal
+     * @param literal the literal
+     * @return TRUE, FALSE or UNASSIGNED
+     */
+    private byte value(int literal) {
+
+        byte value = values[literal >> 1];
+
+        return (literal & 1) == 0 ? value : (byte) -value;
+    }
+
+    /**
+     * Picks the most active variable that isn't assigned yet
+     * @return the variable, -1 if every variable is assigned
+     */
+    private int nextDecision() {
+
+        while(heapSize > 0) {
+
+            int variable = heapRemoveTop();
+
+            if(values[variable] == UNASSIGNED) {
+                return variable;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Raises the activity of a variable that took part in a conflict
+     * @param variable the variable
+     */
+    private void bump(int variable) {
+
+        activity[variable] += activityBump;
+
+        // Activities are scaled down together before they overflow
+        if(activity[variable] > 1e100) {
+
+            for(int other = 0; other < variableCount; other++) {
+                activity[other] *= 1e-100;
+            }
+
+            activityBump *= 1e-100;
+        }
+
+        if(heapIndex[variable] != -1) {
+            heapUp(heapIndex[variable]);
+        }
+    }
+
+    /**
+     * Adds a variable to the heap of variables to decide on
+     * @param variable the variable
+     */
+    private void heapInsert(int variable) {
+
+        heap[heapSize] = variable;
+        heapIndex[variable] = heapSize;
+        heapUp(heapSize++);
+    }
+
+    /**
+     * Removes the most active variable from the heap
+     * @return the variable
+     */
+    private int heapRemoveTop() {
+
+        int top = heap[0];
+
+        heap[0] = heap[--heapSize];
+        heapIndex[heap[0]] = 0;
+        heapIndex[top] = -1;
+
+        if(heapSize > 0) {
+            heapDown(0);
+        }
+
+        return top;
+    }
+
+    /**
+     * Moves a variable up the heap until its parent is at least as active
+     * @param position the position of the variable in the heap
+     */
+    private void heapUp(int position) {
+
+        int variable = heap[position];
+
+        while(position > 0 && activity[heap[(position - 1) / 2]] < activity[variable]) {
+
+            heap[position] = heap[(position - 1) / 2];
+            heapIndex[heap[position]] = position;
+            position = (position - 1) / 2;
+        }
+
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    /**
+     * Moves a variable down the heap until its children are at most as active
+     * @param position the position of the variable in the heap
+     */
+    private void heapDown(int position) {
+
+        int variable = heap[position];
+
+        while(2 * position + 1 < heapSize) {
+
+            int child = 2 * position + 1;
+
+            if(child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) {
+                child++;
+            }
+
+            if(activity[heap[child]] <= activity[variable]) {
+                break;
+            }
+
+            heap[position] = heap[child];
+            heapIndex[heap[position]] = position;
+            position = child;
+        }
+
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    /**
+     * Reads the digits of the cells from the variables of a satisfying assignment
+     * @return the values of the board, row by row
+     */
+    private int[][] readSolution() {
+
+        int[][] solution = new int[boardSize][boardSize];
+
+        for(int cell = 0; cell < boardSize * boardSize; cell++) {
+            for(int digit = 1; digit <= boardSize; digit++) {
+
+                if(value(cellLiteral(cell, digit)) == TRUE) {
+                    solution[cell / boardSize][cell % boardSize] = digit;
+                }
+            }
+        }
+
+        return solution;
+    }
+
+    /**
+     * Finds a loose cage whose arithmetic isn't in the clauses and that a solution breaks
+     * @param solution the values of the board, row by row
+     * @return the index of the cage, -1 if every cage is reached
+     */
+    private int findWrongCage(int[][] solution) {
+
+        for(int cage : uncheckedCages) {
+
+            int[] cells = puzzle.getCageCells(cage);
+            int[] cageValues = new int[cells.length];
+
+            for(int index = 0; index < cells.length; index++) {
+                cageValues[index] = solution[cells[index] / boardSize][cells[index] % boardSize];
+            }
+
+            if(!Puzzle.isCageCorrect(puzzle.getCageOperation(cage), puzzle.getCageTarget(cage), cageValues,
+                    cells.length)) {
+                return cage;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Creates the clause that rules out the values a solution puts into some cells
+     * @param cells the cells, those of a cage or of the whole board
+     * @param solution the values of the board, row by row
+     * @return the clause
+     */
+    private int[] blockingClause(int[] cells, int[][] solution) {
+
+        int[] clause = new int[cells.length];
+
+        for(int index = 0; index < cells.length; index++) {
+            clause[index] = cellLiteral(cells[index], solution[cells[index] / boardSize][cells[index] % boardSize]) ^ 1;
+        }
+
+        return clause;
+    }
+
+    /**
+     * Get the literal that is true if a cell holds a digit
+     * @param cell the index of the cell
+     * @param digit the digit
+     * @return the literal
+     */
+    private int cellLiteral(int cell, int digit) {
+        return positive(cell * boardSize + digit - 1);
+    }
+
+    /**
+     * Get the literal that is true if a variable is
+     * @param variable the variable
+     * @return the literal
+     */
+    private static int positive(int variable) {
+        return 2 * variable;
+    }
+
+    /**
+     * Get the literal that is true if a variable isn't
+     * @param variable the variable
+     * @return the literal
+     */
+    private static int negative(int variable) {
+        return 2 * variable + 1;
+    }
+
+    /**
+     * Getter for solved board
+     * @return the solution to the current puzzle
+     */
+    @Override
+    public int[][] getSolvedBoard() {
+        return solvedBoard;
+    }
+
+    /**
+     * Get the number of decisions made during the last search
+     * @return the number of search nodes explored
+     */
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Set the number of decisions after which the search gives up, as if the puzzle had no solution
+     * @param nodeLimit the largest number of decisions, Long.MAX_VALUE for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Checks if the last search or count gave up before it was finished, because the node limit was reached or the
+     * cancellation flag was set
+     * @return true if the last search or count was cut short, false if it was complete
+     */
+    public boolean wasLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Get the number of decisions made so far by the running search. Unlike getNodeCount, it can be read from
+     * another thread while the search is running, but is only updated every 1024 nodes
+     * @return the number of search nodes explored so far
+     */
+    public long getProgress() {
+        return progress;
+    }
+
+    /**
+     * Set the flag that cancels the search once it is set
+     * @param cancelled the cancellation flag
+     */
+    public void setCancelled(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Get the solutions found by the last count of solutions
+     * @return the solutions found, at most as many as the limit of the count
+     */
+    public List<int[][]> getCountedSolutions() {
+        return countedSolutions;
+    }
+}
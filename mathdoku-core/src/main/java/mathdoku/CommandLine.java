@@ -0,0 +1,609 @@
+package mathdoku;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the game engine from the command line, without JavaFX. Puzzles are read from files or, for the file -, from
+ * the standard input, and can hold several puzzles separated by empty lines. Results are printed to the standard
+ * output in the cage line format, or with --json as one JSON object per line. Nothing is set up before the
+ * command is known, so the tool starts about as fast as the JVM does and can be called from shell pipelines.
+ * Every puzzle is searched with a time budget and optionally a budget of search nodes, and a puzzle that runs
+ * out of either is reported as a timeout, since large boards can take the solver far longer than anyone waits
+ */
+public class CommandLine {
+
+    // Exit codes: a wrong command or an unreadable file, and puzzles that failed the command
+    private static final int USAGE_ERROR = 1;
+    private static final int FAILED = 2;
+
+    // The time budget of every puzzle in milliseconds, unless set with --timeout
+    private static final long DEFAULT_TIMEOUT = 10_000;
+
+    // Where the results are printed, as UTF-8 whatever the platform encoding is
+    private final PrintWriter output;
+
+    // The options of the command, by name without the leading dashes. Flags map to an empty value
+    private final Map<String, String> options = new HashMap<>();
+
+    // If results are printed as JSON
+    private boolean json;
+
+    // The time budget of every puzzle in milliseconds, 0 for no budget
+    private long timeout;
+
+    // The search nodes of every puzzle, Long.MAX_VALUE for no budget
+    private long nodeLimit;
+
+    /**
+     * @param output where the results are printed
+     */
+    public CommandLine(PrintWriter output) {
+        this.output = output;
+    }
+
+    /**
+     * Runs a command
+     * @param args the command, followed by its arguments and options
+     * @return the exit code: 0 on success, 1 for a wrong command or an unreadable file, 2 if a puzzle failed
+     * @throws IOException if the output can't be written
+     */
+    public int run(String[] args) throws IOException {
+
+        if(args.length == 0) {
+            return usage();
+        }
+
+        String file = null;
+
+        for(int index = 1; index < args.length; index++) {
+
+            if(!args[index].startsWith("--")) {
+                file = args[index];
+            } else if(index + 1 < args.length && !args[index + 1].startsWith("--") && takesValue(args[index])) {
+                options.put(args[index].substring(2), args[++index]);
+            } else {
+                options.put(args[index].substring(2), "");
+            }
+        }
+
+        json = options.containsKey("json");
+
+        try {
+
+            timeout = Long.parseLong(options.getOrDefault("timeout", Long.toString(DEFAULT_TIMEOUT)));
+            nodeLimit = options.containsKey("nodes") ? Long.parseLong(options.get("nodes")) : Long.MAX_VALUE;
+
+            switch(args[0]) {
+                case "solve":
+                    return file == null ? usage() : solve(file);
+                case "validate":
+                    return file == null ? usage() : validate(file);
+                case "grade":
+                    return file == null ? usage() : grade(file);
+                case "generate":
+                    return generate();
+                case "bench":
+                    return bench();
+                default:
+                    return usage();
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("not a number: " + e.getMessage());
+            return USAGE_ERROR;
+        } catch (PuzzleFormatException e) {
+            System.err.println(file + ": " + e.getMessage());
+            return FAILED;
+        } finally {
+            output.flush();
+        }
+    }
+
+    /**
+     * Checks if an option is followed by a value
+     * @param option the option, with its leading dashes
+     * @return true if it takes a value, false if it is a flag
+     */
+    private static boolean takesValue(String option) {
+        return !option.equals("--json") && !option.equals("--unique");
+    }
+
+    /**
+     * Prints how the tool is used
+     * @return the exit code of a wrong command
+     */
+    private static int usage() {
+
+        System.err.println("usage: mathdoku solve <file> [--timeout <ms>] [--nodes <nodes>] [--json]");
+        System.err.println("       mathdoku validate <file> [--timeout <ms>] [--nodes <nodes>] [--json]");
+        System.err.println("       mathdoku grade <file> [--timeout <ms>] [--nodes <nodes>] [--json]");
+        System.err.println("       mathdoku generate --size <size> [--count <count>] [--seed <seed>] [--unique] " +
+                "[--nodes <nodes>] [--json]");
+        System.err.println("       mathdoku bench [--size <size>] [--count <count>] [--seed <seed>] [--timeout <ms>] " +
+                "[--nodes <nodes>] [--json]");
+        System.err.println("files can hold several puzzles separated by empty lines, - reads the standard input");
+        System.err.println("every puzzle gets " + DEFAULT_TIMEOUT + " ms unless set otherwise, 0 for no limit; " +
+                "grading gives up after " + DifficultyGrader.DEFAULT_NODE_LIMIT + " nodes unless set otherwise");
+
+        return USAGE_ERROR;
+    }
+
+    /**
+     * Creates a solver that gives up once the time or node budget of a puzzle runs out
+     * @param puzzle the puzzle to be solved
+     * @param cancelled the flag set once the time budget runs out
+     * @return the solver
+     */
+    private Solver limitedSolver(Puzzle puzzle, AtomicBoolean cancelled) {
+
+        Solver solver = new Solver(puzzle);
+        solver.setNodeLimit(nodeLimit);
+        solver.setCancelled(cancelled);
+
+        return solver;
+    }
+
+    /**
+     * Starts the time budget of a puzzle
+     * @return the flag set once the budget runs out
+     */
+    private AtomicBoolean startTimer() {
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        if(timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> cancelled.set(true));
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Prints the solution grid of every puzzle of a file, as a line of values for every row and an empty line
+     * after every puzzle
+     * @param file the file, - for the standard input
+     * @return the exit code, 2 if a puzzle has no solution or ran out of its budget
+     * @throws IOException if the file can't be read
+     * @throws PuzzleFormatException if a puzzle is invalid
+     */
+    private int solve(String file) throws IOException, PuzzleFormatException {
+
+        boolean allSolved = true;
+
+        try(Reader reader = open(file)) {
+
+            PuzzleParser parser = new PuzzleParser(reader);
+
+            for(Puzzle puzzle = parser.next(); puzzle != null; puzzle = parser.next()) {
+
+                AtomicBoolean cancelled = startTimer();
+                Solver solver = limitedSolver(puzzle, cancelled);
+
+                boolean solved = solver.solvePuzzle();
+                boolean timedOut = !solved && solver.wasLimitReached();
+
+                allSolved &= solved;
+
+                if(json) {
+                    output.println("{\"size\":" + puzzle.getSize() + ",\"status\":\"" +
+                            (solved ? "solved" : timedOut ? "timeout" : "unsolvable") + "\",\"solved\":" + solved +
+                            ",\"solution\":" + (solved ? toJson(solver.getSolvedBoard()) : "null") + ",\"nodes\":" +
+                            solver.getNodeCount() + "}");
+                } else if(solved) {
+
+                    for(int[] row : solver.getSolvedBoard()) {
+
+                        StringBuilder line = new StringBuilder();
+
+                        for(int value : row) {
+                            line.append(line.length() == 0 ? "" : " ").append(value);
+                        }
+
+                        output.println(line);
+                    }
+
+                    output.println();
+                } else {
+                    output.println(timedOut ? "timeout" : "no solution");
+                    output.println();
+                }
+            }
+        }
+
+        return allSolved ? 0 : FAILED;
+    }
+
+    /**
+     * Checks that every puzzle of a file is well formed, solvable and has exactly one solution. Prints a line per
+     * puzzle: its index in the file, valid, malformed, unsolvable, ambiguous or timeout, and what is wrong with it
+     * @param file the file, - for the standard input
+     * @return the exit code, 2 if a puzzle isn't valid
+     * @throws IOException if the file can't be read
+     */
+    private int validate(String file) throws IOException {
+
+        boolean allValid = true;
+
+        try(Reader reader = open(file)) {
+
+            PuzzleParser parser = new PuzzleParser(reader);
+
+            for(int index = 0; ; index++) {
+
+                String status;
+                String message = "";
+
+                try {
+
+                    Puzzle puzzle = parser.next();
+
+                    if(puzzle == null) {
+                        break;
+                    }
+
+                    AtomicBoolean cancelled = startTimer();
+                    Solver solver = limitedSolver(puzzle, cancelled);
+
+                    // Two solutions are enough to tell that the solution isn't unique
+                    int solutions = solver.countSolutions(2);
+
+                    if(solutions < 2 && solver.wasLimitReached()) {
+                        status = "timeout";
+                    } else {
+                        status = solutions == 0 ? "unsolvable" : solutions == 1 ? "valid" : "ambiguous";
+                    }
+                } catch (PuzzleFormatException e) {
+
+                    status = "malformed";
+                    message = e.getMessage();
+                    parser.skipPuzzle();
+                }
+
+                allValid &= status.equals("valid");
+
+                if(json) {
+                    output.println("{\"index\":" + index + ",\"status\":\"" + status + "\",\"message\":" +
+                            quote(message) + "}");
+                } else {
+                    output.println(index + "\t" + status + (message.isEmpty() ? "" : "\t" + message));
+                }
+            }
+        } catch (PuzzleFormatException e) {
+
+            // The file ended in the middle of a puzzle that couldn't be skipped
+            System.err.println(file + ": " + e.getMessage());
+            return FAILED;
+        }
+
+        return allValid ? 0 : FAILED;
+    }
+
+    /**
+     * Grades every puzzle of a file, printing a line per puzzle: its index in the file and its grade, or timeout if
+     * the time budget ran out. A search that reaches the node limit of the grader still gives a grade, whose score
+     * is a lower bound
+     * @param file the file, - for the standard input
+     * @return the exit code, 2 if a puzzle has no solution or ran out of time
+     * @throws IOException if the file can't be read
+     * @throws PuzzleFormatException if a puzzle is invalid
+     */
+    private int grade(String file) throws IOException, PuzzleFormatException {
+
+        DifficultyGrader grader = new DifficultyGrader();
+
+        if(options.containsKey("nodes")) {
+            grader.setNodeLimit(nodeLimit);
+        }
+        boolean allSolved = true;
+
+        if(options.containsKey("nodes")) {
+            grader.setNodeLimit(nodeLimit);
+        }
+
+        try(Reader reader = open(file)) {
+
+            PuzzleParser parser = new PuzzleParser(reader);
+            int index = 0;
+
+            for(Puzzle puzzle = parser.next(); puzzle != null; puzzle = parser.next(), index++) {
+
+                AtomicBoolean cancelled = startTimer();
+
+                DifficultyGrader.Grade grade = grader.grade(puzzle, cancelled);
+                boolean timedOut = !grade.isSolved() && cancelled.get();
+
+                allSolved &= grade.isSolved() || grade.isLimitReached() && !timedOut;
+
+                if(json) {
+
+                    Propagator.Technique hardest = grade.getHardestTechnique();
+
+                    String technique = grade.needsSearch() ? "\"SEARCH\"" :
+                            hardest == null ? "null" : quote(hardest.toString());
+
+                    output.println(String.format(Locale.ROOT, "{\"index\":%d,\"score\":%.1f,\"hardest\":%s," +
+                                    "\"nodes\":%d,\"depth\":%d,\"solved\":%b,\"limitReached\":%b,\"timeout\":%b}",
+                            index, grade.getScore(), technique, grade.getNodeCount(), grade.getMaxDepth(),
+                            grade.isSolved(), grade.isLimitReached(), timedOut));
+                } else {
+                    output.println(index + "\t" + (timedOut ? "timeout" : DifficultyGrader.describe(grade)));
+                }
+            }
+        }
+
+        return allSolved ? 0 : FAILED;
+    }
+
+    /**
+     * Generates puzzles and prints them in the cage line format with an empty line after every puzzle. Every
+     * puzzle is generated from its own seed, drawn from the seed of the command, so a puzzle can be generated
+     * again on its own from the seed printed with --json
+     * @return the exit code
+     */
+    private int generate() {
+
+        if(!options.containsKey("size")) {
+            return usage();
+        }
+
+        int size = Integer.parseInt(options.get("size"));
+        int count = Integer.parseInt(options.getOrDefault("count", "1"));
+
+        if(size < 1 || size > Puzzle.MAXIMUM_SIZE) {
+            System.err.println("the size must be from 1 to " + Puzzle.MAXIMUM_SIZE);
+            return USAGE_ERROR;
+        }
+
+        SplittableRandom random = options.containsKey("seed") ?
+                new SplittableRandom(Long.parseLong(options.get("seed"))) : new SplittableRandom();
+
+        Generator generator = new Generator();
+        generator.setUniqueSolution(options.containsKey("unique"));
+
+        // Every count of solutions made while the solution is made unique gets the node budget
+        if(options.containsKey("nodes")) {
+            generator.setCountNodeLimit(nodeLimit);
+        }
+
+        for(int index = 0; index < count; index++) {
+
+            long seed = random.nextLong();
+            Puzzle puzzle = generator.generatePuzzle(size, seed);
+
+            if(json) {
+                output.println("{\"size\":" + size + ",\"seed\":" + seed + ",\"cages\":" + toJson(puzzle) + "}");
+            } else {
+
+                for(String line : PuzzleLoader.toCageLines(puzzle)) {
+                    output.println(line);
+                }
+
+                output.println();
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Times generating, solving and grading puzzles, for one size or every size from 3 to 9. Prints a line per
+     * size with the average time of each in milliseconds, the average number of search nodes and the number of
+     * puzzles that ran out of their budget, whose time counts up to where they gave up
+     * @return the exit code, 2 if a generated puzzle wasn't solved or ran out of its budget
+     */
+    private int bench() {
+
+        int count = Integer.parseInt(options.getOrDefault("count", "20"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "20210221"));
+        int smallest = options.containsKey("size") ? Integer.parseInt(options.get("size")) : 3;
+        int largest = options.containsKey("size") ? smallest : 9;
+
+        if(!json) {
+            output.printf(Locale.ROOT, "%-6s %12s %12s %12s %12s %14s %14s%n", "size", "generate ms", "solve ms",
+                    "grade ms", "nodes", "solve timeouts", "grade timeouts");
+        }
+
+        // Keeps a long run from looking stuck when the output is piped
+        output.flush();
+
+        boolean allSolved = true;
+
+        DifficultyGrader grader = new DifficultyGrader();
+
+        for(int size = smallest; size <= largest; size++) {
+
+            Generator generator = new Generator(null, new SplittableRandom(seed + size));
+            Puzzle[] puzzles = new Puzzle[count];
+
+            long start = System.nanoTime();
+
+            for(int index = 0; index < count; index++) {
+                puzzles[index] = generator.generatePuzzle(size);
+            }
+
+            long generateTime = System.nanoTime() - start;
+            long nodes = 0;
+            int solveTimeouts = 0;
+            int gradeTimeouts = 0;
+
+            start = System.nanoTime();
+
+            for(Puzzle puzzle : puzzles) {
+
+                Solver solver = limitedSolver(puzzle, startTimer());
+
+                if(!solver.solvePuzzle()) {
+
+                    // Generated puzzles always have a solution, so only a budget can stop the search
+                    if(!solver.wasLimitReached()) {
+                        System.err.println("a generated " + size + "x" + size + " puzzle wasn't solved");
+                        return FAILED;
+                    }
+
+                    solveTimeouts++;
+                }
+
+                nodes += solver.getNodeCount();
+            }
+
+            long solveTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+
+            for(Puzzle puzzle : puzzles) {
+
+                AtomicBoolean cancelled = startTimer();
+
+                if(!grader.grade(puzzle, cancelled).isSolved() && cancelled.get()) {
+                    gradeTimeouts++;
+                }
+            }
+
+            long gradeTime = System.nanoTime() - start;
+
+            allSolved &= solveTimeouts == 0 && gradeTimeouts == 0;
+
+            if(json) {
+                output.println(String.format(Locale.ROOT, "{\"size\":%d,\"count\":%d,\"generateMs\":%.3f," +
+                                "\"solveMs\":%.3f,\"gradeMs\":%.3f,\"nodes\":%d,\"solveTimeouts\":%d," +
+                                "\"gradeTimeouts\":%d}", size, count, generateTime / 1e6 / count,
+                        solveTime / 1e6 / count, gradeTime / 1e6 / count, nodes / count, solveTimeouts,
+                        gradeTimeouts));
+            } else {
+                output.printf(Locale.ROOT, "%-6s %12.3f %12.3f %12.3f %12d %14d %14d%n", size + "x" + size,
+                        generateTime / 1e6 / count, solveTime / 1e6 / count, gradeTime / 1e6 / count, nodes / count,
+                        solveTimeouts, gradeTimeouts);
+            }
+
+            output.flush();
+        }
+
+        return allSolved ? 0 : FAILED;
+    }
+
+    /**
+     * Opens a file of puzzles
+     * @param file the file, - for the standard input
+     * @return a reader of the file as UTF-8
+     * @throws IOException if the file can't be opened
+     */
+    private static Reader open(String file) throws IOException {
+
+        if(file.equals("-")) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+
+        return Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Describes a grid as a JSON array of rows
+     * @param grid the grid
+     * @return the JSON array
+     */
+    private static String toJson(int[][] grid) {
+
+        StringBuilder text = new StringBuilder("[");
+
+        for(int row = 0; row < grid.length; row++) {
+
+            text.append(row == 0 ? "[" : ",[");
+
+            for(int column = 0; column < grid[row].length; column++) {
+                text.append(column == 0 ? "" : ",").append(grid[row][column]);
+            }
+
+            text.append(']');
+        }
+
+        return text.append(']').toString();
+    }
+
+    /**
+     * Describes the cages of a puzzle as a JSON array of objects with the label and the ids of the cells, the
+     * same ids as in the cage line format
+     * @param puzzle the puzzle
+     * @return the JSON array
+     */
+    private static String toJson(Puzzle puzzle) {
+
+        StringBuilder text = new StringBuilder("[");
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            text.append(cage == 0 ? "" : ",").append("{\"label\":").append(quote(puzzle.getCageLabel(cage)))
+                    .append(",\"cells\":[");
+
+            int[] cells = puzzle.getCageCells(cage);
+
+            for(int index = 0; index < cells.length; index++) {
+                text.append(index == 0 ? "" : ",").append(cells[index] + 1);
+            }
+
+            text.append("]}");
+        }
+
+        return text.append(']').toString();
+    }
+
+    /**
+     * Quotes a string for JSON
+     * @param value the string
+     * @return the string in quotes, with quotes, backslashes and control characters escaped
+     */
+    private static String quote(String value) {
+
+        StringBuilder text = new StringBuilder("\"");
+
+        for(char character : value.toCharArray()) {
+
+            if(character == '"' || character == '\\') {
+                text.append('\\').append(character);
+            } else if(character < ' ') {
+                text.append(String.format("\\u%04x", (int) character));
+            } else {
+                text.append(character);
+            }
+        }
+
+        return text.append('"').toString();
+    }
+
+    /**
+     * Runs a command and exits with its exit code
+     * @param args the command, followed by its arguments and options
+     * @throws IOException if the output can't be written
+     */
+    public static void main(String[] args) throws IOException {
+
+        PrintWriter output = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+
+        int exitCode;
+
+        try {
+            exitCode = new CommandLine(output).run(args);
+        } catch (IOException e) {
+            System.err.println("can't read " + e.getMessage());
+            exitCode = USAGE_ERROR;
+        }
+
+        output.flush();
+        System.exit(exitCode);
+    }
+}
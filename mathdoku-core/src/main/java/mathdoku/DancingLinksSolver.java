@@ -0,0 +1,369 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds a solution to a Mathdoku puzzle by treating it as an exact cover problem, solved with Dancing Links.
+ * Every cell, every digit of every row and every digit of every column has to be covered exactly once, and
+ * every cage has to pick exactly one of its tuples. Cages too loose to list their tuples are filled cell by
+ * cell instead, and their arithmetic is checked as their cells are filled
+ */
+public class DancingLinksSolver implements PuzzleSolver {
+
+    // The logical representation of the current puzzle, null if the solver works on a fixed puzzle
+    private Logic gameLogic;
+
+    // The puzzle fixed when the solver was created, null if the puzzle is read from the board on every solve
+    private Puzzle fixedPuzzle;
+
+    private int[][] solvedBoard;
+
+    // The number of choices made during the last search
+    private long nodeCount;
+
+    // The puzzle being solved
+    private Puzzle puzzle;
+
+    // The number of rows / columns in the board
+    private int boardSize;
+
+    // Links of every node of the matrix. Nodes 0 to columnCount are the root and the column headers
+    private int[] left, right, up, down, column;
+
+    // The matrix row every node belongs to
+    private int[] matrixRow;
+
+    // The number of nodes in every column
+    private int[] columnSize;
+
+    // The number of nodes created so far
+    private int nodes;
+
+    // The cells and digits placed by every matrix row
+    private List<int[]> rowCells = new ArrayList<>();
+    private List<int[]> rowDigits = new ArrayList<>();
+
+    // Tracks the values placed by the chosen rows, to check the cages that weren't covered by tuples
+    private SolverState state;
+
+    // True for every cage whose tuples couldn't be listed
+    private boolean[] uncheckedCages;
+
+    /**
+     * Creates a solver for the current game board
+     * @param board the logical representation of the current board
+     */
+    public DancingLinksSolver(Logic board) {
+
+        gameLogic = board;
+    }
+
+    /**
+     * Creates a solver for a puzzle definition, independent of any board
+     * @param puzzle the puzzle to be solved
+     */
+    public DancingLinksSolver(Puzzle puzzle) {
+
+        fixedPuzzle = puzzle;
+    }
+
+    /**
+     * Solves the a Mathdoku puzzle
+     * @return true if the puzzle is solvable, false otherwise
+     */
+    @Override
+    public boolean solvePuzzle() {
+
+        puzzle = fixedPuzzle != null ? fixedPuzzle : Puzzle.fromLogic(gameLogic);
+        boardSize = puzzle.getSize();
+        nodeCount = 0;
+
+        state = new SolverState(puzzle);
+
+        buildMatrix();
+
+        if(search()) {
+
+            solvedBoard = state.toGrid();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Builds the exact cover matrix of the puzzle
+     */
+    private void buildMatrix() {
+
+        int cells = boardSize * boardSize;
+
+        rowCells.clear();
+        rowDigits.clear();
+        uncheckedCages = new boolean[puzzle.getCageCount()];
+
+        // Every cage gets a matrix row for each of its tuples
+        List<Integer> tupleCages = new ArrayList<>();
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            int[][] tuples = CageCombinations.get(puzzle, cage).getTuples(puzzle, cage);
+
+            if(tuples != null) {
+
+                tupleCages.add(cage);
+
+                for(int[] tuple : tuples) {
+                    rowCells.add(puzzle.getCageCells(cage));
+                    rowDigits.add(tuple);
+                }
+            } else {
+
+                uncheckedCages[cage] = true;
+
+                int[] cageCells = puzzle.getCageCells(cage);
+                int[] masks = CageCombinations.getCellMasks(puzzle, cage);
+
+                // Each cell of a loose cage gets a matrix row for each of its candidates
+                for(int index = 0; index < cageCells.length; index++) {
+                    for(int digit = 1; digit <= boardSize; digit++) {
+
+                        if((masks[index] & (1 << (digit - 1))) != 0) {
+                            rowCells.add(new int[] {cageCells[index]});
+                            rowDigits.add(new int[] {digit});
+                        }
+                    }
+                }
+            }
+        }
+
+        // Cell, row-digit, column-digit and cage columns
+        int columnCount = 3 * cells + tupleCages.size();
+
+        int[] cageColumn = new int[puzzle.getCageCount()];
+        Arrays.fill(cageColumn, -1);
+
+        for(int index = 0; index < tupleCages.size(); index++) {
+            cageColumn[tupleCages.get(index)] = 3 * cells + index + 1;
+        }
+
+        int nodeCapacity = columnCount + 1;
+
+        for(int[] placed : rowCells) {
+            nodeCapacity += 3 * placed.length + 1;
+        }
+
+        left = new int[nodeCapacity];
+        right = new int[nodeCapacity];
+        up = new int[nodeCapacity];
+        down = new int[nodeCapacity];
+        column = new int[nodeCapacity];
+        matrixRow = new int[nodeCapacity];
+        columnSize = new int[columnCount + 1];
+
+        // The root and the column headers form a circular list
+        for(int header = 0; header <= columnCount; header++) {
+
+            left[header] = header == 0 ? columnCount : header - 1;
+            right[header] = header == columnCount ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+
+        nodes = columnCount + 1;
+
+        for(int row = 0; row < rowCells.size(); row++) {
+
+            int[] placed = rowCells.get(row);
+            int[] digits = rowDigits.get(row);
+            int first = -1;
+
+            int cage = puzzle.getCellCage(placed[0]);
+
+            if(cageColumn[cage] != -1) {
+                first = addNode(cageColumn[cage], row, first);
+            }
+
+            for(int index = 0; index < placed.length; index++) {
+
+                int cell = placed[index];
+                int digit = digits[index] - 1;
+
+                first = addNode(cell + 1, row, first);
+                first = addNode(cells + (cell / boardSize) * boardSize + digit + 1, row, first);
+                first = addNode(2 * cells + (cell % boardSize) * boardSize + digit + 1, row, first);
+            }
+        }
+    }
+
+    /**
+     * Adds a node to the bottom of a column and to the end of a matrix row
+     * @param header the column header of the node
+     * @param row the matrix row of the node
+     * @param first the first node of the matrix row, -1 if this is the first one
+     * @return the first node of the matrix row
+     */
+    private int addNode(int header, int row, int first) {
+
+        int node = nodes++;
+
+        column[node] = header;
+        matrixRow[node] = row;
+
+        up[node] = up[header];
+        down[node] = header;
+        down[up[header]] = node;
+        up[header] = node;
+        columnSize[header]++;
+
+        if(first == -1) {
+            left[node] = node;
+            right[node] = node;
+            return node;
+        }
+
+        left[node] = left[first];
+        right[node] = first;
+        right[left[first]] = node;
+        left[first] = node;
+
+        return first;
+    }
+
+    /**
+     * Recursively chooses matrix rows until every column is covered
+     * @return true if a solution was found, false otherwise
+     */
+    private boolean search() {
+
+        // Every column is covered, and every cage has been checked as it was filled
+        if(right[0] == 0) {
+            return true;
+        }
+
+        // The column with the fewest rows fails first
+        int chosenColumn = right[0];
+
+        for(int header = right[0]; header != 0; header = right[header]) {
+
+            if(columnSize[header] < columnSize[chosenColumn]) {
+                chosenColumn = header;
+            }
+        }
+
+        if(columnSize[chosenColumn] == 0) {
+            return false;
+        }
+
+        cover(chosenColumn);
+
+        for(int node = down[chosenColumn]; node != chosenColumn; node = down[node]) {
+
+            nodeCount++;
+
+            int mark = state.mark();
+
+            if(!placeRow(matrixRow[node])) {
+                state.undo(mark);
+                continue;
+            }
+
+            for(int other = right[node]; other != node; other = right[other]) {
+                cover(column[other]);
+            }
+
+            if(search()) {
+                return true;
+            }
+
+            for(int other = left[node]; other != node; other = left[other]) {
+                uncover(column[other]);
+            }
+
+            state.undo(mark);
+        }
+
+        uncover(chosenColumn);
+
+        return false;
+    }
+
+    /**
+     * Removes a column and every row that covers it from the matrix
+     * @param header the header of the column
+     */
+    private void cover(int header) {
+
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+
+        for(int row = down[header]; row != header; row = down[row]) {
+            for(int node = right[row]; node != row; node = right[node]) {
+
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                columnSize[column[node]]--;
+            }
+        }
+    }
+
+    /**
+     * Returns a column and every row that covers it to the matrix
+     * @param header the header of the column
+     */
+    private void uncover(int header) {
+
+        for(int row = up[header]; row != header; row = up[row]) {
+            for(int node = left[row]; node != row; node = left[node]) {
+
+                columnSize[column[node]]++;
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+
+    /**
+     * Places the values of a matrix row and checks the cages that weren't covered by tuples
+     * @param row the matrix row
+     * @return false if a cage can no longer be completed, true otherwise
+     */
+    private boolean placeRow(int row) {
+
+        int[] placed = rowCells.get(row);
+        int[] digits = rowDigits.get(row);
+
+        for(int index = 0; index < placed.length; index++) {
+            state.assign(placed[index], digits[index]);
+        }
+
+        int cage = puzzle.getCellCage(placed[0]);
+
+        return !uncheckedCages[cage] || state.isCageConsistent(cage);
+    }
+
+    /**
+     * Getter for solved board
+     * @return the solution to the current puzzle
+     */
+    @Override
+    public int[][] getSolvedBoard() {
+        return solvedBoard;
+    }
+
+    /**
+     * Get the number of rows chosen during the last search
+     * @return the number of search nodes explored
+     */
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+}
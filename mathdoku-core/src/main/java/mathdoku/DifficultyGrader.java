@@ -0,0 +1,300 @@
+package mathdoku;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Grades how hard a puzzle is for a human, from the deductions the propagator needs before any value has to be
+ * guessed and from the effort of the search that finishes the puzzle. Each technique has a weight that grows
+ * with its tier, and every round in which it made progress adds its weight to the score. Guessing adds a weight
+ * for every doubling of the search nodes and for every level of nesting. A grader only holds its settings, so
+ * one grader can grade puzzles on many threads
+ */
+public class DifficultyGrader {
+
+    // The score of a round of each technique, by ordinal
+    private static final double[] TECHNIQUE_WEIGHTS = {1, 2, 4, 8};
+
+    // The score of every doubling of the number of search nodes
+    private static final double SEARCH_WEIGHT = 20;
+
+    // The score of every level the search is nested in
+    private static final double DEPTH_WEIGHT = 5;
+
+    // The search gives up on a puzzle after this many nodes, unless set otherwise
+    public static final long DEFAULT_NODE_LIMIT = 100_000;
+
+    // The search gives up on a puzzle after this many nodes
+    private long nodeLimit = DEFAULT_NODE_LIMIT;
+
+    /**
+     * The deductions and search a puzzle needed, and the score they add up to
+     */
+    public static class Grade {
+
+        // The number of rounds in which each technique made progress, by ordinal
+        private final long[] techniqueUses;
+
+        // The number of values the search placed, and the most guesses it was nested in
+        private final long nodeCount;
+        private final int maxDepth;
+
+        // If a solution was found
+        private final boolean solved;
+
+        // If the search gave up before it could find a solution
+        private final boolean limitReached;
+
+        private final double score;
+
+        /**
+         * @param techniqueUses the number of rounds in which each technique made progress, by ordinal
+         * @param nodeCount the number of values the search placed
+         * @param maxDepth the most guesses the search was nested in
+         * @param solved if a solution was found
+         * @param limitReached if the search gave up before it could find a solution
+         */
+        public Grade(long[] techniqueUses, long nodeCount, int maxDepth, boolean solved, boolean limitReached) {
+
+            this.techniqueUses = techniqueUses.clone();
+            this.nodeCount = nodeCount;
+            this.maxDepth = maxDepth;
+            this.solved = solved;
+            this.limitReached = limitReached;
+
+            double total = 0;
+
+            for(int technique = 0; technique < techniqueUses.length; technique++) {
+                total += TECHNIQUE_WEIGHTS[technique] * techniqueUses[technique];
+            }
+
+            total += SEARCH_WEIGHT * Math.log1p(nodeCount) / Math.log(2) + DEPTH_WEIGHT * maxDepth;
+
+            score = total;
+        }
+
+        /**
+         * Get the number of rounds in which a technique made progress
+         * @param technique the technique
+         * @return the number of rounds
+         */
+        public long getUses(Propagator.Technique technique) {
+            return techniqueUses[technique.ordinal()];
+        }
+
+        /**
+         * Get the most expensive technique that made progress before the search
+         * @return the technique, null if no deduction was needed
+         */
+        public Propagator.Technique getHardestTechnique() {
+
+            for(int technique = techniqueUses.length - 1; technique >= 0; technique--) {
+                if(techniqueUses[technique] > 0) {
+                    return Propagator.Technique.values()[technique];
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Checks if the puzzle needed any guessing
+         * @return true if the deductions alone didn't solve it, false otherwise
+         */
+        public boolean needsSearch() {
+            return nodeCount > 0;
+        }
+
+        /**
+         * Get the number of values the search placed
+         * @return the number of search nodes
+         */
+        public long getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Get the most guesses the search was nested in
+         * @return the deepest level of the search
+         */
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        /**
+         * Checks if a solution was found
+         * @return true if the puzzle was solved, false if it has no solution or the search gave up
+         */
+        public boolean isSolved() {
+            return solved;
+        }
+
+        /**
+         * Checks if the search gave up before it could find a solution. The score is then only a lower bound
+         * @return true if the node limit was reached, false otherwise
+         */
+        public boolean isLimitReached() {
+            return limitReached;
+        }
+
+        /**
+         * Get the difficulty of the puzzle. Scores are only comparable between puzzles of the same size
+         * @return the score, higher for harder puzzles
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Grades a puzzle
+     * @param puzzle the puzzle to be graded
+     * @return the grade of the puzzle
+     */
+    public Grade grade(Puzzle puzzle) {
+        return grade(puzzle, new AtomicBoolean());
+    }
+
+    /**
+     * Grades a puzzle, giving up on the search once a flag is set. A search stopped by the flag is neither solved
+     * nor limited, so the caller has to check the flag
+     * @param puzzle the puzzle to be graded
+     * @param cancelled the flag that stops the search once it is set
+     * @return the grade of the puzzle
+     */
+    public Grade grade(Puzzle puzzle, AtomicBoolean cancelled) {
+
+        long[] techniqueUses = new long[Propagator.Technique.values().length];
+        SolverState state = new SolverState(puzzle);
+
+        // Only the deductions before the first guess are counted, as those are the ones a human has to find
+        boolean consistent = new Propagator(state, techniqueUses).propagate();
+
+        Solver solver = new Solver(puzzle);
+        solver.setNodeLimit(nodeLimit);
+        solver.setCancelled(cancelled);
+
+        boolean solved = consistent && solver.search(state);
+
+        return new Grade(techniqueUses, solver.getNodeCount(), solver.getMaxDepth(), solved,
+                !solved && solver.getNodeCount() >= nodeLimit);
+    }
+
+    /**
+     * Set the number of search nodes after which a puzzle is given up on
+     * @param nodeLimit the largest number of search nodes of a puzzle
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Get the number of search nodes after which a puzzle is given up on
+     * @return the largest number of search nodes of a puzzle
+     */
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Describes a grade as tab separated columns: the score, the hardest technique, the search nodes, the search
+     * depth, and solved, unsolvable or limit. The score always has a decimal point, so the columns can be parsed
+     * whatever the locale
+     * @param grade the grade
+     * @return the columns
+     */
+    public static String describe(Grade grade) {
+
+        Propagator.Technique hardest = grade.getHardestTechnique();
+
+        return String.format(Locale.ROOT, "%.1f\t%s\t%d\t%d\t%s", grade.getScore(),
+                grade.needsSearch() ? "SEARCH" : hardest == null ? "NONE" : hardest.toString(),
+                grade.getNodeCount(), grade.getMaxDepth(),
+                grade.isSolved() ? "solved" : grade.isLimitReached() ? "limit" : "unsolvable");
+    }
+
+    /**
+     * Grades every puzzle in one or more files, such as the pools written by BatchGenerator, on every processor.
+     * Prints a line per puzzle in file order: the file, the index of the puzzle among the valid puzzles of the
+     * file, and its grade. Invalid puzzles are reported and left out
+     * @param args the files to be graded
+     * @throws Exception if a file can't be read or a puzzle can't be graded
+     */
+    public static void main(String[] args) throws Exception {
+
+        if(args.length == 0) {
+            System.err.println("usage: DifficultyGrader <file>...");
+            System.exit(1);
+        }
+
+        DifficultyGrader grader = new DifficultyGrader();
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        int graded = 0;
+        int invalid = 0;
+
+        try {
+
+            for(String file : args) {
+
+                List<Future<Grade>> grades = new ArrayList<>();
+
+                try(BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+
+                    PuzzleParser parser = new PuzzleParser(reader);
+
+                    while(true) {
+
+                        try {
+
+                            Puzzle puzzle = parser.next();
+
+                            if(puzzle == null) {
+                                break;
+                            }
+
+                            grades.add(pool.submit(() -> grader.grade(puzzle)));
+                        } catch (PuzzleFormatException e) {
+
+                            System.err.println(file + ": " + e.getMessage());
+                            invalid++;
+                            parser.skipPuzzle();
+                        }
+                    }
+                } catch (PuzzleFormatException e) {
+                    System.err.println(file + ": " + e.getMessage());
+                    invalid++;
+                }
+
+                // The grades are printed in the order of the puzzles, whichever thread finishes first
+                for(int index = 0; index < grades.size(); index++) {
+
+                    try {
+                        System.out.println(file + "\t" + index + "\t" + describe(grades.get(index).get()));
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Puzzle " + index + " of " + file + " can't be graded",
+                                e.getCause());
+                    }
+                }
+
+                graded += grades.size();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.err.printf("graded %d puzzles, %.1f puzzles/s, %d invalid puzzles left out%n", graded,
+                graded / (Math.max(System.nanoTime() - start, 1) / 1e9), invalid);
+    }
+}
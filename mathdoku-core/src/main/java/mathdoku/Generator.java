@@ -0,0 +1,1061 @@
+package mathdoku;
+
+import java.util.*;
+
+/**
+ * Generates a Mathdoku puzzle. The puzzle is built in the generator's own state, so generators without a board
+ * can run on separate threads, and is only copied into a board once it is finished
+ */
+public class Generator {
+
+    // The logical representation of the board the puzzles are copied into, null if the generator has no board
+    private Logic gameLogic;
+
+    private int[][] generatedBoard;
+
+    // The label of the first cell of every cage, empty for every other cell
+    private String[][] labels;
+
+    // Tracks if a cell is already included in a cage
+    private boolean[][] isInCage;
+
+    // The size of the board to be generated
+    private int boardSize;
+
+    // The source of randomness. Each generator owns its own stream, so generators can run on separate threads
+    private SplittableRandom random;
+
+    // If generated puzzles must have exactly one solution
+    private boolean uniqueSolution = false;
+
+    // The number of cage repairs needed by the last generated puzzle to make its solution unique
+    private int repairCount;
+
+    // The number of counts of solutions, or searches of a board larger than 9x9, that gave up on the last generated
+    // puzzle, each followed by a split cage
+    private int abortedCountCount;
+
+    // The search nodes a count of solutions gets while the solution is made unique
+    private long countNodeLimit = DEFAULT_COUNT_NODE_LIMIT;
+
+    // The largest number of cells a generated cage can have
+    private int maximumCageSize = DEFAULT_MAXIMUM_CAGE_SIZE;
+
+    // The number of moves of the latin square chain that start from a latin square, per cell of the board
+    private int latinSquareMixing = DEFAULT_LATIN_SQUARE_MIXING;
+
+    // How many times a cage can be relabelled because of a cell, before the cell is split into its own cage
+    private static final int MAXIMUM_RELABELS = 2;
+
+    // The search nodes the solver gets to finish a puzzle larger than 9x9 before a cage is split. A puzzle it
+    // finishes within them takes well under a second to solve once it is loaded
+    private static final long SOLVABLE_NODE_LIMIT = 2_000;
+
+    // The largest number of cells a generated cage has, unless set otherwise
+    public static final int DEFAULT_MAXIMUM_CAGE_SIZE = 8;
+
+    // The number of chain moves per cell of the board, unless set otherwise
+    public static final int DEFAULT_LATIN_SQUARE_MIXING = 1;
+
+    // The search nodes a count of solutions gets, unless set otherwise. Large cages can make a complete count take
+    // minutes on a 9x9 board, while a few hundred milliseconds of search are enough for most puzzles
+    public static final long DEFAULT_COUNT_NODE_LIMIT = 20_000;
+
+    /**
+     * Constructs a generator without a board, that only generates puzzle definitions
+     */
+    public Generator() {
+
+        this(null, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a generator for the current board
+     * @param board the logical representation of the current board
+     */
+    public Generator(Logic board) {
+
+        this(board, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a generator for the current board that draws from the given random stream
+     * @param board the logical representation of the current board, null for a generator without a board
+     * @param random the random stream used by the generator
+     */
+    public Generator(Logic board, SplittableRandom random) {
+
+        gameLogic = board;
+        this.random = random;
+    }
+
+    /**
+     * Creates a generator for another board, with a random stream split from this one. The new generator is
+     * independent of this one, so both can be used on separate threads
+     * @param board the logical representation of the board of the new generator, null for no board
+     * @return the new generator
+     */
+    public Generator split(Logic board) {
+
+        Generator generator = new Generator(board, random.split());
+        generator.setUniqueSolution(uniqueSolution);
+        generator.setMaximumCageSize(maximumCageSize);
+        generator.setLatinSquareMixing(latinSquareMixing);
+        generator.setCountNodeLimit(countNodeLimit);
+
+        return generator;
+    }
+
+    /**
+     * Generates the Mathdoku puzzle identified by a board size and a seed into the board. The same size and seed
+     * always generate the same puzzle
+     * @param boardSize the number of rows/columns for the generated puzzle to have
+     * @param seed the seed of the puzzle
+     */
+    public void generateBoard(int boardSize, long seed) {
+
+        random = new SplittableRandom(seed);
+        generateBoard(boardSize);
+    }
+
+    /**
+     * Generates a Mathdoku puzzle of the specified board size into the board
+     * @param boardSize the number of rows/columns for the generated puzzle to have
+     */
+    public void generateBoard(int boardSize) {
+
+        if(gameLogic == null) {
+            throw new IllegalStateException("The generator has no board to generate into");
+        }
+
+        Puzzle puzzle = generatePuzzle(boardSize);
+
+        gameLogic.setPuzzle(puzzle);
+
+        // Sets the solution to generated board
+        gameLogic.getSolver().setSolvedBoard(generatedBoard);
+    }
+
+    /**
+     * Generates the Mathdoku puzzle identified by a board size and a seed, without touching the board. The same
+     * size and seed always generate the same puzzle
+     * @param boardSize the number of rows/columns for the generated puzzle to have
+     * @param seed the seed of the puzzle
+     * @return the generated puzzle
+     */
+    public Puzzle generatePuzzle(int boardSize, long seed) {
+
+        random = new SplittableRandom(seed);
+
+        return generatePuzzle(boardSize);
+    }
+
+    /**
+     * Generates a Mathdoku puzzle of the specified board size, without touching the board
+     * @param boardSize the number of rows/columns for the generated puzzle to have
+     * @return the generated puzzle
+     */
+    public Puzzle generatePuzzle(int boardSize) {
+
+        this.boardSize = boardSize;
+        generatedBoard = new int[boardSize][boardSize];
+        isInCage = new boolean[boardSize][boardSize];
+        labels = new String[boardSize][boardSize];
+
+        for(String[] row : labels) {
+            Arrays.fill(row, "");
+        }
+
+        generateLatinSquare();
+        randomiseBoard();
+
+        // Creates the cages
+        ArrayList<List<Logic.CellPos>> clusterCells = generateCages();
+
+        repairCount = 0;
+        abortedCountCount = 0;
+
+        if(uniqueSolution) {
+            makeSolutionUnique(clusterCells);
+        } else if(boardSize > Solver.MAXIMUM_BACKTRACKING_SIZE) {
+            makeSolvable(clusterCells);
+        }
+
+        return buildPuzzle(clusterCells);
+    }
+
+    /**
+     * Builds the definition of the puzzle from the generated cages and labels
+     * @param clusterCells the cages of the puzzle
+     * @return the puzzle
+     */
+    private Puzzle buildPuzzle(List<List<Logic.CellPos>> clusterCells) {
+
+        int[][] cageCells = new int[clusterCells.size()][];
+        char[] cageOperation = new char[clusterCells.size()];
+        int[] cageTarget = new int[clusterCells.size()];
+
+        for(int cage = 0; cage < clusterCells.size(); cage++) {
+
+            List<Logic.CellPos> cells = clusterCells.get(cage);
+            cageCells[cage] = new int[cells.size()];
+
+            for(int index = 0; index < cells.size(); index++) {
+                cageCells[cage][index] = cells.get(index).getRow() * boardSize + cells.get(index).getColumn();
+            }
+
+            // The label is always attached to the first cell of the cage
+            String label = labels[cells.get(0).getRow()][cells.get(0).getColumn()];
+
+            cageOperation[cage] = Puzzle.parseOperation(label);
+            cageTarget[cage] = Puzzle.parseTarget(label);
+        }
+
+        return new Puzzle(boardSize, cageCells, cageOperation, cageTarget);
+    }
+
+    /**
+     * Generates a latin square the size of the board (numbers in rows and columns don't repeat). The square is
+     * sampled with the chain of Jacobson and Matthews, so the solutions aren't all rearrangements of the cyclic
+     * square. Without any mixing, the cyclic square is used
+     */
+    private void generateLatinSquare() {
+
+        if(latinSquareMixing > 0) {
+
+            int moves = latinSquareMixing * boardSize * boardSize;
+            generatedBoard = new LatinSquareSampler(random).sample(boardSize, moves);
+
+            return;
+        }
+
+        for (int row = 0; row < boardSize; row++) {
+            for (int column = 0; column < boardSize; column++) {
+
+                generatedBoard[row][column] = (row + column) % boardSize + 1;
+            }
+        }
+    }
+
+    /**
+     * Randomises the rows and columns of the latin square to create a random board
+     */
+    private void randomiseBoard() {
+
+        int index;
+        int temporary;
+
+        // Randomise rows
+        for(int row = boardSize - 1; row > 0; row--) {
+
+            index = random.nextInt(row + 1);
+
+            // Swap rows
+            for(int increment = 0; increment < boardSize; increment++) {
+
+                temporary = generatedBoard[row][increment];
+                generatedBoard[row][increment] = generatedBoard[index][increment];
+                generatedBoard[index][increment] = temporary;
+            }
+        }
+
+        // Randomise columns
+        for(int column = boardSize - 1; column > 0; column--) {
+
+            index = random.nextInt(column + 1);
+
+            // Swap columns
+            for(int increment = 0; increment < boardSize; increment++) {
+
+                temporary = generatedBoard[increment][column];
+                generatedBoard[increment][column] = generatedBoard[increment][index];
+                generatedBoard[increment][index] = temporary;
+            }
+        }
+    }
+
+    /**
+     * Randomly generates cages for the board
+     * @return the cluster cells of generated cages
+     */
+    private ArrayList<List<Logic.CellPos>> generateCages() {
+
+        ArrayList<List<Logic.CellPos>> clusterCells = new ArrayList<>();
+
+        for (int row = 0; row < boardSize; row++) {
+            for (int column = 0; column < boardSize; column++) {
+
+                if(!isInCage[row][column]) {
+                    clusterCells.add(generateCage(row, column));
+                }
+            }
+        }
+
+        return clusterCells;
+    }
+
+    /**
+     * Repairs the cages until the puzzle has only one solution. Only cages containing a cell that differs between
+     * two solutions are changed: first their operation is switched, and if that doesn't help, the differing cell
+     * is split into a cage of its own. A count that runs out of search nodes can't tell if the solution is unique,
+     * so a random cell of the largest cage is split off, which makes the next count cheaper
+     * @param clusterCells the cages of the puzzle
+     */
+    private void makeSolutionUnique(ArrayList<List<Logic.CellPos>> clusterCells) {
+
+        // How many times each cell caused its cage to be relabelled
+        int[][] relabels = new int[boardSize][boardSize];
+
+        while(true) {
+
+            Solver solver = new Solver(buildPuzzle(clusterCells));
+            solver.setNodeLimit(countNodeLimit);
+
+            if(solver.countSolutions(2) < 2) {
+
+                if(!solver.wasLimitReached()) {
+                    return;
+                }
+
+                abortedCountCount++;
+                splitLargestCage(clusterCells);
+                continue;
+            }
+
+            List<int[][]> solutions = solver.getCountedSolutions();
+            List<Logic.CellPos> differingCells = new ArrayList<>();
+
+            for(int row = 0; row < boardSize; row++) {
+                for(int column = 0; column < boardSize; column++) {
+
+                    if(solutions.get(0)[row][column] != solutions.get(1)[row][column]) {
+                        differingCells.add(new Logic.CellPos(row, column));
+                    }
+                }
+            }
+
+            Logic.CellPos cell = differingCells.get(random.nextInt(differingCells.size()));
+            List<Logic.CellPos> cage = findCage(clusterCells, cell);
+
+            repairCount++;
+
+            if(relabels[cell.getRow()][cell.getColumn()]++ < MAXIMUM_RELABELS) {
+                relabelCage(cage);
+            } else {
+                splitCage(clusterCells, cage, cell);
+            }
+        }
+    }
+
+    /**
+     * Splits cages until the solver finishes the puzzle within a small node budget. On boards larger than 9x9,
+     * large sum and product cages can leave so many candidates that no search finishes in reasonable time, and a
+     * saved copy of such a puzzle could never be solved once loaded. Every search that gives up splits a random
+     * cell of the largest cage into its own cage, as the repair of a unique puzzle does
+     * @param clusterCells the cages of the puzzle
+     */
+    private void makeSolvable(List<List<Logic.CellPos>> clusterCells) {
+
+        while(true) {
+
+            Solver solver = new Solver(buildPuzzle(clusterCells));
+            solver.setNodeLimit(SOLVABLE_NODE_LIMIT);
+
+            if(solver.solvePuzzle() || !solver.wasLimitReached()) {
+                return;
+            }
+
+            abortedCountCount++;
+            splitLargestCage(clusterCells);
+        }
+    }
+
+    /**
+     * Splits a random cell of the largest cage into a cage of its own, which makes the next search cheaper
+     * @param clusterCells the cages of the puzzle
+     */
+    private void splitLargestCage(List<List<Logic.CellPos>> clusterCells) {
+
+        List<Logic.CellPos> largest = clusterCells.get(0);
+
+        for(List<Logic.CellPos> cage : clusterCells) {
+            if(cage.size() > largest.size()) {
+                largest = cage;
+            }
+        }
+
+        splitCage(clusterCells, largest, largest.get(random.nextInt(largest.size())));
+    }
+
+    /**
+     * Finds the cage a cell belongs to
+     * @param clusterCells the cages of the puzzle
+     * @param cell the cell to be found
+     * @return the cage containing the cell
+     */
+    private List<Logic.CellPos> findCage(List<List<Logic.CellPos>> clusterCells, Logic.CellPos cell) {
+
+        for(List<Logic.CellPos> cage : clusterCells) {
+            if(containsCell(cage, cell.getRow(), cell.getColumn())) {
+                return cage;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if a cage contains a cell
+     * @param cage the cage to be checked
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @return true if the cell is in the cage, false otherwise
+     */
+    private boolean containsCell(List<Logic.CellPos> cage, int row, int column) {
+
+        for(Logic.CellPos cell : cage) {
+            if(cell.getRow() == row && cell.getColumn() == column) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gives a cage a label with a different operation
+     * @param cage the cage to be relabelled
+     */
+    private void relabelCage(List<Logic.CellPos> cage) {
+
+        // A single cell can only have one label
+        if(cage.size() == 1) {
+            return;
+        }
+
+        Logic.CellPos labelCell = cage.get(0);
+        String oldLabel = labels[labelCell.getRow()][labelCell.getColumn()];
+        String newLabel;
+
+        // Addition and multiplication are always possible, so a different label always exists
+        do {
+            newLabel = generateLabel(cage);
+        } while(newLabel.equals(oldLabel));
+
+        labels[labelCell.getRow()][labelCell.getColumn()] = newLabel;
+    }
+
+    /**
+     * Splits a cell out of its cage into a cage of its own. The rest of the cage is divided into connected cages
+     * @param clusterCells the cages of the puzzle
+     * @param cage the cage to be split
+     * @param cell the cell to be split out
+     */
+    private void splitCage(List<List<Logic.CellPos>> clusterCells, List<Logic.CellPos> cage, Logic.CellPos cell) {
+
+        clusterCells.remove(cage);
+
+        for(Logic.CellPos cageCell : cage) {
+            labels[cageCell.getRow()][cageCell.getColumn()] = "";
+        }
+
+        List<Logic.CellPos> remaining = new ArrayList<>();
+
+        for(Logic.CellPos cageCell : cage) {
+            if(cageCell.getRow() != cell.getRow() || cageCell.getColumn() != cell.getColumn()) {
+                remaining.add(cageCell);
+            }
+        }
+
+        List<Logic.CellPos> single = new ArrayList<>();
+        single.add(new Logic.CellPos(cell.getRow(), cell.getColumn()));
+        addLabelledCage(clusterCells, single);
+
+        // Group the remaining cells into cages of connected cells
+        while(!remaining.isEmpty()) {
+
+            List<Logic.CellPos> part = new ArrayList<>();
+            part.add(remaining.remove(0));
+
+            for(int index = 0; index < part.size(); index++) {
+
+                Logic.CellPos current = part.get(index);
+
+                for(int neighbor = remaining.size() - 1; neighbor >= 0; neighbor--) {
+
+                    Logic.CellPos other = remaining.get(neighbor);
+
+                    int distance = Math.abs(other.getRow() - current.getRow()) +
+                            Math.abs(other.getColumn() - current.getColumn());
+
+                    if(distance == 1) {
+                        part.add(remaining.remove(neighbor));
+                    }
+                }
+            }
+
+            addLabelledCage(clusterCells, part);
+        }
+    }
+
+    /**
+     * Labels a cage and adds it to the puzzle
+     * @param clusterCells the cages of the puzzle
+     * @param cage the cage to be added
+     */
+    private void addLabelledCage(List<List<Logic.CellPos>> clusterCells, List<Logic.CellPos> cage) {
+
+        Logic.CellPos labelCell = cage.get(0);
+
+        labels[labelCell.getRow()][labelCell.getColumn()] = generateLabel(cage);
+        clusterCells.add(cage);
+    }
+
+    /**
+     * Randomly generates a single cage
+     * @param row the row of the starting cell of the cage
+     * @param column the column of the starting cell of the cage
+     * @return the cluster cells of the generated cage
+     */
+    private List<Logic.CellPos> generateCage(int row, int column) {
+
+        // Label will be attached to the first cell
+        int firstCellRow = row;
+        int firstCellColumn = column;
+
+        // The cluster cells of the final cage
+        List<Logic.CellPos> cage = new ArrayList<>();
+
+        // Helper data structure to ensure a more random board
+        LinkedList<Logic.CellPos> neighbors = new LinkedList<>();
+
+        // Generate the size of the cage, maximum size being the number of rows/columns in the board
+        int cageSize = generateCageSize(Math.min(Math.min(boardSize, maximumCageSize), findClusterSize(row, column)));
+
+        isInCage[row][column] = true;
+
+        cage.add(new Logic.CellPos(row, column));
+        neighbors.addLast(new Logic.CellPos(row, column));
+
+        // Adds a cells from random directions into the cluster until the cage size is reached
+        while(cage.size() < cageSize) {
+
+            // The order in which the nearby cells will be added to the cage. Values between 0-3
+            int[] addSequence = constructRandomSequence();
+
+            row = neighbors.getFirst().getRow();
+            column = neighbors.getFirst().getColumn();
+
+            // Add in each direction
+            for(int index = 0; index < addSequence.length; index++) {
+
+                if (cage.size() == cageSize) {
+                    break;
+                }
+
+                switch (addSequence[index]) {
+
+                    case 0:
+                        addTop(neighbors, cage, row, column);
+                        break;
+
+                    case 1:
+                        addRight(neighbors, cage, row, column);
+                        break;
+
+                    case 2:
+                        addBottom(neighbors, cage, row, column);
+                        break;
+
+                    case 3:
+                        addLeft(neighbors, cage, row, column);
+                }
+            }
+
+            neighbors.addLast(neighbors.removeFirst());
+        }
+
+        labels[firstCellRow][firstCellColumn] = generateLabel(cage);
+
+        return cage;
+    }
+
+    /**
+     * Randomly generates the size of the cage
+     * @param maximumSize the maximum size the cage can be
+     * @return the generated size of the board
+     */
+    private int generateCageSize(int maximumSize) {
+
+        /*
+        The chances for each size of the board:
+        1 1-5 (5%)
+        2 6 - 20 (15%)
+        3 21 - 45 (25%)
+        4 46 - 70 (25%)
+        5 71 - 86 (15%)
+        6 86 - 94 (9%)
+        7 95 - 97 (3%)
+        8 98 - 100 (3%), or any size from 8 up to the maximum if larger cages are allowed
+         */
+        int oneChance = 5;
+        int twoChance = 20;
+        int threeChance = 45;
+        int fourChance = 70;
+        int fiveChance = 86;
+        int sixChance = 94;
+        int sevenChance = 97;
+        int eightChance = 100;
+
+        while(true) {
+
+            int chances = random.nextInt(100) + 1;
+
+            if (chances <= oneChance) {
+                return 1;
+            } else if (chances <= twoChance && maximumSize > 1) {
+                return 2;
+            } else if (chances <= threeChance && maximumSize > 2) {
+                return 3;
+            } else if (chances <= fourChance && maximumSize > 3) {
+                return 4;
+            } else if (chances <= fiveChance && maximumSize > 4) {
+                return 5;
+            } else if (chances <= sixChance && maximumSize > 5) {
+                return 6;
+            } else if (chances <= sevenChance && maximumSize > 6) {
+                return 7;
+            } else if (chances <= eightChance && maximumSize > 8) {
+                return 8 + random.nextInt(maximumSize - 7);
+            } else if (chances <= eightChance && maximumSize > 7) {
+                return 8;
+            }
+        }
+    }
+
+    /**
+     * Find the maximum number of cluster cells from a specified cell
+     * @param row the row of the staring cell
+     * @param column the column of the staring cell
+     * @return the maximum cluster size
+     */
+    private int findClusterSize(int row, int column) {
+
+        int clusterSize = 1;
+
+        boolean[][] visited = new boolean[boardSize][boardSize];
+
+        for(int index = 0; index < isInCage.length; index++) {
+            visited[index] = Arrays.copyOf(isInCage[index], isInCage[index].length);
+        }
+
+        LinkedList<Logic.CellPos> clusterNodes = new LinkedList<>();
+        clusterNodes.addLast(new Logic.CellPos(row, column));
+        visited[row][column] = true;
+
+        while(!clusterNodes.isEmpty()) {
+
+            row = clusterNodes.getFirst().getRow();
+            column = clusterNodes.getFirst().getColumn();
+
+            if(row != 0 && !visited[row - 1][column]) {
+                clusterNodes.addLast(new Logic.CellPos(row - 1, column));
+                visited[row - 1][column] = true;
+                clusterSize++;
+            }
+
+            if(row != boardSize - 1 && !visited[row + 1][column]) {
+                clusterNodes.addLast(new Logic.CellPos(row + 1, column));
+                visited[row + 1][column] = true;
+                clusterSize++;
+            }
+
+            if(column != 0 && !visited[row][column - 1]) {
+                clusterNodes.addLast(new Logic.CellPos(row, column - 1));
+                visited[row][column - 1] = true;
+                clusterSize++;
+            }
+
+            if(column != boardSize - 1 && !visited[row][column + 1]) {
+                clusterNodes.addLast(new Logic.CellPos(row, column + 1));
+                visited[row][column + 1] = true;
+                clusterSize++;
+            }
+
+            clusterNodes.removeFirst();
+        }
+
+        return clusterSize;
+    }
+
+    /**
+     * Adds the top element to the cage
+     * @param neighbors the elements in the cage
+     * @param cage the cage the element will be added to
+     * @param row the row of the element to be added
+     * @param column the column of the element to be added
+     */
+    private void addTop(LinkedList<Logic.CellPos> neighbors, List<Logic.CellPos> cage, int row, int column) {
+
+        if(random.nextBoolean() && row != 0 && !isInCage[row - 1][column]) {
+            cage.add(new Logic.CellPos(row - 1, column));
+            neighbors.addLast(new Logic.CellPos(row - 1, column));
+            isInCage[row - 1][column] = true;
+        }
+    }
+
+    /**
+     * Adds the right element to the cage
+     * @param neighbors the elements in the cage
+     * @param cage the cage the element will be added to
+     * @param row the row of the element to be added
+     * @param column the column of the element to be added
+     */
+    private void addRight(LinkedList<Logic.CellPos> neighbors, List<Logic.CellPos> cage, int row, int column) {
+
+        if(random.nextBoolean() && column != boardSize - 1 && !isInCage[row][column + 1]) {
+            cage.add(new Logic.CellPos(row, column + 1));
+            neighbors.addLast(new Logic.CellPos(row, column + 1));
+            isInCage[row][column + 1] = true;
+        }
+    }
+
+    /**
+     * Adds the bottom element to the cage
+     * @param neighbors the elements in the cage
+     * @param cage the cage the element will be added to
+     * @param row the row of the element to be added
+     * @param column the column of the element to be added
+     */
+    private void addBottom(LinkedList<Logic.CellPos> neighbors, List<Logic.CellPos> cage, int row, int column) {
+
+        if(random.nextBoolean() && row != boardSize - 1 && !isInCage[row + 1][column]) {
+            cage.add(new Logic.CellPos(row + 1, column));
+            neighbors.addLast(new Logic.CellPos(row + 1, column));
+            isInCage[row + 1][column] = true;
+        }
+    }
+
+    /**
+     * Adds the left element to the cage
+     * @param neighbors the elements in the cage
+     * @param cage the cage the element will be added to
+     * @param row the row of the element to be added
+     * @param column the column of the element to be added
+     */
+    private void addLeft(LinkedList<Logic.CellPos> neighbors, List<Logic.CellPos> cage, int row, int column) {
+
+        if(random.nextBoolean() && column != 0 && !isInCage[row][column - 1]) {
+            cage.add(new Logic.CellPos(row, column - 1));
+            neighbors.addLast(new Logic.CellPos(row, column - 1));
+            isInCage[row][column - 1] = true;
+        }
+    }
+
+    /**
+     * Generates a random label for the cage
+     * @param cage the cage for which the label will be generated
+     * @return the generated label
+     */
+    private String generateLabel(List<Logic.CellPos> cage) {
+
+        // Initialised to be invalid
+        int target = -1;
+
+        //
+        /*
+        Initialised to null character.
+        Can have values :
+        + means sum
+        - means subtraction
+        * means multiplication
+        ÷ means division
+        N means no operator
+         */
+        char operation = '\u0000';
+
+        // While the target is invalid
+        while(target == -1) {
+            operation = generateOperation(cage);
+            target = calculateTarget(cage, operation);
+        }
+
+        // If no operation is defined, only return the target
+        return operation == 'N' ? "" + target : "" + target + operation;
+    }
+
+    /**
+     * Generates a random operation for the specified cage
+     * @param cage the cage for which the operation will be generated
+     * @return the generated operation
+     */
+    private char generateOperation(List<Logic.CellPos> cage) {
+
+        final int POSSIBLE_OPERATIONS = 4;
+        int randomChar = random.nextInt(POSSIBLE_OPERATIONS);
+
+        // If the cage consists of one cell no operation can be used
+        if(cage.size() == 1) {
+            return 'N';
+        }
+
+        switch(randomChar) {
+            case 0:
+                return '+';
+            case 1:
+                return '-';
+            case 2:
+                return 'x';
+            default:
+                return '÷';
+        }
+    }
+
+    /**
+     * Calculates the target for the specified cage using specified operation
+     * @param cage the cage for which the target should be calculated
+     * @param operation the operation to be used on the cage
+     * @return -1 if the target cannot be calculated using the operation, the target otherwise
+     */
+    private int calculateTarget(List<Logic.CellPos> cage, char operation) {
+
+        // If the cage consists of one cell
+        if(operation == 'N') {
+            return generatedBoard[cage.get(0).getRow()][cage.get(0).getColumn()];
+        }
+
+        switch(operation) {
+
+            case '+':
+                return getSumTarget(cage);
+            case '-':
+                return getSubtractionTarget(cage);
+            case 'x':
+                return getMultiplicationTarget(cage);
+            default:
+                return getDivisionTarget(cage);
+        }
+    }
+
+    /**
+     * Calculates the sum of the cage values
+     * @param cage the cage for which the sum will be calculated
+     * @return the sum of the cage values
+     */
+    private int getSumTarget(List<Logic.CellPos> cage) {
+
+        int returnValue = 0;
+
+        for(Logic.CellPos cell : cage) {
+            returnValue += generatedBoard[cell.getRow()][cell.getColumn()];
+        }
+
+        return returnValue;
+    }
+
+    /**
+     * Calculates the subtraction of the cage values
+     * @param cage the cage for which the subtraction will be calculated
+     * @return -1 if the target would be negative, the target otherwise
+     */
+    private int getSubtractionTarget(List<Logic.CellPos> cage) {
+
+        int sum = getSumTarget(cage);
+
+        int largest = 0;
+
+        for(int increment = 0; increment < cage.size(); increment++) {
+
+            if(generatedBoard[cage.get(increment).getRow()][cage.get(increment).getColumn()] > largest) {
+                largest = generatedBoard[cage.get(increment).getRow()][cage.get(increment).getColumn()];
+            }
+        }
+
+        //The game rules don't allow negative targets, so the largest value minus all the others must be positive
+        return largest - (sum - largest) >= 0 ? largest - (sum - largest) : -1;
+    }
+
+    /**
+     * Calculates the multiplication of the cage values
+     * @param cage the cage for which the multiplication will be calculated
+     * @return -1 if the target would be too large for a label, the multiplication of the cage values otherwise
+     */
+    private int getMultiplicationTarget(List<Logic.CellPos> cage) {
+
+        long returnValue = 1;
+
+        for(Logic.CellPos cell : cage) {
+            returnValue *= generatedBoard[cell.getRow()][cell.getColumn()];
+        }
+
+        // Large cages of large boards can multiply past the range of an int
+        return returnValue <= Integer.MAX_VALUE ? (int) returnValue : -1;
+    }
+
+    /**
+     * Calculates the division of the cage values
+     * @param cage the cage for which the division will be calculated
+     * @return -1 if division is not achievable, the target otherwise
+     */
+    private int getDivisionTarget(List<Logic.CellPos> cage) {
+
+        List<Integer> cellValues = new ArrayList<>();
+
+        for(int index = 0; index < cage.size(); index++) {
+            cellValues.add(generatedBoard[cage.get(index).getRow()][cage.get(index).getColumn()]);
+        }
+
+        // The cage values in descending order
+        Collections.sort(cellValues);
+        Collections.reverse(cellValues);
+
+        int target = cellValues.get(0);
+
+        for(int index = 1; index < cellValues.size(); index++) {
+            target /= cellValues.get(index);
+        }
+
+        int returnValue = target;
+
+        for(int index = 1; index < cellValues.size(); index++) {
+            target *= cellValues.get(index);
+        }
+
+        return target == cellValues.get(0) ? returnValue : -1;
+    }
+
+    /**
+     * Set if generated puzzles must have exactly one solution
+     * @param uniqueSolution true if the solution must be unique, false otherwise
+     */
+    public void setUniqueSolution(boolean uniqueSolution) {
+        this.uniqueSolution = uniqueSolution;
+    }
+
+    /**
+     * Set the largest number of cells a generated cage can have. Large boards can allow larger cages, at the cost
+     * of harder puzzles that take longer to solve
+     * @param maximumCageSize the largest number of cells of a cage, at least 1
+     * @throws IllegalArgumentException if the size is less than 1
+     */
+    public void setMaximumCageSize(int maximumCageSize) {
+
+        if(maximumCageSize < 1) {
+            throw new IllegalArgumentException("A cage must be allowed at least one cell");
+        }
+
+        this.maximumCageSize = maximumCageSize;
+    }
+
+    /**
+     * Get the largest number of cells a generated cage can have
+     * @return the largest number of cells of a cage
+     */
+    public int getMaximumCageSize() {
+        return maximumCageSize;
+    }
+
+    /**
+     * Set how long the chain that samples the latin square of a puzzle runs, as a multiple of the number of cells
+     * of the board. More mixing brings the squares closer to uniform, at the cost of generation time
+     * @param latinSquareMixing the number of moves per cell of the board, 0 to use the cyclic square
+     * @throws IllegalArgumentException if the mixing is negative
+     */
+    public void setLatinSquareMixing(int latinSquareMixing) {
+
+        if(latinSquareMixing < 0) {
+            throw new IllegalArgumentException("The mixing can't be negative");
+        }
+
+        this.latinSquareMixing = latinSquareMixing;
+    }
+
+    /**
+     * Get how long the chain that samples the latin square of a puzzle runs
+     * @return the number of moves per cell of the board
+     */
+    public int getLatinSquareMixing() {
+        return latinSquareMixing;
+    }
+
+    /**
+     * Get the number of cage repairs needed by the last generated puzzle to make its solution unique
+     * @return the number of repairs
+     */
+    public int getRepairCount() {
+        return repairCount;
+    }
+
+    /**
+     * Get the number of counts of solutions that ran out of search nodes while the last generated puzzle was made
+     * unique, or of searches that did while a puzzle larger than 9x9 was made solvable. Each of them split a cage,
+     * so the puzzle has smaller cages than it would otherwise
+     * @return the number of counts that gave up
+     */
+    public int getAbortedCountCount() {
+        return abortedCountCount;
+    }
+
+    /**
+     * Set the search nodes a count of solutions gets while the solution is made unique
+     * @param countNodeLimit the largest number of search nodes of a count
+     */
+    public void setCountNodeLimit(long countNodeLimit) {
+        this.countNodeLimit = countNodeLimit;
+    }
+
+    /**
+     * Get the search nodes a count of solutions gets while the solution is made unique
+     * @return the largest number of search nodes of a count
+     */
+    public long getCountNodeLimit() {
+        return countNodeLimit;
+    }
+
+    /**
+     * Get the solution of the last generated puzzle
+     * @return the solution of the last generated puzzle
+     */
+    public int[][] getGeneratedBoard() {
+        return generatedBoard;
+    }
+
+    /**
+     * Get if generated puzzles must have exactly one solution
+     * @return true if the solution must be unique, false otherwise
+     */
+    public boolean isUniqueSolution() {
+        return uniqueSolution;
+    }
+
+    /**
+     * Seeds the generator, so it generates the same sequence of puzzles every time
+     * @param seed the seed of the random number generator
+     */
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generates a random sequence of integers between 0 - 3
+     * @return the generated sequence
+     */
+    private int[] constructRandomSequence() {
+
+        int[] returnSequence = new int[4];
+
+        for(int increment = 0; increment < 4; increment++) {
+            returnSequence[increment] = increment;
+        }
+
+        for(int decrement = 3; decrement > 0; decrement--) {
+            int index = random.nextInt(decrement + 1);
+
+            int temp = returnSequence[decrement];
+            returnSequence[decrement] = returnSequence[index];
+            returnSequence[index] = temp;
+        }
+
+        return returnSequence;
+    }
+}
@@ -0,0 +1,212 @@
+package mathdoku;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples latin squares close to uniformly at random with the Markov chain of Jacobson and Matthews. The square
+ * is kept as its incidence cube, where entry (row, column, symbol) is 1 if the cell holds the symbol. Each move
+ * changes eight entries of the cube by one, which either gives another latin square or a cube with a single
+ * entry of -1, which the next move removes again. Starting from any square, enough moves reach every square.
+ * Only the latin squares the chain passes are counted, as stopping at the first square after a number of moves
+ * favours the squares that follow long runs of improper cubes
+ */
+public class LatinSquareSampler {
+
+    // The source of randomness
+    private final SplittableRandom random;
+
+    // The number of rows / columns of the square being sampled
+    private int size;
+
+    // The incidence cube, entry (row, column, symbol) at (row * size + column) * size + symbol
+    private byte[] cube;
+
+    // The entry of the cube that is -1, when the cube isn't a latin square, -1 otherwise
+    private int improperRow = -1;
+    private int improperColumn;
+    private int improperSymbol;
+
+    /**
+     * Constructs a sampler drawing from the given random stream
+     * @param random the random stream used by the sampler
+     */
+    public LatinSquareSampler(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Samples a latin square, starting the chain from the cyclic square
+     * @param size the number of rows / columns of the square
+     * @param moves the number of moves of the chain that start from a latin square. About one in size moves
+     *              does, so the chain makes about size times as many moves in all
+     * @return the square, holding values from 1 to size
+     */
+    public int[][] sample(int size, int moves) {
+
+        this.size = size;
+        cube = new byte[size * size * size];
+        improperRow = -1;
+
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+                cube[index(row, column, (row + column) % size)] = 1;
+            }
+        }
+
+        // Squares of size 1 and 2 have no move that changes them
+        if(size > 2) {
+            for(int move = 0; move < moves; move++) {
+
+                // Runs until the cube is a latin square again, so only the squares the chain passes are counted
+                do {
+                    move();
+                } while(improperRow != -1);
+            }
+        }
+
+        int[][] square = new int[size][size];
+
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+                square[row][column] = findSymbol(row, column) + 1;
+            }
+        }
+
+        return square;
+    }
+
+    /**
+     * Makes one move of the chain
+     */
+    private void move() {
+
+        int row;
+        int column;
+        int symbol;
+        int otherRow;
+        int otherColumn;
+        int otherSymbol;
+
+        if(improperRow == -1) {
+
+            // Picks an entry that is 0, the lines through it each have exactly one entry of 1
+            row = random.nextInt(size);
+            column = random.nextInt(size);
+            otherSymbol = findSymbol(row, column);
+            symbol = random.nextInt(size - 1);
+
+            if(symbol >= otherSymbol) {
+                symbol++;
+            }
+
+            otherRow = findRow(column, symbol, -1);
+            otherColumn = findColumn(row, symbol, -1);
+        } else {
+
+            // The lines through the entry of -1 each have two entries of 1, one of which is picked
+            row = improperRow;
+            column = improperColumn;
+            symbol = improperSymbol;
+
+            otherRow = findRow(column, symbol, random.nextBoolean() ? -1 : size);
+            otherColumn = findColumn(row, symbol, random.nextBoolean() ? -1 : size);
+            otherSymbol = findSymbol(row, column, random.nextBoolean() ? -1 : size);
+        }
+
+        cube[index(row, column, symbol)]++;
+        cube[index(row, otherColumn, otherSymbol)]++;
+        cube[index(otherRow, column, otherSymbol)]++;
+        cube[index(otherRow, otherColumn, symbol)]++;
+
+        cube[index(row, column, otherSymbol)]--;
+        cube[index(row, otherColumn, symbol)]--;
+        cube[index(otherRow, column, symbol)]--;
+
+        // The opposite corner is the only entry that can drop to -1
+        if(--cube[index(otherRow, otherColumn, otherSymbol)] < 0) {
+            improperRow = otherRow;
+            improperColumn = otherColumn;
+            improperSymbol = otherSymbol;
+        } else {
+            improperRow = -1;
+        }
+    }
+
+    /**
+     * Finds the symbol of a cell of a latin square
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @return the symbol, from 0 to size - 1
+     */
+    private int findSymbol(int row, int column) {
+        return findSymbol(row, column, -1);
+    }
+
+    /**
+     * Finds a symbol whose entry is 1 in the line of a cell, searching from either end
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @param from -1 to search from the first symbol, size to search from the last
+     * @return the first symbol found
+     */
+    private int findSymbol(int row, int column, int from) {
+
+        int step = from < 0 ? 1 : -1;
+        int symbol = from + step;
+
+        while(cube[index(row, column, symbol)] != 1) {
+            symbol += step;
+        }
+
+        return symbol;
+    }
+
+    /**
+     * Finds a row whose entry is 1 in the line of a column and symbol, searching from either end
+     * @param column the column
+     * @param symbol the symbol
+     * @param from -1 to search from the first row, size to search from the last
+     * @return the first row found
+     */
+    private int findRow(int column, int symbol, int from) {
+
+        int step = from < 0 ? 1 : -1;
+        int row = from + step;
+
+        while(cube[index(row, column, symbol)] != 1) {
+            row += step;
+        }
+
+        return row;
+    }
+
+    /**
+     * Finds a column whose entry is 1 in the line of a row and symbol, searching from either end
+     * @param row the row
+     * @param symbol the symbol
+     * @param from -1 to search from the first column, size to search from the last
+     * @return the first column found
+     */
+    private int findColumn(int row, int symbol, int from) {
+
+        int step = from < 0 ? 1 : -1;
+        int column = from + step;
+
+        while(cube[index(row, column, symbol)] != 1) {
+            column += step;
+        }
+
+        return column;
+    }
+
+    /**
+     * Get the position of an entry in the cube
+     * @param row the row of the entry
+     * @param column the column of the entry
+     * @param symbol the symbol of the entry
+     * @return the position of the entry
+     */
+    private int index(int row, int column, int symbol) {
+        return (row * size + column) * size + symbol;
+    }
+}
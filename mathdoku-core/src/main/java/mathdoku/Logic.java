@@ -0,0 +1,751 @@
+package mathdoku;
+
+import java.util.*;
+
+/**
+ * Logical representation of the structure of the game board. Ensures the correct implementation of
+ * Mathdoku game rules
+ */
+public class Logic {
+
+    // Logical representation of a Mathdoku board
+    private Board board = new Board(6);
+
+    private Solver solver = new Solver(this);
+
+    private Generator generator = new Generator(this);
+
+    // Determines if cells will be highlighted when mistake is detected
+    private boolean hintsEnabled = false;
+
+    // All the cages that make up the board
+    private ArrayList<List<CellPos>> clusterCells = new ArrayList<>();
+
+    // All the values entered into the board in correct order, used to undo and redo them
+    private ActionHistory history = new ActionHistory();
+
+    // Rows, columns and cages that brake the game rules
+    private ArrayList<Integer> incorrectRows = new ArrayList<>();
+    private ArrayList<Integer> incorrectColumns = new ArrayList<>();
+    private ArrayList<List<CellPos>> incorrectCages = new ArrayList<>();
+
+    // The cell that will be revealed to the user as a hint
+    private CellPos hintCell = new CellPos(-1, -1);
+
+    // Picks the hint cells
+    private SplittableRandom random = new SplittableRandom();
+
+    /**
+     * Generates a the coordinates of a cell that is incorrect or empty
+     */
+    public void hintAction() {
+
+        // If cell hasn't been generated yet, generate it
+        if(hintCell.row == -1) {
+            hintCell.row = random.nextInt(board.size);
+            hintCell.column = random.nextInt(board.size);
+        }
+
+        // If the hint has been used by the user, generate a new one
+        if(board.getValue(hintCell.row, hintCell.column) ==
+                solver.getSolvedBoard()[hintCell.row][hintCell.column]) {
+
+            do {
+                hintCell.row = random.nextInt(board.size);
+                hintCell.column = random.nextInt(board.size);
+
+            } while(board.getValue(hintCell.row, hintCell.column) ==
+                    solver.getSolvedBoard()[hintCell.row][hintCell.column]);
+        }
+    }
+
+    /**
+     * Return the board to the state it was before undo'ing the last action
+     */
+    public void redoAction() {
+        history.redo(board);
+    }
+
+    /**
+     * Return the board to the state it was before the last action
+     */
+    public void undoAction() {
+        history.undo(board);
+    }
+
+    /**
+     * Detects if a winning condition has been reached
+     */
+    public boolean isWinReached() {
+
+        /*
+        If all the rows, columns and cages are correct, and the board is full.
+        First three methods have to execute regardless because they construct the
+        arrays arrays of mistakes in the board.
+         */
+        return areRowsCorrect() & areColumnsCorrect() & areCagesCorrect() && board.getMistakes().isBoardFull();
+
+    }
+
+    /**
+     * Finds all the mistakes inside rows in a board
+     * @return True if all rows are correct, false otherwise
+     */
+    public boolean areRowsCorrect() {
+
+        MistakeTracker mistakes = board.getMistakes();
+
+        // Clears previous mistakes
+        incorrectRows.clear();
+
+        if(mistakes.getIncorrectRowCount() == 0) {
+            return true;
+        }
+
+        // Only track mistakes if it's enabled
+        if(hintsEnabled) {
+
+            for(int row = 0; row < board.size; row++) {
+
+                if(mistakes.isRowIncorrect(row)) {
+                    incorrectRows.add(row);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds all the mistakes inside columns in a board
+     * @return True if all columns are correct, false otherwise
+     */
+    public boolean areColumnsCorrect() {
+
+        MistakeTracker mistakes = board.getMistakes();
+
+        // Clears previous mistakes
+        incorrectColumns.clear();
+
+        if(mistakes.getIncorrectColumnCount() == 0) {
+            return true;
+        }
+
+        // Only track mistakes if it's enabled
+        if(hintsEnabled) {
+
+            for(int column = 0; column < board.size; column++) {
+
+                if(mistakes.isColumnIncorrect(column)) {
+                    incorrectColumns.add(column);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds all the mistakes inside cages in a board
+     * @return True if all cages are correct, false otherwise
+     */
+    public boolean areCagesCorrect() {
+
+        MistakeTracker mistakes = board.getMistakes();
+
+        // Clears previous mistakes
+        incorrectCages.clear();
+
+        if(mistakes.getIncorrectCageCount() == 0) {
+            return true;
+        }
+
+        // Only track mistakes if it's enabled
+        if(hintsEnabled) {
+
+            for(int cage = 0; cage < clusterCells.size(); cage++) {
+
+                if(mistakes.isCageIncorrect(cage)) {
+                    incorrectCages.add(clusterCells.get(cage));
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the cage index and the wall values for each cell
+     */
+    public void setUpWalls() {
+
+        for(int cage = 0; cage < clusterCells.size(); cage++) {
+            for(CellPos cell : clusterCells.get(cage)) {
+
+                board.setCellCage(cell.row, cell.column, cage);
+            }
+        }
+
+        for(int row = 0; row < board.size; row++) {
+            for(int column = 0; column < board.size; column++) {
+
+                // If the bottom cell is not in the same cage
+                if(row != board.size - 1 && board.getCellCage(row, column) != board.getCellCage(row + 1, column)) {
+
+                    // There is a cage below the cell, and a cage above the below cell
+                    board.setWall(row, column, Board.CAGE_BOTTOM);
+                    board.setWall(row + 1, column, Board.CAGE_TOP);
+                }
+
+                // If the right cell is not in the same cage
+                if(column != board.size - 1 && board.getCellCage(row, column) != board.getCellCage(row, column + 1)) {
+
+                    // There is a cage to the right of the cell, and a cage to the left of the right cell
+                    board.setWall(row, column, Board.CAGE_RIGHT);
+                    board.setWall(row, column + 1, Board.CAGE_LEFT);
+                }
+            }
+        }
+
+        // The cages are known, so they can be checked as values are entered
+        board.getMistakes().setPuzzle(Puzzle.fromLogic(this));
+    }
+
+    /**
+     * Replaces the current board with a puzzle, labelling the first cell of every cage
+     * @param puzzle the definition of the new puzzle
+     */
+    public void setPuzzle(Puzzle puzzle) {
+
+        int size = puzzle.getSize();
+
+        board.setSize(size);
+        board.resizeBoard();
+
+        // Deletes the last game board
+        deleteLastBoard();
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            List<CellPos> cells = new ArrayList<>();
+
+            for(int cell : puzzle.getCageCells(cage)) {
+
+                cells.add(new CellPos(cell / size, cell % size));
+                board.setInCage(cell / size, cell % size, true);
+            }
+
+            board.setLabel(cells.get(0).row, cells.get(0).column, puzzle.getCageLabel(cage));
+            clusterCells.add(cells);
+        }
+
+        setUpWalls();
+    }
+
+    /**
+     * Deletes all the data of the last puzzle
+     */
+    public void deleteLastBoard() {
+
+        int size = getBoard().getSize();
+
+        for(int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+
+                board.setValue(row, column, 0);
+                board.setLabel(row, column, "");
+                board.resetCellWalls(row, column);
+                board.setInCage(row, column, false);
+                board.setCellCage(row, column, -1);
+            }
+        }
+
+        getClusterCells().clear();
+        board.getMistakes().clearPuzzle();
+        clearUserActions();
+
+        getSolver().setSolvedBoard(null);
+
+        hintCell.row = -1;
+        hintCell.column = -1;
+    }
+
+    /**
+     * Reverses the value of the parameter that decides if hints are enabled
+     */
+    public void reverseHintsEnabled() {
+        this.hintsEnabled = !hintsEnabled;
+    }
+
+    /**
+     * Checks if an undo action is possible
+     * @return true if undo can be achieved, false otherwise
+     */
+    public boolean isUndoPossible() {
+        return history.canUndo();
+    }
+
+    /**
+     * Checks if a redo action is possible
+     * @return true if redo can be achieved, false otherwise
+     */
+    public boolean isRedoPossible() {
+        return history.canRedo();
+    }
+
+    /**
+     * Adds a new cell modification done by the user. Must be called before the value is entered into the board,
+     * so the previous value of the cell can be recorded
+     * @param row row of the modified cell
+     * @param column column of the modified cell
+     * @param value the new value entered into the cell
+     */
+    public void addNewUserAction(int row, int column, int value) {
+        history.record(row * board.size + column, board.getValue(row, column), value);
+    }
+
+    /**
+     * Replaces the value entered by the last cell modification, so it is undone as a single action. Must be called
+     * before the value is entered into the board
+     * @param row row of the modified cell, the cell of the last modification
+     * @param column column of the modified cell
+     * @param value the new value entered into the cell
+     */
+    public void amendLastUserAction(int row, int column, int value) {
+        history.amend(row * board.size + column, value);
+    }
+
+    /**
+     * Clears the sequence of user's actions
+     */
+    public void clearUserActions() {
+        history.clear();
+    }
+
+    /**
+     * Makes redo no longer possible to achieve
+     */
+    public void cancelRedo() {
+        history.truncate();
+    }
+
+    /**
+     * Returns the Solver object that's responsible for finding a solution to the puzzle
+     * @return the puzzle solver
+     */
+    public Solver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Return the Generator object, that's responsible for generating new puzzles
+     * @return the puzzle generator
+     */
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Get the cages that make up the game board
+     * @return the ArrayList of all cages that makes up the game board
+     */
+    public ArrayList<List<CellPos>> getClusterCells() {
+        return clusterCells;
+    }
+
+    /**
+     * Get the incorrect rows within a game board
+     * @return the ArrayList of all incorrect rows within a game board
+     */
+    public ArrayList<Integer> getIncorrectRows() {
+        return incorrectRows;
+    }
+
+    /**
+     * Get the incorrect columns within a game board
+     * @return the ArrayList of all incorrect columns within a game board
+     */
+    public ArrayList<Integer> getIncorrectColumns() {
+        return incorrectColumns;
+    }
+
+    /**
+     * Get the incorrect cages within a game board
+     * @return the ArrayList of all incorrect cages within a game board
+     */
+    public ArrayList<List<CellPos>> getIncorrectCages() {
+        return incorrectCages;
+    }
+
+    /**
+     * Returns the coordinates of the cell to be hinted to the user
+     * @return the coordinates of the cell to be hinted to the user
+     */
+    public CellPos getHintCell() {
+        return hintCell;
+    }
+
+    /**
+     * Set the cages that make up the game board
+     * @param clusterCells the new cage values of the board
+     */
+    public void setClusterCells(ArrayList<List<CellPos>> clusterCells) {
+        this.clusterCells = clusterCells;
+    }
+
+    /**
+     * Get the history of the values entered by the user
+     * @return the undo / redo history
+     */
+    public ActionHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Replace the history of the values entered by the user, for example with one that has a capacity
+     * @param history the new undo / redo history
+     */
+    public void setHistory(ActionHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Get the the parameter that decides if hints are enabled
+     * @return true if hints are enabled, false otherwise
+     */
+    public boolean isHintsEnabled() {
+        return hintsEnabled;
+    }
+
+    /**
+     * Get the board of the game
+     * @return the board of the game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Class defines the position of a cell in the board
+     */
+    public static class CellPos {
+
+        private int row, column;
+
+        /**
+         * @param row Y coordinate in a 2D space
+         * @param column X coordinate in a 2D space
+         */
+        CellPos(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        /**
+         * Get the row of the cell
+         * @return the row of the cell
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Get the column of the cell
+         * @return the column of the cell
+         */
+        public int getColumn() {
+            return column;
+        }
+    }
+
+    /**
+     * Class representing the board of the game. Every property of the cells is stored in a flat array, indexed
+     * row by row
+     */
+    public static class Board {
+
+        // Flags marking a cage wall on each side of a cell, and that the cell is already in a cage
+        public static final byte CAGE_TOP = 1;
+        public static final byte CAGE_BOTTOM = 2;
+        public static final byte CAGE_LEFT = 4;
+        public static final byte CAGE_RIGHT = 8;
+        private static final byte IN_CAGE = 16;
+
+        // Target of a cell that has no label
+        private static final int NO_LABEL = Integer.MIN_VALUE;
+
+        // The number of rows / columns in the board
+        private int size;
+
+        // Value of every cell. 0 represents an empty cell
+        private byte[] values;
+
+        // The walls around every cell and whether it is in a cage, packed as flags
+        private byte[] flags;
+
+        // The label attached to every cell, parsed into the value to be reached and the operation
+        private int[] labelTargets;
+        private char[] labelOperations;
+
+        // The index of the cage every cell belongs to, -1 if it is not in a cage
+        private int[] cellCages;
+
+        // Counts the mistakes on the board as values change
+        private MistakeTracker mistakes;
+
+        /**
+         * @param size number of rows(columns) in the game board
+         */
+        public Board(int size) {
+
+            this.size = size;
+            resizeBoard();
+        }
+
+        /**
+         * Change the size of the board layout
+         */
+        public void resizeBoard() {
+
+            values = new byte[size * size];
+            flags = new byte[size * size];
+            labelTargets = new int[size * size];
+            labelOperations = new char[size * size];
+            cellCages = new int[size * size];
+
+            Arrays.fill(labelTargets, NO_LABEL);
+            Arrays.fill(cellCages, -1);
+
+            mistakes = new MistakeTracker(size, values);
+        }
+
+        /**
+         * Resets the walls around the cell to be non-cage
+         * @param row the row of the cell
+         * @param column the column of the cell
+         */
+        public void resetCellWalls(int row, int column) {
+            flags[row * size + column] &= IN_CAGE;
+        }
+
+        /**
+         * Resets the values of the cells of the board to zero
+         */
+        public void resetBoardValues() {
+
+            Arrays.fill(values, (byte) 0);
+            mistakes.clear();
+        }
+
+        /**
+         * Get the value of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the value of the cell, 0 if it is empty
+         */
+        public int getValue(int row, int column) {
+            return values[row * size + column];
+        }
+
+        /**
+         * Set the value of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param value the new value to be assigned to the cell
+         */
+        public void setValue(int row, int column, int value) {
+
+            int cell = row * size + column;
+            int oldValue = values[cell];
+
+            values[cell] = (byte) value;
+            mistakes.update(cell, oldValue, value);
+        }
+
+        /**
+         * Get the label of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the label of the cell, empty if it has none
+         */
+        public String getLabel(int row, int column) {
+
+            int cell = row * size + column;
+
+            if(labelTargets[cell] == NO_LABEL) {
+                return "";
+            }
+
+            return labelOperations[cell] == 'N' ? "" + labelTargets[cell] : "" + labelTargets[cell] + labelOperations[cell];
+        }
+
+        /**
+         * Set the label of a cell, parsing it into its target and operation
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param label the label of the cell, empty to remove it
+         * @throws NumberFormatException if the label doesn't start with a number
+         */
+        public void setLabel(int row, int column, String label) {
+
+            int cell = row * size + column;
+
+            if(label.isEmpty()) {
+                labelTargets[cell] = NO_LABEL;
+                labelOperations[cell] = 'N';
+            } else {
+                labelTargets[cell] = Puzzle.parseTarget(label);
+                labelOperations[cell] = Puzzle.parseOperation(label);
+            }
+        }
+
+        /**
+         * Checks if a cell has a label
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if the cell has a label, false otherwise
+         */
+        public boolean hasLabel(int row, int column) {
+            return labelTargets[row * size + column] != NO_LABEL;
+        }
+
+        /**
+         * Get the value to be reached by the label of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the target of the label
+         */
+        public int getLabelTarget(int row, int column) {
+            return labelTargets[row * size + column];
+        }
+
+        /**
+         * Get the operation of the label of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the operation of the label, N if it has none
+         */
+        public char getLabelOperation(int row, int column) {
+            return labelOperations[row * size + column];
+        }
+
+        /**
+         * Get the index of the cage a cell belongs to
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return the index of the cage, -1 if the cell is not in a cage
+         */
+        public int getCellCage(int row, int column) {
+            return cellCages[row * size + column];
+        }
+
+        /**
+         * Set the index of the cage a cell belongs to
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param cage the index of the cage, -1 if the cell is not in a cage
+         */
+        public void setCellCage(int row, int column, int cage) {
+            cellCages[row * size + column] = cage;
+        }
+
+        /**
+         * Checks if a cell is already in a cage
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if the cell is in a cage, false otherwise
+         */
+        public boolean isInCage(int row, int column) {
+            return (flags[row * size + column] & IN_CAGE) != 0;
+        }
+
+        /**
+         * Marks if a cell is already in a cage
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param isInCage true if the cell is in a cage, false otherwise
+         */
+        public void setInCage(int row, int column, boolean isInCage) {
+
+            if(isInCage) {
+                flags[row * size + column] |= IN_CAGE;
+            } else {
+                flags[row * size + column] &= ~IN_CAGE;
+            }
+        }
+
+        /**
+         * Adds a cage wall to one side of a cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @param wall the flag of the side of the wall
+         */
+        public void setWall(int row, int column, byte wall) {
+            flags[row * size + column] |= wall;
+        }
+
+        /**
+         * Get if there is a cage wall below the cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if there is a cage wall below the cell, false otherwise
+         */
+        public boolean isCageBottom(int row, int column) {
+            return (flags[row * size + column] & CAGE_BOTTOM) != 0;
+        }
+
+        /**
+         * Get if there is a cage wall above the cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if there is a cage wall above the cell, false otherwise
+         */
+        public boolean isCageTop(int row, int column) {
+            return (flags[row * size + column] & CAGE_TOP) != 0;
+        }
+
+        /**
+         * Get if there is a cage wall to the left of the cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if there is a cage wall to the left of the cell, false otherwise
+         */
+        public boolean isCageLeft(int row, int column) {
+            return (flags[row * size + column] & CAGE_LEFT) != 0;
+        }
+
+        /**
+         * Get if there is a cage wall to the right of the cell
+         * @param row the row of the cell
+         * @param column the column of the cell
+         * @return true if there is a cage wall to the right of the cell, false otherwise
+         */
+        public boolean isCageRight(int row, int column) {
+            return (flags[row * size + column] & CAGE_RIGHT) != 0;
+        }
+
+        /**
+         * Get the tracker that counts the mistakes on the board
+         * @return the mistake tracker of the board
+         */
+        public MistakeTracker getMistakes() {
+            return mistakes;
+        }
+
+        /**
+         * Get the size of the board (number rof rows / columns)
+         * @return the size of the board
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Set the size of the board
+         * @param size the size of the board to be set (number of rows / columns)
+         */
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package mathdoku;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the mistakes on a board as its values change. Counts how many times every digit appears in
+ * every row and column, and keeps the number of filled cells, the sum and the product of every cage, so a single
+ * change to a cell is checked without scanning the rest of the board
+ */
+public class MistakeTracker {
+
+    // The number of rows / columns in the board
+    private final int size;
+
+    // The values of the board, shared with the board that owns the tracker
+    private final byte[] values;
+
+    // The number of times every digit appears in every row and column, indexed unit * (size + 1) + digit
+    private final int[] rowCounts;
+    private final int[] columnCounts;
+
+    // The number of digits that appear more than once in every row and column
+    private final int[] rowDuplicates;
+    private final int[] columnDuplicates;
+
+    // The number of rows and columns that contain a repeated digit
+    private int incorrectRowCount;
+    private int incorrectColumnCount;
+
+    // The number of cells that have a value
+    private int filledCount;
+
+    // The puzzle whose cages are checked, null until the cages are known
+    private Puzzle puzzle;
+
+    // The number of filled cells, the sum and the product of the filled cells of every cage
+    private int[] cageFilled;
+    private int[] cageSum;
+    private long[] cageProduct;
+
+    // True for every full cage that doesn't reach its target
+    private boolean[] cageIncorrect;
+
+    // The number of full cages that don't reach their target
+    private int incorrectCageCount;
+
+    // Scratch space for the values of a cage
+    private int[] cageValues;
+
+    /**
+     * @param size the number of rows / columns in the board
+     * @param values the values of the board, indexed row * size + column
+     */
+    public MistakeTracker(int size, byte[] values) {
+
+        this.size = size;
+        this.values = values;
+
+        rowCounts = new int[size * (size + 1)];
+        columnCounts = new int[size * (size + 1)];
+        rowDuplicates = new int[size];
+        columnDuplicates = new int[size];
+    }
+
+    /**
+     * Sets the cages to be checked and recounts the cage state from the current values of the board
+     * @param puzzle the puzzle whose cages are checked
+     */
+    public void setPuzzle(Puzzle puzzle) {
+
+        this.puzzle = puzzle;
+
+        cageFilled = new int[puzzle.getCageCount()];
+        cageSum = new int[puzzle.getCageCount()];
+        cageProduct = new long[puzzle.getCageCount()];
+        cageIncorrect = new boolean[puzzle.getCageCount()];
+        incorrectCageCount = 0;
+
+        int largestCage = 0;
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            cageProduct[cage] = 1;
+            largestCage = Math.max(largestCage, puzzle.getCageCells(cage).length);
+        }
+
+        cageValues = new int[largestCage];
+
+        for(int cell = 0; cell < size * size; cell++) {
+
+            if(values[cell] != 0) {
+                updateCage(cell, 0, values[cell]);
+            }
+        }
+    }
+
+    /**
+     * Updates the counters after the value of a cell has changed. Must be called after the new value is stored
+     * @param cell the index of the cell
+     * @param oldValue the previous value of the cell, 0 if it was empty
+     * @param newValue the new value of the cell, 0 if it is now empty
+     */
+    public void update(int cell, int oldValue, int newValue) {
+
+        if(oldValue == newValue) {
+            return;
+        }
+
+        int row = cell / size;
+        int column = cell % size;
+
+        if(oldValue != 0) {
+
+            filledCount--;
+
+            // A digit that was repeated twice no longer is
+            if(--rowCounts[row * (size + 1) + oldValue] == 1 && --rowDuplicates[row] == 0) {
+                incorrectRowCount--;
+            }
+
+            if(--columnCounts[column * (size + 1) + oldValue] == 1 && --columnDuplicates[column] == 0) {
+                incorrectColumnCount--;
+            }
+        }
+
+        if(newValue != 0) {
+
+            filledCount++;
+
+            // A digit that appeared once is now repeated
+            if(++rowCounts[row * (size + 1) + newValue] == 2 && rowDuplicates[row]++ == 0) {
+                incorrectRowCount++;
+            }
+
+            if(++columnCounts[column * (size + 1) + newValue] == 2 && columnDuplicates[column]++ == 0) {
+                incorrectColumnCount++;
+            }
+        }
+
+        if(puzzle != null) {
+            updateCage(cell, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Updates the state of the cage of a cell after its value has changed
+     * @param cell the index of the cell
+     * @param oldValue the previous value of the cell, 0 if it was empty
+     * @param newValue the new value of the cell, 0 if it is now empty
+     */
+    private void updateCage(int cell, int oldValue, int newValue) {
+
+        int cage = puzzle.getCellCage(cell);
+
+        if(oldValue != 0) {
+            cageFilled[cage]--;
+            cageSum[cage] -= oldValue;
+            cageProduct[cage] /= oldValue;
+        }
+
+        if(newValue != 0) {
+            cageFilled[cage]++;
+            cageSum[cage] += newValue;
+            cageProduct[cage] *= newValue;
+        }
+
+        boolean incorrect = cageFilled[cage] == puzzle.getCageCells(cage).length && !isCageCorrect(cage);
+
+        if(incorrect != cageIncorrect[cage]) {
+            cageIncorrect[cage] = incorrect;
+            incorrectCageCount += incorrect ? 1 : -1;
+        }
+    }
+
+    /**
+     * Checks if a full cage reaches its target
+     * @param cage the index of the cage
+     * @return true if the target is reached, false otherwise
+     */
+    private boolean isCageCorrect(int cage) {
+
+        char operation = puzzle.getCageOperation(cage);
+        int target = puzzle.getCageTarget(cage);
+
+        // Addition and multiplication are answered by the accumulated values
+        if(operation == '+') {
+            return cageSum[cage] == target;
+        } else if(operation == 'x') {
+            return cageProduct[cage] == target;
+        }
+
+        int[] cells = puzzle.getCageCells(cage);
+
+        for(int index = 0; index < cells.length; index++) {
+            cageValues[index] = values[cells[index]];
+        }
+
+        return Puzzle.isCageCorrect(operation, target, cageValues, cells.length);
+    }
+
+    /**
+     * Resets every counter after all the values of the board were cleared
+     */
+    public void clear() {
+
+        Arrays.fill(rowCounts, 0);
+        Arrays.fill(columnCounts, 0);
+        Arrays.fill(rowDuplicates, 0);
+        Arrays.fill(columnDuplicates, 0);
+
+        incorrectRowCount = 0;
+        incorrectColumnCount = 0;
+        filledCount = 0;
+
+        if(puzzle != null) {
+            setPuzzle(puzzle);
+        }
+    }
+
+    /**
+     * Forgets the cages, once the puzzle has been deleted
+     */
+    public void clearPuzzle() {
+
+        puzzle = null;
+        incorrectCageCount = 0;
+    }
+
+    /**
+     * Checks if a row contains a repeated digit
+     * @param row the index of the row
+     * @return true if the row contains a repeated digit, false otherwise
+     */
+    public boolean isRowIncorrect(int row) {
+        return rowDuplicates[row] != 0;
+    }
+
+    /**
+     * Checks if a column contains a repeated digit
+     * @param column the index of the column
+     * @return true if the column contains a repeated digit, false otherwise
+     */
+    public boolean isColumnIncorrect(int column) {
+        return columnDuplicates[column] != 0;
+    }
+
+    /**
+     * Checks if a cage is full but doesn't reach its target
+     * @param cage the index of the cage
+     * @return true if the cage is incorrect, false otherwise
+     */
+    public boolean isCageIncorrect(int cage) {
+        return puzzle != null && cageIncorrect[cage];
+    }
+
+    /**
+     * Get the number of rows that contain a repeated digit
+     * @return the number of incorrect rows
+     */
+    public int getIncorrectRowCount() {
+        return incorrectRowCount;
+    }
+
+    /**
+     * Get the number of columns that contain a repeated digit
+     * @return the number of incorrect columns
+     */
+    public int getIncorrectColumnCount() {
+        return incorrectColumnCount;
+    }
+
+    /**
+     * Get the number of full cages that don't reach their target
+     * @return the number of incorrect cages
+     */
+    public int getIncorrectCageCount() {
+        return incorrectCageCount;
+    }
+
+    /**
+     * Checks if every cell of the board has a value
+     * @return true if the board is full, false otherwise
+     */
+    public boolean isBoardFull() {
+        return filledCount == size * size;
+    }
+}
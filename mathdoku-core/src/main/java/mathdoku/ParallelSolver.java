@@ -0,0 +1,219 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds a solution to a Mathdoku puzzle using every core. The top levels of the search tree are split into
+ * independent tasks, each with its own copy of the search state, that are run on a fork-join pool. Every
+ * task stops as soon as one of them finds a solution
+ */
+public class ParallelSolver implements PuzzleSolver {
+
+    // The number of guesses after which a task stops splitting and searches on its own
+    private static final int SPLIT_DEPTH = 3;
+
+    // The logical representation of the current puzzle, null if the solver works on a fixed puzzle
+    private Logic gameLogic;
+
+    // The puzzle being solved, fixed when the solver was created if it has no board
+    private Puzzle puzzle;
+
+    // The pool the search tasks are run on
+    private ForkJoinPool pool;
+
+    // The order in which cells and values are tried
+    private SearchOrder searchOrder = SearchOrder.LEAST_CONSTRAINING_VALUE;
+
+    private int[][] solvedBoard;
+
+    // The number of values placed during the last search, by all tasks
+    private LongAdder nodeCount = new LongAdder();
+
+    // Set once a solution is found, so every other task stops
+    private AtomicBoolean solutionFound = new AtomicBoolean();
+
+    /**
+     * Creates a solver for the current game board that runs on the common fork-join pool
+     * @param board the logical representation of the current board
+     */
+    public ParallelSolver(Logic board) {
+
+        this(board, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver for the current game board
+     * @param board the logical representation of the current board
+     * @param pool the pool the search tasks are run on
+     */
+    public ParallelSolver(Logic board, ForkJoinPool pool) {
+
+        gameLogic = board;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a solver for a puzzle definition, independent of any board
+     * @param puzzle the puzzle to be solved
+     * @param pool the pool the search tasks are run on
+     */
+    public ParallelSolver(Puzzle puzzle, ForkJoinPool pool) {
+
+        this.puzzle = puzzle;
+        this.pool = pool;
+    }
+
+    /**
+     * Solves the a Mathdoku puzzle
+     * @return true if the puzzle is solvable, false otherwise
+     */
+    @Override
+    public boolean solvePuzzle() {
+
+        if(gameLogic != null) {
+            puzzle = Puzzle.fromLogic(gameLogic);
+        }
+
+        SolverState state = new SolverState(puzzle);
+
+        nodeCount.reset();
+        solutionFound = new AtomicBoolean();
+
+        if(!new Propagator(state).propagate()) {
+            return false;
+        }
+
+        solvedBoard = pool.invoke(new SearchTask(state, 0));
+
+        return solvedBoard != null;
+    }
+
+    /**
+     * Getter for solved board
+     * @return the solution to the current puzzle
+     */
+    @Override
+    public int[][] getSolvedBoard() {
+        return solvedBoard;
+    }
+
+    /**
+     * Get the number of values placed during the last search, by all tasks
+     * @return the number of search nodes explored
+     */
+    @Override
+    public long getNodeCount() {
+        return nodeCount.sum();
+    }
+
+    /**
+     * Searches one subtree of the search tree
+     */
+    private class SearchTask extends RecursiveTask<int[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        // The state at the root of the subtree, owned by this task
+        private final SolverState state;
+
+        // The number of guesses made to reach the root of the subtree
+        private final int depth;
+
+        /**
+         * @param state the state at the root of the subtree
+         * @param depth the number of guesses made to reach the root of the subtree
+         */
+        SearchTask(SolverState state, int depth) {
+
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected int[][] compute() {
+
+            if(solutionFound.get()) {
+                return null;
+            }
+
+            // Deep enough subtrees are searched sequentially
+            if(depth == SPLIT_DEPTH) {
+                return searchSequentially();
+            }
+
+            int cell = searchOrder.selectCell(state);
+
+            if(cell == -1) {
+                solutionFound.set(true);
+                return state.toGrid();
+            }
+
+            int cage = state.getPuzzle().getCellCage(cell);
+
+            // One subtask for every value that survives propagation
+            List<SearchTask> subtasks = new ArrayList<>();
+
+            for(int newValue : searchOrder.orderValues(state, cell)) {
+
+                nodeCount.increment();
+
+                SolverState child = new SolverState(state);
+                child.assign(cell, newValue);
+
+                if(child.isCageConsistent(cage) && new Propagator(child).propagate()) {
+                    subtasks.add(new SearchTask(child, depth + 1));
+                }
+            }
+
+            if(subtasks.isEmpty()) {
+                return null;
+            }
+
+            // Other workers can steal the later values while this one explores the first
+            for(int index = subtasks.size() - 1; index > 0; index--) {
+                subtasks.get(index).fork();
+            }
+
+            int[][] solution = subtasks.get(0).compute();
+
+            for(int index = 1; index < subtasks.size(); index++) {
+
+                // Once a solution is known, the tasks that haven't started yet are cancelled
+                if(solution != null) {
+                    subtasks.get(index).cancel(false);
+                } else {
+                    solution = subtasks.get(index).join();
+                }
+            }
+
+            return solution;
+        }
+
+        /**
+         * Searches the subtree with a sequential solver that stops once any task finds a solution
+         * @return the solution, null if the subtree has none or another task found one first
+         */
+        private int[][] searchSequentially() {
+
+            Solver solver = new Solver(puzzle);
+            solver.setSearchOrder(searchOrder);
+            solver.setCancelled(solutionFound);
+
+            boolean solved = solver.search(state);
+
+            nodeCount.add(solver.getNodeCount());
+
+            if(solved) {
+                solutionFound.set(true);
+                return state.toGrid();
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package mathdoku;
+
+import java.util.Arrays;
+
+/**
+ * Narrows the candidates of the cells of a puzzle by logical deduction, before any value has to be guessed.
+ * Applies naked singles, hidden singles, naked pairs and cage arithmetic pruning until none of them makes
+ * any more progress
+ */
+public class Propagator {
+
+    /**
+     * The deductions, from the cheapest to the most expensive, which is also the order they are tried in
+     */
+    public enum Technique {NAKED_SINGLE, HIDDEN_SINGLE, CAGE_COMBINATION, NAKED_PAIR}
+
+    // The search state being narrowed
+    private final SolverState state;
+
+    // The number of rows / columns in the board
+    private final int size;
+
+    // Mask with a bit set for every digit of the board
+    private final int fullMask;
+
+    // Set once a cell is left without candidates or a cage can no longer be completed
+    private boolean contradiction;
+
+    // The number of rounds in which each technique made progress, by ordinal, null if they aren't counted
+    private final long[] techniqueUses;
+
+    /**
+     * @param state the search state to be narrowed
+     */
+    public Propagator(SolverState state) {
+
+        this(state, null);
+    }
+
+    /**
+     * Creates a propagator that counts the deductions it makes
+     * @param state the search state to be narrowed
+     * @param techniqueUses incremented at the ordinal of a technique for every round in which it made progress,
+     *                      null if the deductions aren't counted
+     */
+    public Propagator(SolverState state, long[] techniqueUses) {
+
+        this.state = state;
+        this.techniqueUses = techniqueUses;
+        size = state.getSize();
+        fullMask = (1 << size) - 1;
+    }
+
+    /**
+     * Applies every deduction until the state stops changing
+     * @return false if the puzzle was found to have no solution, true otherwise
+     */
+    public boolean propagate() {
+
+        Technique technique = Technique.NAKED_SINGLE;
+
+        while(technique != null && !contradiction) {
+
+            technique = applyCheapest();
+
+            if(technique != null && techniqueUses != null) {
+                techniqueUses[technique.ordinal()]++;
+            }
+        }
+
+        return !contradiction;
+    }
+
+    /**
+     * Applies the cheapest deduction that makes progress. Cheaper deductions are repeated before more expensive
+     * ones are attempted
+     * @return the technique that made progress, null if none did
+     */
+    private Technique applyCheapest() {
+
+        if(applyNakedSingles()) {
+            return Technique.NAKED_SINGLE;
+        } else if(applyHiddenSingles()) {
+            return Technique.HIDDEN_SINGLE;
+        } else if(applyCagePruning()) {
+            return Technique.CAGE_COMBINATION;
+        } else if(applyNakedPairs()) {
+            return Technique.NAKED_PAIR;
+        }
+
+        return null;
+    }
+
+    /**
+     * Fills every empty cell that has only one candidate
+     * @return true if a cell was filled, false otherwise
+     */
+    private boolean applyNakedSingles() {
+
+        boolean changed = false;
+
+        for(int cell = 0; cell < size * size && !contradiction; cell++) {
+
+            if(state.getValue(cell) != 0) {
+                continue;
+            }
+
+            int candidates = state.getCandidates(cell);
+
+            if(candidates == 0) {
+                contradiction = true;
+            } else if(Integer.bitCount(candidates) == 1) {
+                place(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Fills every cell that is the only place in its row or column where a digit can go
+     * @return true if a cell was filled, false otherwise
+     */
+    private boolean applyHiddenSingles() {
+
+        boolean changed = false;
+
+        for(int unit = 0; unit < size && !contradiction; unit++) {
+            changed |= applyHiddenSingles(unit * size, 1);
+            changed |= applyHiddenSingles(unit, size);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Fills every cell that is the only place in a unit where a digit can go. The digits that can go into only
+     * one cell are found with masks of the digits seen once and seen twice among the candidates of the unit
+     * @param first the index of the first cell of the row or column
+     * @param step the distance between two neighbouring cells of the unit
+     * @return true if a cell was filled, false otherwise
+     */
+    private boolean applyHiddenSingles(int first, int step) {
+
+        int placed = 0;
+        int seen = 0;
+        int seenTwice = 0;
+
+        for(int index = 0, cell = first; index < size; index++, cell += step) {
+
+            int value = state.getValue(cell);
+
+            if(value != 0) {
+                placed |= 1 << (value - 1);
+            } else {
+
+                int candidates = state.getCandidates(cell);
+
+                seenTwice |= seen & candidates;
+                seen |= candidates;
+            }
+        }
+
+        // A digit that is neither placed nor a candidate anywhere can't be placed in the unit at all
+        if((placed | seen) != fullMask) {
+            contradiction = true;
+            return false;
+        }
+
+        boolean changed = false;
+
+        for(int singles = seen & ~seenTwice & ~placed; singles != 0 && !contradiction; singles &= singles - 1) {
+
+            int bit = singles & -singles;
+
+            // Earlier placements may have taken the cell, in which case the next pass looks at the unit again
+            for(int index = 0, cell = first; index < size; index++, cell += step) {
+
+                if(state.getValue(cell) == 0 && (state.getCandidates(cell) & bit) != 0) {
+                    place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Removes the candidates of two cells with the same two candidates from the rest of their row or column
+     * @return true if a candidate was removed, false otherwise
+     */
+    private boolean applyNakedPairs() {
+
+        boolean changed = false;
+
+        for(int unit = 0; unit < size; unit++) {
+            changed |= applyNakedPairs(unit * size, 1);
+            changed |= applyNakedPairs(unit, size);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Removes the candidates of two cells with the same two candidates from the rest of a unit
+     * @param first the index of the first cell of the row or column
+     * @param step the distance between two neighbouring cells of the unit
+     * @return true if a candidate was removed, false otherwise
+     */
+    private boolean applyNakedPairs(int first, int step) {
+
+        boolean changed = false;
+
+        for(int index = 0, cell = first; index < size; index++, cell += step) {
+
+            int pair = state.getCandidates(cell);
+
+            if(state.getValue(cell) != 0 || Integer.bitCount(pair) != 2) {
+                continue;
+            }
+
+            for(int other = index + 1, otherCell = cell + step; other < size; other++, otherCell += step) {
+
+                if(state.getValue(otherCell) != 0 || state.getCandidates(otherCell) != pair) {
+                    continue;
+                }
+
+                // The two digits must go into these two cells, so no other cell of the unit can have them
+                for(int rest = 0, restCell = first; rest < size; rest++, restCell += step) {
+
+                    if(restCell != cell && restCell != otherCell && state.getValue(restCell) == 0) {
+                        changed |= state.restrictCandidates(restCell, ~pair);
+                    }
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Keeps only the candidates of each cage cell that appear in a combination of the cage that still fits
+     * the values and candidates of its cells. The tuples that still fit are found as a bitset, 64 at a time
+     * @return true if a candidate was removed, false otherwise
+     */
+    private boolean applyCagePruning() {
+
+        boolean changed = false;
+        Puzzle puzzle = state.getPuzzle();
+
+        for(int cage = 0; cage < puzzle.getCageCount() && !contradiction; cage++) {
+
+            // Cages whose cells didn't change since they were last pruned can't lose any more candidates
+            if(state.getEmptyCageCells(cage) == 0 || !state.isCageChanged(cage)) {
+                continue;
+            }
+
+            long[][] supports = state.getCageSupports(cage);
+
+            // Cages too loose to list their tuples, common on large boards, are only pruned by their bounds
+            if(supports == null) {
+                changed |= applyCageBounds(cage);
+                continue;
+            }
+
+            int[] cells = puzzle.getCageCells(cage);
+            long[] fitting = new long[supports[0].length];
+
+            Arrays.fill(fitting, -1L);
+
+            // A tuple fits if it puts a value or candidate of its cell into every cell
+            for(int index = 0; index < cells.length; index++) {
+
+                int digits = getDigits(cells[index]);
+
+                for(int word = 0; word < fitting.length; word++) {
+
+                    // Words without a fitting tuple left stay empty
+                    if(fitting[word] == 0) {
+                        continue;
+                    }
+
+                    long allowed = 0;
+
+                    for(int rest = digits; rest != 0; rest &= rest - 1) {
+                        allowed |= supports[index * size + Integer.numberOfTrailingZeros(rest)][word];
+                    }
+
+                    fitting[word] &= allowed;
+                }
+            }
+
+            if(isEmpty(fitting)) {
+                contradiction = true;
+                break;
+            }
+
+            for(int index = 0; index < cells.length; index++) {
+
+                if(state.getValue(cells[index]) != 0) {
+                    continue;
+                }
+
+                int reachable = 0;
+
+                for(int rest = state.getCandidates(cells[index]); rest != 0; rest &= rest - 1) {
+
+                    int digit = Integer.numberOfTrailingZeros(rest);
+
+                    if(intersects(supports[index * size + digit], fitting)) {
+                        reachable |= 1 << digit;
+                    }
+                }
+
+                changed |= state.restrictCandidates(cells[index], reachable);
+            }
+
+            // Keeping only the reachable candidates leaves every fitting tuple in place, so the cage is done
+            state.clearCageChanged(cage);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Get the digits a cell can hold
+     * @param cell the index of the cell
+     * @return the mask of its value if it is filled, of its candidates otherwise
+     */
+    private int getDigits(int cell) {
+
+        int value = state.getValue(cell);
+
+        return value != 0 ? 1 << (value - 1) : state.getCandidates(cell);
+    }
+
+    /**
+     * Checks if a bitset has no bit set
+     * @param bits the bitset
+     * @return true if no bit is set, false otherwise
+     */
+    private static boolean isEmpty(long[] bits) {
+
+        for(long word : bits) {
+            if(word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if two bitsets of the same length have a bit set in both
+     * @param first the first bitset
+     * @param second the second bitset
+     * @return true if they share a bit, false otherwise
+     */
+    private static boolean intersects(long[] first, long[] second) {
+
+        for(int word = 0; word < first.length; word++) {
+            if((first[word] & second[word]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the candidates of the empty cells of a cage that can't reach its target whatever the other empty
+     * cells take. In a sum cage each cell must make up what the smallest and largest candidates of the others
+     * leave, and in a product cage each cell must divide what the placed values leave
+     * @param cage the index of the cage
+     * @return true if a candidate was removed, false otherwise
+     */
+    private boolean applyCageBounds(int cage) {
+
+        Puzzle puzzle = state.getPuzzle();
+        int[] cells = puzzle.getCageCells(cage);
+        char operation = puzzle.getCageOperation(cage);
+
+        // Removing candidates of the cage changes the bounds of the other cells, so the cage is checked again
+        state.clearCageChanged(cage);
+
+        if(operation != '+' && operation != 'x') {
+            return false;
+        }
+
+        long remaining = puzzle.getCageTarget(cage);
+        int smallestTotal = 0;
+        int largestTotal = 0;
+
+        for(int cell : cells) {
+
+            int value = state.getValue(cell);
+
+            if(operation == '+') {
+                remaining -= value;
+            } else if(value != 0) {
+                remaining /= value;
+            }
+
+            if(value == 0) {
+
+                int candidates = state.getCandidates(cell);
+
+                if(candidates == 0) {
+                    contradiction = true;
+                    return false;
+                }
+
+                smallestTotal += Integer.numberOfTrailingZeros(candidates) + 1;
+                largestTotal += 32 - Integer.numberOfLeadingZeros(candidates);
+            }
+        }
+
+        boolean changed = false;
+
+        for(int cell : cells) {
+
+            if(state.getValue(cell) != 0) {
+                continue;
+            }
+
+            int candidates = state.getCandidates(cell);
+            int allowed = 0;
+
+            if(operation == '+') {
+
+                int smallest = Integer.numberOfTrailingZeros(candidates) + 1;
+                int largest = 32 - Integer.numberOfLeadingZeros(candidates);
+
+                // The bounds this cell must stay within, given the bounds of the other empty cells
+                long low = remaining - (largestTotal - largest);
+                long high = remaining - (smallestTotal - smallest);
+
+                for(int value = (int) Math.max(low, 1); value <= Math.min(high, size); value++) {
+                    allowed |= 1 << (value - 1);
+                }
+            } else {
+                for(int value = 1; value <= size; value++) {
+                    if(remaining % value == 0) {
+                        allowed |= 1 << (value - 1);
+                    }
+                }
+            }
+
+            changed |= state.restrictCandidates(cell, allowed);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Places a deduced value into a cell
+     * @param cell the index of the cell
+     * @param value the value to be placed
+     */
+    private void place(int cell, int value) {
+
+        state.assign(cell, value);
+
+        if(!state.isCageConsistent(state.getPuzzle().getCellCage(cell))) {
+            contradiction = true;
+        }
+    }
+}
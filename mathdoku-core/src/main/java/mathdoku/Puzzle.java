@@ -0,0 +1,270 @@
+package mathdoku;
+
+import java.util.List;
+
+/**
+ * Parsed description of the cages of a Mathdoku puzzle. Labels are parsed once into a target and an
+ * operation so the solving engines never have to work with the label strings
+ */
+public class Puzzle {
+
+    // The largest number of rows / columns a board can have, as the solvers keep the digits of a cell as bits of an int
+    public static final int MAXIMUM_SIZE = 31;
+
+    // The number of rows / columns in the board
+    private final int size;
+
+    // The index of the cage each cell belongs to. Cells are numbered row by row, starting from 0
+    private final int[] cellCage;
+
+    // The cells that make up each cage
+    private final int[][] cageCells;
+
+    /*
+    The operation of each cage. Can have values :
+    + means sum
+    - means subtraction
+    x means multiplication
+    ÷ means division
+    N means no operator
+     */
+    private final char[] cageOperation;
+
+    // The value each cage has to reach
+    private final int[] cageTarget;
+
+    /**
+     * @param size the number of rows / columns in the board
+     * @param cageCells the cells that make up each cage
+     * @param cageOperation the operation of each cage
+     * @param cageTarget the value each cage has to reach
+     */
+    public Puzzle(int size, int[][] cageCells, char[] cageOperation, int[] cageTarget) {
+
+        this.size = size;
+        this.cageCells = cageCells;
+        this.cageOperation = cageOperation;
+        this.cageTarget = cageTarget;
+
+        cellCage = new int[size * size];
+
+        for(int cage = 0; cage < cageCells.length; cage++) {
+            for(int cell : cageCells[cage]) {
+                cellCage[cell] = cage;
+            }
+        }
+    }
+
+    /**
+     * Parses the cages of the current game board
+     * @param gameLogic the logical representation of the current board
+     * @return the parsed puzzle
+     */
+    public static Puzzle fromLogic(Logic gameLogic) {
+
+        int size = gameLogic.getBoard().getSize();
+        List<List<Logic.CellPos>> clusterCells = gameLogic.getClusterCells();
+
+        int[][] cageCells = new int[clusterCells.size()][];
+        char[] cageOperation = new char[clusterCells.size()];
+        int[] cageTarget = new int[clusterCells.size()];
+
+        for(int cage = 0; cage < clusterCells.size(); cage++) {
+
+            List<Logic.CellPos> cells = clusterCells.get(cage);
+            cageCells[cage] = new int[cells.size()];
+
+            // Cages without a label can never be satisfied
+            cageOperation[cage] = 'N';
+            cageTarget[cage] = -1;
+
+            for(int index = 0; index < cells.size(); index++) {
+
+                Logic.CellPos cell = cells.get(index);
+                cageCells[cage][index] = cell.getRow() * size + cell.getColumn();
+
+                Logic.Board board = gameLogic.getBoard();
+
+                // Labels are parsed by the board when they are set
+                if(board.hasLabel(cell.getRow(), cell.getColumn())) {
+                    cageOperation[cage] = board.getLabelOperation(cell.getRow(), cell.getColumn());
+                    cageTarget[cage] = board.getLabelTarget(cell.getRow(), cell.getColumn());
+                }
+            }
+        }
+
+        return new Puzzle(size, cageCells, cageOperation, cageTarget);
+    }
+
+    /**
+     * Encodes the puzzle in its compact binary form
+     * @return the encoded puzzle
+     */
+    public byte[] toBytes() {
+        return PuzzleEncoding.encode(this);
+    }
+
+    /**
+     * Encodes the puzzle and its solution in their compact binary form
+     * @param solution the solution of the puzzle row by row
+     * @return the encoded puzzle
+     */
+    public byte[] toBytes(int[][] solution) {
+        return PuzzleEncoding.encode(this, solution);
+    }
+
+    /**
+     * Decodes a puzzle stored by toBytes
+     * @param bytes the encoded puzzle
+     * @return the puzzle
+     */
+    public static Puzzle fromBytes(byte[] bytes) {
+        return PuzzleEncoding.decode(bytes);
+    }
+
+    /**
+     * Extracts the operation from a cage label
+     * @param label the label of a cage
+     * @return the operation of the label, N if the label does not define one
+     */
+    public static char parseOperation(String label) {
+
+        char operation = label.charAt(label.length() - 1);
+
+        return Character.isDigit(operation) ? 'N' : operation;
+    }
+
+    /**
+     * Extracts the target from a cage label
+     * @param label the label of a cage
+     * @return the value the cage has to reach
+     */
+    public static int parseTarget(String label) {
+
+        // If the last character of the label doesn't define an operation, the whole label is the target
+        if(Character.isDigit(label.charAt(label.length() - 1))) {
+            return Integer.parseInt(label);
+        }
+
+        return Integer.parseInt(label.substring(0, label.length() - 1));
+    }
+
+    /**
+     * Checks if the values of a full cage reach the target using the operation, following the same rules as
+     * the game logic
+     * @param operation the operation of the cage
+     * @param target the value the cage has to reach
+     * @param values the values of the cage cells
+     * @param count the number of values to be used
+     * @return true if the target is reached, false otherwise
+     */
+    public static boolean isCageCorrect(char operation, int target, int[] values, int count) {
+
+        long sum = 0;
+        long product = 1;
+        int largest = 0;
+
+        for(int index = 0; index < count; index++) {
+            sum += values[index];
+            product *= values[index];
+            largest = Math.max(largest, values[index]);
+        }
+
+        switch(operation) {
+
+            case 'N':
+                return count == 1 && values[0] == target;
+
+            case '+':
+                return sum == target;
+
+            case '-':
+
+                // Subtract one of the values from the sum of the others
+                for(int index = 0; index < count; index++) {
+
+                    if(Math.abs(sum - 2L * values[index]) == Math.abs(target)) {
+                        return true;
+                    }
+                }
+
+                return false;
+
+            case 'x':
+                return product == target;
+
+            case '÷':
+
+                // The largest value must be reachable by multiplying the target by all the other values
+                return target != 0 && (long) target * (product / largest) == largest;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the size of the board (number of rows / columns)
+     * @return the size of the board
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of cages in the puzzle
+     * @return the number of cages
+     */
+    public int getCageCount() {
+        return cageCells.length;
+    }
+
+    /**
+     * Get the cage a cell belongs to
+     * @param cell the index of the cell
+     * @return the index of the cage
+     */
+    public int getCellCage(int cell) {
+        return cellCage[cell];
+    }
+
+    /**
+     * Get the cells of a cage
+     * @param cage the index of the cage
+     * @return the indexes of the cells making up the cage
+     */
+    public int[] getCageCells(int cage) {
+        return cageCells[cage];
+    }
+
+    /**
+     * Get the operation of a cage
+     * @param cage the index of the cage
+     * @return the operation of the cage
+     */
+    public char getCageOperation(int cage) {
+        return cageOperation[cage];
+    }
+
+    /**
+     * Get the label of a cage, as written on the board
+     * @param cage the index of the cage
+     * @return the target followed by the operation, empty if the cage has no label
+     */
+    public String getCageLabel(int cage) {
+
+        if(cageOperation[cage] == 'N' && cageTarget[cage] == -1) {
+            return "";
+        }
+
+        return cageOperation[cage] == 'N' ? "" + cageTarget[cage] : "" + cageTarget[cage] + cageOperation[cage];
+    }
+
+    /**
+     * Get the target of a cage
+     * @param cage the index of the cage
+     * @return the value the cage has to reach
+     */
+    public int getCageTarget(int cage) {
+        return cageTarget[cage];
+    }
+}
@@ -0,0 +1,318 @@
+package mathdoku;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A file packing many puzzles, read through a memory mapping so any puzzle can be opened without reading the
+ * others. The file starts with a header, followed by the text of every puzzle in the cage line format, and ends
+ * with an index holding the offset of every puzzle:
+ *
+ * header: magic (int), version (int), puzzle count (int), encoding (int), index offset (long), reserved (long)
+ * index: the offset of every puzzle, followed by the offset of the end of the last puzzle (long each)
+ */
+public class PuzzleCorpus {
+
+    // The first 4 bytes of every corpus file, "MDKC"
+    private static final int MAGIC = 0x4D444B43;
+
+    private static final int VERSION = 1;
+
+    // The puzzles are stored as UTF-8 text in the cage line format
+    private static final int TEXT_ENCODING = 0;
+
+    // The number of bytes before the first puzzle
+    private static final int HEADER_SIZE = 32;
+
+    // The whole file, mapped into memory
+    private final MappedByteBuffer map;
+
+    // The number of puzzles in the corpus
+    private final int count;
+
+    // Where the index starts in the file
+    private final int indexOffset;
+
+    /**
+     * @param map the whole file, mapped into memory
+     * @param count the number of puzzles in the corpus
+     * @param indexOffset where the index starts in the file
+     */
+    private PuzzleCorpus(MappedByteBuffer map, int count, int indexOffset) {
+
+        this.map = map;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Opens a corpus file. The file is mapped into memory, so opening doesn't read the puzzles
+     * @param file the corpus file
+     * @return the corpus
+     * @throws IOException if the file can't be read or isn't a corpus
+     */
+    public static PuzzleCorpus open(Path file) throws IOException {
+
+        MappedByteBuffer map;
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // A single mapping can hold at most 2 GB
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The corpus is larger than 2 GB: " + file);
+            }
+
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(map.capacity() < HEADER_SIZE || map.getInt(0) != MAGIC) {
+            throw new IOException("Not a puzzle corpus: " + file);
+        }
+
+        if(map.getInt(4) != VERSION || map.getInt(12) != TEXT_ENCODING) {
+            throw new IOException("Unsupported puzzle corpus version: " + file);
+        }
+
+        int count = map.getInt(8);
+        long indexOffset = map.getLong(16);
+
+        if(count < 0 || indexOffset < HEADER_SIZE || indexOffset + (count + 1L) * Long.BYTES > map.capacity()) {
+            throw new IOException("The index of the puzzle corpus is damaged: " + file);
+        }
+
+        return new PuzzleCorpus(map, count, (int) indexOffset);
+    }
+
+    /**
+     * Get the number of puzzles in the corpus
+     * @return the number of puzzles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get the text of a puzzle without copying it out of the mapping
+     * @param index the index of the puzzle, counted from 0
+     * @return a read-only view of the UTF-8 text of the puzzle
+     * @throws IndexOutOfBoundsException if the corpus has no such puzzle
+     */
+    public ByteBuffer getText(int index) {
+
+        if(index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + index + " of a corpus of " + count);
+        }
+
+        int start = (int) map.getLong(indexOffset + index * Long.BYTES);
+        int end = (int) map.getLong(indexOffset + (index + 1) * Long.BYTES);
+
+        ByteBuffer text = map.asReadOnlyBuffer();
+        text.position(start).limit(end);
+
+        return text.slice();
+    }
+
+    /**
+     * Reads a puzzle of the corpus
+     * @param index the index of the puzzle, counted from 0
+     * @return the puzzle
+     * @throws PuzzleFormatException if the text of the puzzle isn't valid
+     * @throws IndexOutOfBoundsException if the corpus has no such puzzle
+     */
+    public Puzzle get(int index) throws PuzzleFormatException {
+
+        try {
+            return new PuzzleParser(getText(index)).next();
+        } catch (IOException e) {
+
+            // Mapped bytes can always be read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a corpus file one puzzle at a time. The offsets are kept in memory and written as the index when the
+     * writer is closed, followed by the header
+     */
+    public static class Writer implements Closeable {
+
+        // The corpus file
+        private final Path file;
+
+        private final DataOutputStream output;
+
+        // The offset of every puzzle written so far, and of the end of the last one
+        private long[] offsets = new long[1024];
+        private int count;
+
+        /**
+         * Creates the corpus file, replacing it if it exists
+         * @param file the corpus file
+         * @throws IOException if the file can't be created
+         */
+        public Writer(Path file) throws IOException {
+
+            this.file = file;
+
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+
+            // Room for the header, written once the index is known
+            output.write(new byte[HEADER_SIZE]);
+            offsets[0] = HEADER_SIZE;
+        }
+
+        /**
+         * Adds a puzzle to the corpus
+         * @param puzzle the puzzle to be added
+         * @throws IOException if the puzzle can't be written
+         */
+        public void add(Puzzle puzzle) throws IOException {
+
+            byte[] text = String.join("\n", PuzzleLoader.toCageLines(puzzle)).getBytes(StandardCharsets.UTF_8);
+
+            output.write(text);
+
+            if(count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+
+            count++;
+            offsets[count] = offsets[count - 1] + text.length;
+        }
+
+        /**
+         * Get the number of puzzles added so far
+         * @return the number of puzzles
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Writes the index and the header, and closes the file
+         * @throws IOException if the file can't be written
+         */
+        @Override
+        public void close() throws IOException {
+
+            long indexOffset = offsets[count];
+
+            for(int index = 0; index <= count; index++) {
+                output.writeLong(offsets[index]);
+            }
+
+            output.close();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(count)
+                    .putInt(TEXT_ENCODING)
+                    .putLong(indexOffset)
+                    .putLong(0);
+
+            header.flip();
+
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+            }
+        }
+    }
+
+    /**
+     * Converts puzzle files into a corpus, or prints a puzzle of a corpus
+     * @param args convert, a directory or file of puzzles and the corpus file, or show, the corpus file and the
+     *             index of a puzzle
+     * @throws Exception if a file can't be read or written
+     */
+    public static void main(String[] args) throws Exception {
+
+        if(args.length == 3 && args[0].equals("convert")) {
+            convert(Paths.get(args[1]), Paths.get(args[2]));
+        } else if(args.length == 3 && args[0].equals("show")) {
+
+            PuzzleCorpus corpus = open(Paths.get(args[1]));
+
+            for(String line : PuzzleLoader.toCageLines(corpus.get(Integer.parseInt(args[2])))) {
+                System.out.println(line);
+            }
+        } else {
+            System.err.println("usage: PuzzleCorpus convert <directory or file> <corpus>");
+            System.err.println("       PuzzleCorpus show <corpus> <index>");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Packs every puzzle of the .txt files in a directory and its subdirectories into a corpus, in the order of
+     * their paths. A file can hold one puzzle, or many separated by empty lines like the pools written by
+     * BatchGenerator. Invalid puzzles are reported and left out
+     * @param source a directory of .txt files, or a single file
+     * @param corpus the corpus file to be written
+     * @throws IOException if a file can't be read or written
+     */
+    private static void convert(Path source, Path corpus) throws IOException {
+
+        List<Path> files;
+
+        try(Stream<Path> paths = Files.walk(source)) {
+            files = paths.filter(path -> Files.isRegularFile(path) &&
+                    (path.equals(source) || path.toString().endsWith(".txt")))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        int invalid = 0;
+
+        try(Writer writer = new Writer(corpus)) {
+
+            for(Path file : files) {
+
+                try(Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+                    PuzzleParser parser = new PuzzleParser(reader);
+
+                    while(true) {
+
+                        try {
+
+                            Puzzle puzzle = parser.next();
+
+                            if(puzzle == null) {
+                                break;
+                            }
+
+                            writer.add(puzzle);
+                        } catch (PuzzleFormatException e) {
+
+                            System.err.println(file + ": " + e.getMessage());
+                            invalid++;
+                            parser.skipPuzzle();
+                        }
+                    }
+                } catch (PuzzleFormatException e) {
+                    System.err.println(file + ": " + e.getMessage());
+                    invalid++;
+                }
+            }
+
+            System.err.println("packed " + writer.size() + " puzzles from " + files.size() + " files, " + invalid +
+                    " invalid puzzles left out");
+        }
+    }
+}
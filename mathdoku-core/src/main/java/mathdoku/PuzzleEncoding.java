@@ -0,0 +1,399 @@
+package mathdoku;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of a puzzle, for caches and for sending puzzles over the network. Everything is packed
+ * into one stream of bits, most significant bit first:
+ *
+ * size - 1 (6 bits), has solution (1 bit), cage count - 1 (as many bits as size * size - 1 needs)
+ * the cage of every cell, row by row, with cages numbered in the order they are first met:
+ *     0 if it is the cage of the cell to the left, 10 if it is the cage of the cell above,
+ *     110 if it is a new cage, 111 followed by the number of the cage otherwise
+ * the operation (3 bits) and the target of every cage, the target as the Elias gamma code of target + 2
+ * if there is a solution, the value - 1 of every cell (4 bits)
+ *
+ * As cages are connected, most cells take one or two bits. Decoded cages list their cells in increasing order,
+ * so their label is on their top left cell
+ */
+public class PuzzleEncoding {
+
+    // The operations, in the order of their codes
+    private static final char[] OPERATIONS = {'N', '+', '-', 'x', '÷'};
+
+    // The largest board whose values fit in 4 bits
+    private static final int MAXIMUM_SOLUTION_SIZE = 16;
+
+    /**
+     * Encodes a puzzle without its solution
+     * @param puzzle the puzzle to be encoded
+     * @return the encoded puzzle
+     */
+    public static byte[] encode(Puzzle puzzle) {
+        return encode(puzzle, null);
+    }
+
+    /**
+     * Encodes a puzzle and its solution
+     * @param puzzle the puzzle to be encoded
+     * @param solution the solution of the puzzle row by row, null to leave it out
+     * @return the encoded puzzle
+     * @throws IllegalArgumentException if the puzzle is too large, or the solution doesn't fit in 4 bits a cell
+     */
+    public static byte[] encode(Puzzle puzzle, int[][] solution) {
+
+        int size = puzzle.getSize();
+        int cageCount = puzzle.getCageCount();
+
+        if(size < 1 || size > Puzzle.MAXIMUM_SIZE) {
+            throw new IllegalArgumentException("Only boards of 1 to " + Puzzle.MAXIMUM_SIZE + " rows can be encoded");
+        }
+
+        if(solution != null && size > MAXIMUM_SOLUTION_SIZE) {
+            throw new IllegalArgumentException("Only solutions of boards of up to " + MAXIMUM_SOLUTION_SIZE +
+                    " rows can be encoded");
+        }
+
+        BitWriter writer = new BitWriter();
+
+        writer.write(size - 1, 6);
+        writer.write(solution != null ? 1 : 0, 1);
+        writer.write(cageCount - 1, bitsFor(size * size - 1));
+
+        // Cages are renumbered in the order they are first met, so equal puzzles have equal encodings
+        int[] order = new int[cageCount];
+        int[] renumbered = new int[cageCount];
+        int nextCage = 0;
+
+        Arrays.fill(renumbered, -1);
+
+        int cageBits = bitsFor(cageCount - 1);
+
+        for(int cell = 0; cell < size * size; cell++) {
+
+            int cage = puzzle.getCellCage(cell);
+
+            if(cell % size > 0 && puzzle.getCellCage(cell - 1) == cage) {
+                writer.write(0, 1);
+            } else if(cell >= size && puzzle.getCellCage(cell - size) == cage) {
+                writer.write(2, 2);
+            } else if(renumbered[cage] == -1) {
+
+                writer.write(6, 3);
+
+                renumbered[cage] = nextCage;
+                order[nextCage++] = cage;
+            } else {
+                writer.write(7, 3);
+                writer.write(renumbered[cage], cageBits);
+            }
+        }
+
+        for(int cage : order) {
+            writer.write(operationCode(puzzle.getCageOperation(cage)), 3);
+            writer.writeGamma(puzzle.getCageTarget(cage) + 2L);
+        }
+
+        if(solution != null) {
+            for(int row = 0; row < size; row++) {
+                for(int column = 0; column < size; column++) {
+
+                    if(solution[row][column] < 1 || solution[row][column] > size) {
+                        throw new IllegalArgumentException("The solution has a value outside the board");
+                    }
+
+                    writer.write(solution[row][column] - 1, 4);
+                }
+            }
+        }
+
+        return writer.toBytes();
+    }
+
+    /**
+     * Decodes a puzzle
+     * @param bytes the encoded puzzle
+     * @return the puzzle
+     * @throws IllegalArgumentException if the bytes aren't a valid encoded puzzle
+     */
+    public static Puzzle decode(byte[] bytes) {
+        return readPuzzle(new BitReader(bytes));
+    }
+
+    /**
+     * Decodes the solution stored with a puzzle
+     * @param bytes the encoded puzzle
+     * @return the solution row by row, null if it wasn't stored
+     * @throws IllegalArgumentException if the bytes aren't a valid encoded puzzle
+     */
+    public static int[][] decodeSolution(byte[] bytes) {
+
+        BitReader reader = new BitReader(bytes);
+        Puzzle puzzle = readPuzzle(reader);
+
+        if(!reader.hasSolution) {
+            return null;
+        }
+
+        int size = puzzle.getSize();
+        int[][] solution = new int[size][size];
+
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+
+                solution[row][column] = (int) reader.read(4) + 1;
+
+                if(solution[row][column] > size) {
+                    throw new IllegalArgumentException("The solution has a value outside the board");
+                }
+            }
+        }
+
+        return solution;
+    }
+
+    /**
+     * Reads the puzzle part of the encoding
+     * @param reader the bits of the encoding
+     * @return the puzzle
+     * @throws IllegalArgumentException if the bits aren't a valid encoded puzzle
+     */
+    private static Puzzle readPuzzle(BitReader reader) {
+
+        int size = (int) reader.read(6) + 1;
+        reader.hasSolution = reader.read(1) == 1;
+
+        if(size > Puzzle.MAXIMUM_SIZE) {
+            throw new IllegalArgumentException("The encoded board has more than " + Puzzle.MAXIMUM_SIZE + " rows");
+        }
+        int cageCount = (int) reader.read(bitsFor(size * size - 1)) + 1;
+
+        if(cageCount > size * size) {
+            throw new IllegalArgumentException("The puzzle has more cages than cells");
+        }
+
+        int cageBits = bitsFor(cageCount - 1);
+        int[] cellCage = new int[size * size];
+        int[] cageSizes = new int[cageCount];
+        int nextCage = 0;
+
+        for(int cell = 0; cell < size * size; cell++) {
+
+            if(reader.read(1) == 0) {
+                cellCage[cell] = neighbourCage(cellCage, cell, cell % size > 0 ? cell - 1 : -1);
+            } else if(reader.read(1) == 0) {
+                cellCage[cell] = neighbourCage(cellCage, cell, cell >= size ? cell - size : -1);
+            } else if(reader.read(1) == 0) {
+
+                if(nextCage == cageCount) {
+                    throw new IllegalArgumentException("The puzzle has more cages than it declares");
+                }
+
+                cellCage[cell] = nextCage++;
+            } else {
+
+                cellCage[cell] = (int) reader.read(cageBits);
+
+                // New cages are always marked as new
+                if(cellCage[cell] >= nextCage) {
+                    throw new IllegalArgumentException("A cell is in a cage that doesn't exist");
+                }
+            }
+
+            cageSizes[cellCage[cell]]++;
+        }
+
+        int[][] cageCells = new int[cageCount][];
+
+        for(int cage = 0; cage < cageCount; cage++) {
+
+            if(cageSizes[cage] == 0) {
+                throw new IllegalArgumentException("A cage has no cells");
+            }
+
+            cageCells[cage] = new int[cageSizes[cage]];
+            cageSizes[cage] = 0;
+        }
+
+        for(int cell = 0; cell < size * size; cell++) {
+            cageCells[cellCage[cell]][cageSizes[cellCage[cell]]++] = cell;
+        }
+
+        char[] cageOperation = new char[cageCount];
+        int[] cageTarget = new int[cageCount];
+
+        for(int cage = 0; cage < cageCount; cage++) {
+
+            int code = (int) reader.read(3);
+
+            if(code >= OPERATIONS.length) {
+                throw new IllegalArgumentException("A cage has an unknown operation");
+            }
+
+            cageOperation[cage] = OPERATIONS[code];
+            cageTarget[cage] = (int) (reader.readGamma() - 2);
+        }
+
+        return new Puzzle(size, cageCells, cageOperation, cageTarget);
+    }
+
+    /**
+     * Get the cage of a neighbour that was already decoded
+     * @param cellCage the cages of the cells decoded so far
+     * @param cell the cell being decoded
+     * @param neighbour the neighbour, -1 if the cell has none on that side
+     * @return the cage of the neighbour
+     * @throws IllegalArgumentException if the cell has no such neighbour
+     */
+    private static int neighbourCage(int[] cellCage, int cell, int neighbour) {
+
+        if(neighbour == -1) {
+            throw new IllegalArgumentException("Cell " + (cell + 1) + " refers to a neighbour outside the board");
+        }
+
+        return cellCage[neighbour];
+    }
+
+    /**
+     * Get the code of an operation
+     * @param operation the operation
+     * @return the code of the operation
+     * @throws IllegalArgumentException if the operation isn't known
+     */
+    private static int operationCode(char operation) {
+
+        for(int code = 0; code < OPERATIONS.length; code++) {
+            if(OPERATIONS[code] == operation) {
+                return code;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown operation '" + operation + "'");
+    }
+
+    /**
+     * Get the number of bits needed to store a number
+     * @param largest the largest number to be stored
+     * @return the number of bits, 0 if the number is 0
+     */
+    private static int bitsFor(int largest) {
+        return 32 - Integer.numberOfLeadingZeros(largest);
+    }
+
+    /**
+     * Packs numbers into a growing array of bytes
+     */
+    private static class BitWriter {
+
+        private byte[] bytes = new byte[64];
+
+        // The number of bits written so far
+        private int bitCount;
+
+        /**
+         * Writes the lowest bits of a number, most significant first
+         * @param value the number to be written
+         * @param bits the number of bits to be written
+         */
+        private void write(long value, int bits) {
+
+            for(int bit = bits - 1; bit >= 0; bit--) {
+
+                if(bitCount == bytes.length * 8) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+
+                if((value >>> bit & 1) != 0) {
+                    bytes[bitCount >> 3] |= 0x80 >>> (bitCount & 7);
+                }
+
+                bitCount++;
+            }
+        }
+
+        /**
+         * Writes a positive number as its Elias gamma code: one zero for every bit after the first, then the
+         * number. Small numbers take few bits
+         * @param value the number to be written, at least 1
+         */
+        private void writeGamma(long value) {
+
+            int bits = 64 - Long.numberOfLeadingZeros(value);
+
+            write(0, bits - 1);
+            write(value, bits);
+        }
+
+        /**
+         * Get the bytes written so far
+         * @return the bytes, the last one padded with zeros
+         */
+        private byte[] toBytes() {
+            return Arrays.copyOf(bytes, (bitCount + 7) / 8);
+        }
+    }
+
+    /**
+     * Reads numbers packed by a BitWriter
+     */
+    private static class BitReader {
+
+        private final byte[] bytes;
+
+        // The number of bits read so far
+        private int bitCount;
+
+        // If the encoding holds a solution
+        private boolean hasSolution;
+
+        /**
+         * @param bytes the packed numbers
+         */
+        private BitReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Reads a number
+         * @param bits the number of bits of the number
+         * @return the number
+         * @throws IllegalArgumentException if there are fewer bits left
+         */
+        private long read(int bits) {
+
+            long value = 0;
+
+            for(int bit = 0; bit < bits; bit++) {
+
+                if(bitCount == bytes.length * 8) {
+                    throw new IllegalArgumentException("The encoded puzzle is truncated");
+                }
+
+                value = value << 1 | (bytes[bitCount >> 3] >>> (7 - (bitCount & 7)) & 1);
+                bitCount++;
+            }
+
+            return value;
+        }
+
+        /**
+         * Reads a number written as its Elias gamma code
+         * @return the number
+         * @throws IllegalArgumentException if the code is invalid or there are too few bits left
+         */
+        private long readGamma() {
+
+            int zeros = 0;
+
+            while(read(1) == 0) {
+
+                // Targets always fit in an int
+                if(++zeros > 32) {
+                    throw new IllegalArgumentException("A target of the encoded puzzle is too large");
+                }
+            }
+
+            return 1L << zeros | read(zeros);
+        }
+    }
+}
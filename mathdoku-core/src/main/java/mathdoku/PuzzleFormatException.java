@@ -0,0 +1,43 @@
+package mathdoku;
+
+/**
+ * Thrown when the text description of a puzzle breaks the rules of file configuration. Knows where in the text
+ * the problem was found
+ */
+public class PuzzleFormatException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    // Where the problem was found, both counted from 1
+    private final int line;
+    private final int column;
+
+    /**
+     * @param message what is wrong with the description
+     * @param line the line where the problem was found, counted from 1
+     * @param column the column where the problem was found, counted from 1
+     */
+    public PuzzleFormatException(String message, int line, int column) {
+
+        super("Incorrect file configuration at line " + line + ", column " + column + ": " + message);
+
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Get the line where the problem was found
+     * @return the line, counted from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Get the column where the problem was found
+     * @return the column, counted from 1
+     */
+    public int getColumn() {
+        return column;
+    }
+}
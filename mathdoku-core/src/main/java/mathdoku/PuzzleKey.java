@@ -0,0 +1,215 @@
+package mathdoku;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Identifies a generated puzzle by the settings it was generated with, so it can be stored in 16 bytes and
+ * generated again instead of storing all of its cages. Every generator setting that changes the puzzle of a seed
+ * is part of the key, so a key always gives the same puzzle, whatever generator it is generated with
+ */
+public class PuzzleKey {
+
+    // The number of bytes a key is stored in
+    public static final int BYTES = 16;
+
+    // The number of rows / columns of the puzzle
+    private final int size;
+
+    // The seed the puzzle was generated from
+    private final long seed;
+
+    // If the puzzle was generated to have exactly one solution
+    private final boolean uniqueSolution;
+
+    // The largest number of cells of a cage, and the mixing of the latin square chain, the puzzle was generated with
+    private final int maximumCageSize;
+    private final int latinSquareMixing;
+
+    /*
+     The flags word holds the unique flag in bit 0, the latin square mixing in bits 8 - 15 and the largest cage
+     size in bits 16 - 23. Keys stored before the last two were added have 0 there, which stands for the settings
+     puzzles were generated with back then: the cyclic latin square and the default largest cage size
+      */
+    private static final int MIXING_SHIFT = 8;
+    private static final int CAGE_SIZE_SHIFT = 16;
+    private static final int SETTING_MASK = 0xFF;
+
+    /**
+     * Creates a key for a puzzle of the generator as it was before the latin square chain was added, with the
+     * cyclic latin square and the default largest cage size
+     * @param size the number of rows / columns of the puzzle
+     * @param seed the seed the puzzle was generated from
+     * @param uniqueSolution true if the puzzle was generated to have exactly one solution
+     */
+    public PuzzleKey(int size, long seed, boolean uniqueSolution) {
+
+        this(size, seed, uniqueSolution, Generator.DEFAULT_MAXIMUM_CAGE_SIZE, 0);
+    }
+
+    /**
+     * @param size the number of rows / columns of the puzzle
+     * @param seed the seed the puzzle was generated from
+     * @param uniqueSolution true if the puzzle was generated to have exactly one solution
+     * @param maximumCageSize the largest number of cells of a cage, from 1 to 255
+     * @param latinSquareMixing the mixing of the latin square chain, from 0 to 255
+     * @throws IllegalArgumentException if a setting doesn't fit into the key
+     */
+    public PuzzleKey(int size, long seed, boolean uniqueSolution, int maximumCageSize, int latinSquareMixing) {
+
+        if(maximumCageSize < 1 || maximumCageSize > SETTING_MASK) {
+            throw new IllegalArgumentException("A key can only hold a largest cage size of 1 to " + SETTING_MASK);
+        }
+
+        if(latinSquareMixing < 0 || latinSquareMixing > SETTING_MASK) {
+            throw new IllegalArgumentException("A key can only hold a mixing of 0 to " + SETTING_MASK);
+        }
+
+        this.size = size;
+        this.seed = seed;
+        this.uniqueSolution = uniqueSolution;
+        this.maximumCageSize = maximumCageSize;
+        this.latinSquareMixing = latinSquareMixing;
+    }
+
+    /**
+     * Creates a key for a puzzle generated from a seed with the current settings of a generator
+     * @param generator the generator
+     * @param size the number of rows / columns of the puzzle
+     * @param seed the seed the puzzle is generated from
+     * @return the key
+     */
+    public static PuzzleKey of(Generator generator, int size, long seed) {
+
+        return new PuzzleKey(size, seed, generator.isUniqueSolution(), generator.getMaximumCageSize(),
+                generator.getLatinSquareMixing());
+    }
+
+    /**
+     * Generates the puzzle identified by the key into a board. The settings of the board's generator are only
+     * changed while the puzzle is generated
+     * @param gameLogic the logical representation of the board the puzzle is generated into
+     */
+    public void generate(Logic gameLogic) {
+
+        Generator generator = gameLogic.getGenerator();
+
+        boolean wasUnique = generator.isUniqueSolution();
+        int oldCageSize = generator.getMaximumCageSize();
+        int oldMixing = generator.getLatinSquareMixing();
+        long oldCountNodeLimit = generator.getCountNodeLimit();
+
+        apply(generator);
+
+        try {
+            generator.generateBoard(size, seed);
+        } finally {
+            generator.setUniqueSolution(wasUnique);
+            generator.setMaximumCageSize(oldCageSize);
+            generator.setLatinSquareMixing(oldMixing);
+            generator.setCountNodeLimit(oldCountNodeLimit);
+        }
+    }
+
+    /**
+     * Generates the puzzle identified by the key, without a board
+     * @return the definition of the puzzle
+     */
+    public Puzzle toPuzzle() {
+
+        Generator generator = new Generator();
+        apply(generator);
+
+        return generator.generatePuzzle(size, seed);
+    }
+
+    /**
+     * Sets the generator settings of the key on a generator
+     * @param generator the generator
+     */
+    private void apply(Generator generator) {
+
+        generator.setUniqueSolution(uniqueSolution);
+        generator.setMaximumCageSize(maximumCageSize);
+        generator.setLatinSquareMixing(latinSquareMixing);
+
+        // Where the repair of a unique puzzle gives up decides its cages, so keys always use the default
+        generator.setCountNodeLimit(Generator.DEFAULT_COUNT_NODE_LIMIT);
+    }
+
+    /**
+     * Stores the key as the seed, the size and a flags word
+     * @return the 16 bytes of the key
+     */
+    public byte[] toBytes() {
+
+        return ByteBuffer.allocate(BYTES)
+                .putLong(seed)
+                .putInt(size)
+                .putInt((uniqueSolution ? 1 : 0) | latinSquareMixing << MIXING_SHIFT |
+                        maximumCageSize << CAGE_SIZE_SHIFT)
+                .array();
+    }
+
+    /**
+     * Reads a key stored by toBytes
+     * @param bytes the 16 bytes of the key
+     * @return the key
+     */
+    public static PuzzleKey fromBytes(byte[] bytes) {
+
+        if(bytes.length != BYTES) {
+            throw new IllegalArgumentException("A puzzle key must be " + BYTES + " bytes long");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        long seed = buffer.getLong();
+        int size = buffer.getInt();
+        int flags = buffer.getInt();
+        int maximumCageSize = flags >>> CAGE_SIZE_SHIFT & SETTING_MASK;
+
+        return new PuzzleKey(size, seed, (flags & 1) != 0,
+                maximumCageSize == 0 ? Generator.DEFAULT_MAXIMUM_CAGE_SIZE : maximumCageSize,
+                flags >>> MIXING_SHIFT & SETTING_MASK);
+    }
+
+    /**
+     * Get the number of rows / columns of the puzzle
+     * @return the size of the puzzle
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the seed the puzzle was generated from
+     * @return the seed of the puzzle
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get if the puzzle was generated to have exactly one solution
+     * @return true if the solution is unique, false otherwise
+     */
+    public boolean isUniqueSolution() {
+        return uniqueSolution;
+    }
+
+    /**
+     * Get the largest number of cells of a cage the puzzle was generated with
+     * @return the largest cage size
+     */
+    public int getMaximumCageSize() {
+        return maximumCageSize;
+    }
+
+    /**
+     * Get the mixing of the latin square chain the puzzle was generated with
+     * @return the mixing, 0 for the cyclic latin square
+     */
+    public int getLatinSquareMixing() {
+        return latinSquareMixing;
+    }
+}
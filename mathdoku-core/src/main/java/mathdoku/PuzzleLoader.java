@@ -0,0 +1,97 @@
+package mathdoku;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a game board from the text description of its cages, and writes the description of a board. Every line
+ * describes one cage, as its label followed by the ids of its cells, separated by commas
+ */
+public class PuzzleLoader {
+
+    // The logical representation of the board being built
+    private Logic gameLogic;
+
+    /**
+     * @param gameLogic the logical representation of the board to be built
+     */
+    public PuzzleLoader(Logic gameLogic) {
+        this.gameLogic = gameLogic;
+    }
+
+    /**
+     * Sets up the game board using the user's input
+     * @param inputLines the description of cages provided by the user
+     * @throws Exception if the description of the cages break the rules of file configuration
+     */
+    public void load(List<String> inputLines) throws Exception {
+        load(new StringReader(String.join("\n", inputLines)));
+    }
+
+    /**
+     * Sets up the game board from the text description of its cages. The board is only replaced once the whole
+     * description has been read and found valid
+     * @param reader the description of the cages
+     * @throws IOException if the description can't be read
+     * @throws PuzzleFormatException if the description of the cages break the rules of file configuration
+     */
+    public void load(Reader reader) throws IOException, PuzzleFormatException {
+        gameLogic.setPuzzle(PuzzleParser.parse(reader));
+    }
+
+    /**
+     * Describes the cages of a puzzle in the format read by load
+     * @param gameLogic the puzzle to be described
+     * @return a line for every cage: its label, followed by the ids of its cells
+     */
+    public static List<String> toCageLines(Logic gameLogic) {
+
+        int size = gameLogic.getBoard().getSize();
+        List<String> lines = new ArrayList<>();
+
+        for(List<Logic.CellPos> cage : gameLogic.getClusterCells()) {
+
+            StringBuilder line = new StringBuilder();
+            StringBuilder cells = new StringBuilder();
+
+            for(Logic.CellPos cell : cage) {
+
+                if(gameLogic.getBoard().hasLabel(cell.getRow(), cell.getColumn())) {
+                    line.append(gameLogic.getBoard().getLabel(cell.getRow(), cell.getColumn()));
+                }
+
+                cells.append(cells.length() == 0 ? "" : ",").append(cell.getRow() * size + cell.getColumn() + 1);
+            }
+
+            lines.add(line.append(' ').append(cells).toString());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Describes the cages of a puzzle definition in the format read by load
+     * @param puzzle the puzzle to be described
+     * @return a line for every cage: its label, followed by the ids of its cells
+     */
+    public static List<String> toCageLines(Puzzle puzzle) {
+
+        List<String> lines = new ArrayList<>();
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            StringBuilder line = new StringBuilder(puzzle.getCageLabel(cage)).append(' ');
+
+            for(int cell : puzzle.getCageCells(cage)) {
+                line.append(line.charAt(line.length() - 1) == ' ' ? "" : ",").append(cell + 1);
+            }
+
+            lines.add(line.toString());
+        }
+
+        return lines;
+    }
+}
@@ -0,0 +1,615 @@
+package mathdoku;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Reads puzzles from the text description of their cages. Every line describes one cage, as its label followed by
+ * the ids of its cells, separated by commas. Empty lines separate puzzles, so one text can hold many of them.
+ * The text is read a character at a time, straight into the cages of the puzzle, and problems are reported with
+ * the line and column where they were found
+ */
+public class PuzzleParser {
+
+    // Returned when the end of the text is reached
+    private static final int END = -1;
+
+    // Marks that the next character hasn't been read yet
+    private static final int UNREAD = -2;
+
+    // The number of characters read from a reader at once
+    private static final int BUFFER_SIZE = 8192;
+
+    // Where the text is read from, either a reader or UTF-8 bytes
+    private Reader reader;
+    private ByteBuffer bytes;
+
+    // Characters read from the reader that haven't been used yet
+    private char[] buffer;
+    private int bufferPosition;
+    private int bufferLimit;
+
+    // The next character of the text, END or UNREAD
+    private int next = UNREAD;
+
+    // The position of the next character, counted from 1
+    private int line = 1;
+    private int column = 1;
+
+    // True once a line of the current puzzle has been read, until the puzzle ends
+    private boolean inPuzzle;
+
+    // The cages of the puzzle being read. Cage i owns the cells from cageStart[i] up to cageStart[i + 1]
+    private int cageCount;
+    private int[] cageStart = new int[16];
+    private char[] cageOperation = new char[16];
+    private int[] cageTarget = new int[16];
+    private int[] cageLine = new int[16];
+
+    // The ids of the cells of every cage, in the order they were read, and where they were written
+    private int cellCount;
+    private int[] cells = new int[64];
+    private int[] cellLine = new int[64];
+    private int[] cellColumn = new int[64];
+
+    // Scratch space for checking the cages, reused between puzzles
+    private int[] cellCage = new int[0];
+    private int[] visited = new int[0];
+    private int[] stack = new int[0];
+
+    /**
+     * Creates a parser reading from a stream of characters
+     * @param reader the text to be read
+     */
+    public PuzzleParser(Reader reader) {
+
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Creates a parser reading from UTF-8 encoded bytes, such as a mapped file. The bytes are decoded as they
+     * are read
+     * @param bytes the text to be read, from its position up to its limit
+     */
+    public PuzzleParser(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Reads a text that describes exactly one puzzle
+     * @param reader the text to be read
+     * @return the puzzle
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the text doesn't describe exactly one valid puzzle
+     */
+    public static Puzzle parse(Reader reader) throws IOException, PuzzleFormatException {
+
+        PuzzleParser parser = new PuzzleParser(reader);
+        Puzzle puzzle = parser.next();
+
+        if(puzzle == null) {
+            throw new PuzzleFormatException("the file is empty", 1, 1);
+        }
+
+        if(parser.next() != null) {
+            throw new PuzzleFormatException("the file describes more than one puzzle", parser.cageLine[0], 1);
+        }
+
+        return puzzle;
+    }
+
+    /**
+     * Reads a text that describes exactly one puzzle
+     * @param text the text to be read
+     * @return the puzzle
+     * @throws PuzzleFormatException if the text doesn't describe exactly one valid puzzle
+     */
+    public static Puzzle parse(String text) throws PuzzleFormatException {
+
+        try {
+            return parse(new StringReader(text));
+        } catch (IOException e) {
+
+            // Strings can always be read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the next puzzle of the text
+     * @return the puzzle, null if the end of the text was reached
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the puzzle isn't valid
+     */
+    public Puzzle next() throws IOException, PuzzleFormatException {
+
+        cageCount = 0;
+        cellCount = 0;
+
+        while(true) {
+
+            skipBlanks();
+
+            if(peek() == END) {
+                break;
+            }
+
+            // An empty line ends the puzzle, unless it comes before the first cage
+            if(peek() == '\n') {
+
+                advance();
+
+                if(cageCount > 0) {
+                    break;
+                }
+
+                continue;
+            }
+
+            inPuzzle = true;
+            readCage();
+        }
+
+        inPuzzle = false;
+
+        return cageCount == 0 ? null : buildPuzzle();
+    }
+
+    /**
+     * Skips the rest of the puzzle being read, so that reading can go on after an invalid puzzle
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the text isn't valid UTF-8
+     */
+    public void skipPuzzle() throws IOException, PuzzleFormatException {
+
+        while(inPuzzle) {
+
+            // Skip the rest of the line
+            while(peek() != '\n' && peek() != END) {
+                advance();
+            }
+
+            if(peek() == END) {
+                break;
+            }
+
+            advance();
+            skipBlanks();
+
+            if(peek() == '\n' || peek() == END) {
+                break;
+            }
+        }
+
+        inPuzzle = false;
+    }
+
+    /**
+     * Reads one line describing a cage
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the line isn't a valid cage
+     */
+    private void readCage() throws IOException, PuzzleFormatException {
+
+        if(cageCount + 1 >= cageStart.length) {
+
+            int length = cageStart.length * 2;
+
+            cageStart = Arrays.copyOf(cageStart, length);
+            cageOperation = Arrays.copyOf(cageOperation, length);
+            cageTarget = Arrays.copyOf(cageTarget, length);
+            cageLine = Arrays.copyOf(cageLine, length);
+        }
+
+        cageStart[cageCount] = cellCount;
+        cageLine[cageCount] = line;
+
+        if(!isDigit(peek())) {
+            throw error("a cage must start with its target");
+        }
+
+        cageTarget[cageCount] = readNumber();
+
+        int operation = peek();
+
+        if(operation == '+' || operation == '-' || operation == 'x' || operation == '÷') {
+            cageOperation[cageCount] = (char) operation;
+            advance();
+        } else if(isBlank(operation)) {
+            cageOperation[cageCount] = 'N';
+        } else if(operation == '\n' || operation == END) {
+            throw error("the label must be followed by the cells of the cage");
+        } else {
+            throw error("unknown operation '" + (char) operation + "'");
+        }
+
+        if(!isBlank(peek())) {
+            throw error("the label must be followed by a space");
+        }
+
+        skipBlanks();
+
+        while(true) {
+
+            if(!isDigit(peek())) {
+                throw error("cell number must be an integer");
+            }
+
+            if(cellCount == cells.length) {
+                cells = Arrays.copyOf(cells, cellCount * 2);
+                cellLine = Arrays.copyOf(cellLine, cellCount * 2);
+                cellColumn = Arrays.copyOf(cellColumn, cellCount * 2);
+            }
+
+            cellLine[cellCount] = line;
+            cellColumn[cellCount] = column;
+
+            int cell = readNumber();
+
+            if(cell == 0) {
+                throw new PuzzleFormatException("cell numbers start from 1", line, cellColumn[cellCount]);
+            }
+
+            if(cell > Puzzle.MAXIMUM_SIZE * Puzzle.MAXIMUM_SIZE) {
+                throw new PuzzleFormatException("the board can have at most " + Puzzle.MAXIMUM_SIZE + " rows",
+                        line, cellColumn[cellCount]);
+            }
+
+            cells[cellCount++] = cell;
+
+            skipBlanks();
+
+            if(peek() != ',') {
+                break;
+            }
+
+            advance();
+            skipBlanks();
+        }
+
+        if(peek() == '\n') {
+            advance();
+        } else if(peek() != END) {
+            throw error("unexpected character '" + (char) peek() + "'");
+        }
+
+        cageCount++;
+        cageStart[cageCount] = cellCount;
+    }
+
+    /**
+     * Builds the puzzle from the cages that were read, checking that they make up a valid board
+     * @return the puzzle
+     * @throws PuzzleFormatException if the cages don't make up a valid board
+     */
+    private Puzzle buildPuzzle() throws PuzzleFormatException {
+
+        int largest = 0;
+
+        for(int index = 1; index < cellCount; index++) {
+            if(cells[index] > cells[largest]) {
+                largest = index;
+            }
+        }
+
+        // The largest cell is the last cell of the board
+        int cellTotal = cells[largest];
+        int size = (int) Math.round(Math.sqrt(cellTotal));
+
+        if(size * size != cellTotal) {
+            throw new PuzzleFormatException("the board must be a square, but the largest cell is " + cellTotal,
+                    cellLine[largest], cellColumn[largest]);
+        }
+
+        if(cellCage.length < cellTotal) {
+            cellCage = new int[cellTotal];
+            visited = new int[cellTotal];
+            stack = new int[cellTotal];
+        }
+
+        Arrays.fill(cellCage, 0, cellTotal, -1);
+        Arrays.fill(visited, 0, cellTotal, -1);
+
+        for(int cage = 0; cage < cageCount; cage++) {
+            for(int index = cageStart[cage]; index < cageStart[cage + 1]; index++) {
+
+                int cell = cells[index] - 1;
+
+                if(cellCage[cell] != -1) {
+                    throw new PuzzleFormatException("cell " + cells[index] + " is already in the cage on line " +
+                            cageLine[cellCage[cell]], cellLine[index], cellColumn[index]);
+                }
+
+                cellCage[cell] = cage;
+            }
+        }
+
+        for(int cage = 0; cage < cageCount; cage++) {
+            if(!isConnected(cage, size)) {
+                throw new PuzzleFormatException("the cells of the cage are not connected", cageLine[cage], 1);
+            }
+        }
+
+        for(int cell = 0; cell < cellTotal; cell++) {
+            if(cellCage[cell] == -1) {
+                throw new PuzzleFormatException("the board has too few cells, cell " + (cell + 1) +
+                        " is in no cage", line, column);
+            }
+        }
+
+        int[][] cageCells = new int[cageCount][];
+
+        for(int cage = 0; cage < cageCount; cage++) {
+
+            cageCells[cage] = new int[cageStart[cage + 1] - cageStart[cage]];
+
+            for(int index = 0; index < cageCells[cage].length; index++) {
+                cageCells[cage][index] = cells[cageStart[cage] + index] - 1;
+            }
+        }
+
+        return new Puzzle(size, cageCells, Arrays.copyOf(cageOperation, cageCount),
+                Arrays.copyOf(cageTarget, cageCount));
+    }
+
+    /**
+     * Checks if every cell of a cage can be reached from its first cell without leaving the cage
+     * @param cage the index of the cage
+     * @param size the number of rows / columns of the board
+     * @return true if the cage is connected, false otherwise
+     */
+    private boolean isConnected(int cage, int size) {
+
+        int first = cells[cageStart[cage]] - 1;
+        int top = 0;
+        int reached = 0;
+
+        stack[top++] = first;
+        visited[first] = cage;
+
+        while(top > 0) {
+
+            int cell = stack[--top];
+            int row = cell / size;
+            int column = cell % size;
+
+            reached++;
+
+            top = visit(cell - size, row > 0, cage, top);
+            top = visit(cell + size, row < size - 1, cage, top);
+            top = visit(cell - 1, column > 0, cage, top);
+            top = visit(cell + 1, column < size - 1, cage, top);
+        }
+
+        return reached == cageStart[cage + 1] - cageStart[cage];
+    }
+
+    /**
+     * Adds a neighbour of a cell to the cells still to be visited, if it is in the same cage and wasn't visited
+     * @param neighbour the index of the neighbour
+     * @param exists false if the cell is on the edge of the board and has no such neighbour
+     * @param cage the index of the cage being checked
+     * @param top the number of cells still to be visited
+     * @return the new number of cells still to be visited
+     */
+    private int visit(int neighbour, boolean exists, int cage, int top) {
+
+        if(exists && cellCage[neighbour] == cage && visited[neighbour] != cage) {
+            visited[neighbour] = cage;
+            stack[top++] = neighbour;
+        }
+
+        return top;
+    }
+
+    /**
+     * Reads a number made of decimal digits
+     * @return the number
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the number doesn't fit in an int
+     */
+    private int readNumber() throws IOException, PuzzleFormatException {
+
+        int startColumn = column;
+        int value = 0;
+
+        while(isDigit(peek())) {
+
+            int digit = peek() - '0';
+
+            if(value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new PuzzleFormatException("the number is too large", line, startColumn);
+            }
+
+            value = value * 10 + digit;
+            advance();
+        }
+
+        return value;
+    }
+
+    /**
+     * Skips spaces, tabs and carriage returns
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the text isn't valid UTF-8
+     */
+    private void skipBlanks() throws IOException, PuzzleFormatException {
+
+        while(isBlank(peek())) {
+            advance();
+        }
+    }
+
+    /**
+     * Checks if a character separates the parts of a line
+     * @param character the character to be checked
+     * @return true if it is a space, a tab or a carriage return, false otherwise
+     */
+    private boolean isBlank(int character) {
+        return character == ' ' || character == '\t' || character == '\r';
+    }
+
+    /**
+     * Checks if a character is a decimal digit
+     * @param character the character to be checked
+     * @return true if it is a digit, false otherwise
+     */
+    private boolean isDigit(int character) {
+        return character >= '0' && character <= '9';
+    }
+
+    /**
+     * Get the next character of the text without using it
+     * @return the next character, END if the end of the text was reached
+     * @throws IOException if the text can't be read
+     * @throws PuzzleFormatException if the text isn't valid UTF-8
+     */
+    private int peek() throws IOException, PuzzleFormatException {
+
+        if(next == UNREAD) {
+            next = bytes != null ? decode() : read();
+        }
+
+        return next;
+    }
+
+    /**
+     * Uses the next character of the text, moving the position past it
+     */
+    private void advance() {
+
+        if(next == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+
+        next = UNREAD;
+    }
+
+    /**
+     * Reads the next character from the reader
+     * @return the character, END if the end of the text was reached
+     * @throws IOException if the text can't be read
+     */
+    private int read() throws IOException {
+
+        if(bufferPosition == bufferLimit) {
+
+            bufferLimit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+            bufferPosition = 0;
+
+            if(bufferLimit == 0) {
+                return END;
+            }
+        }
+
+        return buffer[bufferPosition++];
+    }
+
+    /**
+     * Decodes the next character from the UTF-8 bytes. Characters outside the basic multilingual plane can't be
+     * part of a puzzle, so they are rejected
+     * @return the character, END if the end of the text was reached
+     * @throws PuzzleFormatException if the bytes aren't valid UTF-8
+     */
+    private int decode() throws PuzzleFormatException {
+
+        if(!bytes.hasRemaining()) {
+            return END;
+        }
+
+        int first = bytes.get() & 0xFF;
+
+        if(first < 0x80) {
+            return first;
+        }
+
+        int length = first >= 0xF0 ? 0 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 0;
+
+        if(length == 0 || bytes.remaining() < length - 1) {
+            throw error("the text is not valid UTF-8");
+        }
+
+        int character = first & (length == 2 ? 0x1F : 0x0F);
+
+        for(int index = 1; index < length; index++) {
+
+            int following = bytes.get() & 0xFF;
+
+            if((following & 0xC0) != 0x80) {
+                throw error("the text is not valid UTF-8");
+            }
+
+            character = character << 6 | following & 0x3F;
+        }
+
+        return character;
+    }
+
+    /**
+     * Creates an exception for a problem at the next character
+     * @param message what is wrong with the text
+     * @return the exception
+     */
+    private PuzzleFormatException error(String message) {
+        return new PuzzleFormatException(message, line, column);
+    }
+
+    /**
+     * Checks every puzzle in one or more files, such as the pools written by BatchGenerator
+     * @param args the files to be checked
+     * @throws IOException if a file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length == 0) {
+            System.err.println("usage: PuzzleParser <file>...");
+            System.exit(1);
+        }
+
+        int invalid = 0;
+
+        for(String file : args) {
+
+            try(BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+
+                PuzzleParser parser = new PuzzleParser(reader);
+                int valid = 0;
+
+                while(true) {
+
+                    try {
+
+                        if(parser.next() == null) {
+                            break;
+                        }
+
+                        valid++;
+                    } catch (PuzzleFormatException e) {
+
+                        System.out.println(file + ": " + e.getMessage());
+                        invalid++;
+                        parser.skipPuzzle();
+                    }
+                }
+
+                System.out.println(file + ": " + valid + " valid puzzles");
+            } catch (PuzzleFormatException e) {
+                System.out.println(file + ": " + e.getMessage());
+                invalid++;
+            }
+        }
+
+        System.exit(invalid == 0 ? 0 : 2);
+    }
+}
@@ -0,0 +1,25 @@
+package mathdoku;
+
+/**
+ * A solving engine for the puzzle of the current game board
+ */
+public interface PuzzleSolver {
+
+    /**
+     * Solves the current puzzle
+     * @return true if the puzzle is solvable, false otherwise
+     */
+    boolean solvePuzzle();
+
+    /**
+     * Get the solution found by the last call to solvePuzzle
+     * @return the solution to the current puzzle, row by row
+     */
+    int[][] getSolvedBoard();
+
+    /**
+     * Get the amount of search done by the last call to solvePuzzle
+     * @return the number of search nodes explored
+     */
+    long getNodeCount();
+}
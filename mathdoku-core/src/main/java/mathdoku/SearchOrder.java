@@ -0,0 +1,181 @@
+package mathdoku;
+
+/**
+ * The order in which the solver picks empty cells and the values it tries in them
+ */
+public enum SearchOrder {
+
+    /**
+     * First empty cell row by row, values in ascending order
+     */
+    ROW_MAJOR {
+        @Override
+        public int selectCell(SolverState state) {
+
+            for(int cell = 0; cell < state.getSize() * state.getSize(); cell++) {
+
+                if(state.getValue(cell) == 0) {
+                    return cell;
+                }
+            }
+
+            return -1;
+        }
+    },
+
+    /**
+     * The empty cell with the fewest candidates, values in ascending order
+     */
+    MINIMUM_REMAINING_VALUES {
+        @Override
+        public int selectCell(SolverState state) {
+            return selectFewestCandidates(state, false);
+        }
+    },
+
+    /**
+     * The empty cell with the fewest candidates, ties broken by the cell whose cage has the fewest empty cells,
+     * so a wrong value is caught by its cage as early as possible. Values in ascending order
+     */
+    MOST_CONSTRAINED {
+        @Override
+        public int selectCell(SolverState state) {
+            return selectFewestCandidates(state, true);
+        }
+    },
+
+    /**
+     * Same cell as MOST_CONSTRAINED, values that remove the fewest candidates from other cells first
+     */
+    LEAST_CONSTRAINING_VALUE {
+        @Override
+        public int selectCell(SolverState state) {
+            return selectFewestCandidates(state, true);
+        }
+
+        @Override
+        public int[] orderValues(SolverState state, int cell) {
+
+            int[] values = super.orderValues(state, cell);
+            int[] removed = new int[values.length];
+
+            for(int index = 0; index < values.length; index++) {
+                removed[index] = countRemovedCandidates(state, cell, values[index]);
+            }
+
+            // Insertion sort, since a cell only has a few candidates
+            for(int index = 1; index < values.length; index++) {
+
+                int value = values[index];
+                int count = removed[index];
+                int position = index - 1;
+
+                while(position >= 0 && removed[position] > count) {
+                    values[position + 1] = values[position];
+                    removed[position + 1] = removed[position];
+                    position--;
+                }
+
+                values[position + 1] = value;
+                removed[position + 1] = count;
+            }
+
+            return values;
+        }
+    };
+
+    /**
+     * Picks the next empty cell to be filled
+     * @param state the current search state
+     * @return the index of the cell, -1 if every cell is filled
+     */
+    public abstract int selectCell(SolverState state);
+
+    /**
+     * Lists the values to be tried in a cell, in the order they should be tried
+     * @param state the current search state
+     * @param cell the index of the cell
+     * @return the candidate values of the cell
+     */
+    public int[] orderValues(SolverState state, int cell) {
+
+        int candidates = state.getCandidates(cell);
+        int[] values = new int[Integer.bitCount(candidates)];
+
+        for(int index = 0; index < values.length; index++) {
+            values[index] = Integer.numberOfTrailingZeros(candidates) + 1;
+            candidates &= candidates - 1;
+        }
+
+        return values;
+    }
+
+    /**
+     * Finds the empty cell with the fewest candidates
+     * @param state the current search state
+     * @param breakTies true if ties should be broken by the number of empty cells in the cage
+     * @return the index of the cell, -1 if every cell is filled
+     */
+    private static int selectFewestCandidates(SolverState state, boolean breakTies) {
+
+        int bestCell = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int bestDegree = Integer.MAX_VALUE;
+
+        for(int cell = 0; cell < state.getSize() * state.getSize(); cell++) {
+
+            if(state.getValue(cell) != 0) {
+                continue;
+            }
+
+            int count = Integer.bitCount(state.getCandidates(cell));
+
+            // A cell with one or no candidates can't be beaten
+            if(count <= 1) {
+                return cell;
+            }
+
+            int degree = breakTies ? state.getEmptyCageCells(state.getPuzzle().getCellCage(cell)) : 0;
+
+            if(count < bestCount || (count == bestCount && degree < bestDegree)) {
+                bestCell = cell;
+                bestCount = count;
+                bestDegree = degree;
+            }
+        }
+
+        return bestCell;
+    }
+
+    /**
+     * Counts how many candidates placing a value would remove from the empty cells in the same row and column
+     * @param state the current search state
+     * @param cell the index of the cell
+     * @param value the value to be placed
+     * @return the number of candidates removed
+     */
+    private static int countRemovedCandidates(SolverState state, int cell, int value) {
+
+        int size = state.getSize();
+        int bit = 1 << (value - 1);
+        int row = cell / size;
+        int column = cell % size;
+        int removed = 0;
+
+        for(int index = 0; index < size; index++) {
+
+            int rowCell = row * size + index;
+            int columnCell = index * size + column;
+
+            if(rowCell != cell && state.getValue(rowCell) == 0 && (state.getCandidates(rowCell) & bit) != 0) {
+                removed++;
+            }
+
+            if(columnCell != cell && state.getValue(columnCell) == 0 && (state.getCandidates(columnCell) & bit) != 0) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+}
@@ -0,0 +1,165 @@
+package mathdoku;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a puzzle on another thread. The search can be cancelled at any time, gives up once its time budget runs
+ * out, and its progress can be read while it runs. The task works on its own copy of the puzzle, so the board can
+ * be played while the solution is searched for
+ */
+public class SolveTask {
+
+    /**
+     * The state of the task
+     */
+    public enum Status {RUNNING, SOLVED, UNSOLVABLE, CANCELLED, TIMED_OUT}
+
+    // The solver working on the puzzle
+    private final Solver solver;
+
+    // The time budget of the search in milliseconds, 0 for no budget
+    private final long timeout;
+
+    // Set to stop the search, either by the user or once the time budget runs out
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    // Why the search was asked to stop, CANCELLED or TIMED_OUT, null if it wasn't. Only the first request counts
+    private final AtomicReference<Status> stopReason = new AtomicReference<>();
+
+    private volatile Status status = Status.RUNNING;
+
+    // When the search started and finished, in nanoseconds
+    private volatile long startTime;
+    private volatile long endTime;
+
+    // Completed with the task itself once the search ends
+    private final CompletableFuture<SolveTask> completion = new CompletableFuture<>();
+
+    /**
+     * @param puzzle the puzzle to be solved
+     * @param timeout the time budget of the search in milliseconds, 0 for no budget
+     */
+    public SolveTask(Puzzle puzzle, long timeout) {
+
+        this.timeout = timeout;
+
+        solver = new Solver(puzzle);
+        solver.setCancelled(cancelled);
+    }
+
+    /**
+     * Starts the search
+     * @param executor the executor the search is run on
+     * @return a future completed with the task once the search ends, whatever its outcome
+     */
+    public CompletableFuture<SolveTask> start(Executor executor) {
+
+        startTime = System.nanoTime();
+
+        if(timeout > 0) {
+
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> stop(Status.TIMED_OUT));
+        }
+
+        executor.execute(this::run);
+
+        return completion;
+    }
+
+    /**
+     * Runs the search and records its outcome. A search that ended on its own keeps its outcome, even if it was
+     * asked to stop just before it returned
+     */
+    private void run() {
+
+        try {
+
+            boolean solved = solver.solvePuzzle();
+
+            endTime = System.nanoTime();
+
+            if(solved) {
+                status = Status.SOLVED;
+            } else if(!solver.wasLimitReached()) {
+                status = Status.UNSOLVABLE;
+            } else {
+                status = stopReason.get();
+            }
+
+            completion.complete(this);
+        } catch (Throwable e) {
+
+            // Errors such as a stack overflow must end the task too, or whoever waits for it waits forever
+            endTime = System.nanoTime();
+            status = Status.CANCELLED;
+            completion.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Asks the search to stop, unless it was already asked to
+     * @param reason why the search stops, CANCELLED or TIMED_OUT
+     */
+    private void stop(Status reason) {
+
+        if(stopReason.compareAndSet(null, reason)) {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Stops the search as soon as possible
+     */
+    public void cancel() {
+        stop(Status.CANCELLED);
+    }
+
+    /**
+     * Get the state of the task
+     * @return the state of the task
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the solution of the puzzle
+     * @return the solution, row by row, null if the puzzle wasn't solved
+     */
+    public int[][] getSolution() {
+        return status == Status.SOLVED ? solver.getSolvedBoard() : null;
+    }
+
+    /**
+     * Get the number of values placed so far
+     * @return the number of search nodes explored
+     */
+    public long getNodeCount() {
+        return solver.getProgress();
+    }
+
+    /**
+     * Get the time the search has been running for, or took if it ended
+     * @return the running time in nanoseconds
+     */
+    public long getElapsedTime() {
+
+        if(startTime == 0) {
+            return 0;
+        }
+
+        return (status == Status.RUNNING ? System.nanoTime() : endTime) - startTime;
+    }
+
+    /**
+     * Get the speed of the search
+     * @return the number of search nodes explored per second
+     */
+    public double getNodesPerSecond() {
+        return getNodeCount() / (Math.max(getElapsedTime(), 1) / 1e9);
+    }
+}
@@ -0,0 +1,409 @@
+package mathdoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds a solution to a Mathdoku puzzle. A solver created for a puzzle definition only touches its own state,
+ * so a separate solver can run on every thread. Boards larger than 9x9 are searched by a ClauseLearningSolver
+ */
+public class Solver implements PuzzleSolver {
+
+    // The progress is published whenever the number of nodes is a multiple of this mask plus one
+    private static final long PROGRESS_INTERVAL = 1023;
+
+    // The largest board searched by backtracking. Larger boards are searched with clause learning, as backtracking
+    // gives up on many of their generated puzzles within any reasonable budget
+    public static final int MAXIMUM_BACKTRACKING_SIZE = 9;
+
+    // The logical representation of the current puzzle, null if the solver works on a fixed puzzle
+    private Logic gameLogic;
+
+    // The puzzle to be solved, null if the puzzle is read from the board on every solve
+    private Puzzle puzzle;
+
+    // The size of the current puzzle's board
+    private int boardSize;
+
+    private int[][] solvedBoard;
+
+    // The order in which cells and values are tried
+    private SearchOrder searchOrder = SearchOrder.LEAST_CONSTRAINING_VALUE;
+
+    // The number of values placed during the last search
+    private long nodeCount;
+
+    // The search gives up once it has placed this many values
+    private long nodeLimit = Long.MAX_VALUE;
+
+    // If the last search or count gave up because of the node limit or the cancellation flag
+    private boolean limitReached;
+
+    // The number of guesses the search is currently nested in, and the most it was nested in during the last search
+    private int depth;
+    private int maxDepth;
+
+    // The number of values placed so far, published for other threads to read
+    private volatile long progress;
+
+    // The solutions found by the last count of solutions
+    private List<int[][]> countedSolutions = new ArrayList<>();
+
+    // Once set, the search gives up as soon as possible
+    private AtomicBoolean cancelled = new AtomicBoolean();
+
+    // The solver searching a board too large for backtracking, while it runs
+    private volatile ClauseLearningSolver learningSolver;
+
+    /**
+     * Creates a solver for the current game board
+     * @param board the logical representation of the current board
+     */
+    public Solver(Logic board) {
+
+        gameLogic = board;
+    }
+
+    /**
+     * Creates a solver for a puzzle definition, independent of any board
+     * @param puzzle the puzzle to be solved
+     */
+    public Solver(Puzzle puzzle) {
+
+        this.puzzle = puzzle;
+    }
+
+    /**
+     * Solves the a Mathdoku puzzle
+     * @return true if the puzzle is solvable, false otherwise
+     */
+    @Override
+    public boolean solvePuzzle() {
+
+        Puzzle puzzle = currentPuzzle();
+        boardSize = puzzle.getSize();
+
+        if(boardSize > MAXIMUM_BACKTRACKING_SIZE) {
+            return learnSolutions(puzzle, 1) == 1;
+        }
+
+        // The search works on its own state, so the main board is never modified
+        SolverState state = new SolverState(puzzle);
+
+        nodeCount = 0;
+        limitReached = false;
+        maxDepth = 0;
+        progress = 0;
+
+        // Deduce as many values as possible before any value has to be guessed
+        if(!new Propagator(state).propagate()) {
+            return false;
+        }
+
+        // Backtracking is only needed if deduction didn't fill every cell
+        boolean solved = search(state);
+        progress = nodeCount;
+
+        if(solved) {
+
+            // Get the solution board values
+            solvedBoard = state.toGrid();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the solutions of the puzzle, stopping once the limit is reached. A limit of 2 is enough to check
+     * if the solution is unique. A count cut short by the node limit or the cancellation flag only gives the
+     * solutions found so far, which wasLimitReached tells apart from a complete count
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions found, at most the limit
+     */
+    public int countSolutions(int limit) {
+
+        Puzzle puzzle = currentPuzzle();
+        boardSize = puzzle.getSize();
+
+        if(boardSize > MAXIMUM_BACKTRACKING_SIZE) {
+            return learnSolutions(puzzle, limit);
+        }
+
+        SolverState state = new SolverState(puzzle);
+
+        nodeCount = 0;
+        limitReached = false;
+        progress = 0;
+        countedSolutions = new ArrayList<>();
+
+        // Deductions hold for every solution, so they are made once for all of them
+        if(new Propagator(state).propagate()) {
+            recursiveCount(state, limit);
+        }
+
+        progress = nodeCount;
+
+        if(!countedSolutions.isEmpty()) {
+            solvedBoard = countedSolutions.get(0);
+        }
+
+        return countedSolutions.size();
+    }
+
+    /**
+     * Counts the solutions of a board too large for backtracking with clause learning, under the same node limit
+     * and cancellation flag, and takes over its results
+     * @param puzzle the puzzle to be solved
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions found, at most the limit
+     */
+    private int learnSolutions(Puzzle puzzle, int limit) {
+
+        ClauseLearningSolver solver = new ClauseLearningSolver(puzzle);
+        solver.setNodeLimit(nodeLimit);
+        solver.setCancelled(cancelled);
+
+        learningSolver = solver;
+
+        int count = solver.countSolutions(limit);
+
+        learningSolver = null;
+
+        nodeCount = solver.getNodeCount();
+        limitReached = solver.wasLimitReached();
+        maxDepth = 0;
+        progress = nodeCount;
+        countedSolutions = solver.getCountedSolutions();
+
+        if(count > 0) {
+            solvedBoard = solver.getSolvedBoard();
+        }
+
+        return count;
+    }
+
+    /**
+     * Sets the current board to the correct values
+     * @throws IllegalStateException if the solver has no board
+     */
+    public void solveBoard() {
+
+        if(gameLogic == null) {
+            throw new IllegalStateException("The solver has no board to fill");
+        }
+
+        for(int row = 0; row < boardSize; row++) {
+            for(int column = 0; column < boardSize; column++) {
+
+                gameLogic.getBoard().setValue(row, column, solvedBoard[row][column]);
+            }
+        }
+    }
+
+    /**
+     * Get the puzzle to be solved: the fixed puzzle if the solver has one, otherwise a snapshot of the board
+     * @return the puzzle to be solved
+     */
+    private Puzzle currentPuzzle() {
+        return puzzle != null ? puzzle : Puzzle.fromLogic(gameLogic);
+    }
+
+    /**
+     * Searches for a solution starting from a given search state
+     * @param state the search state, holding the solution afterwards if one was found
+     * @return true if a solution was found, false if there is none or the search was cancelled
+     */
+    public boolean search(SolverState state) {
+        return state.getEmptyCells() == 0 || recursiveSolve(state);
+    }
+
+    /**
+     * Recursively solves the game board puzzle by backtracking. Only the digits still free in a cell's row and
+     * column are tried, and only the cage of the filled cell is checked after each placement
+     * @param state the current search state
+     * @return true if partial solution is correct, false otherwise
+     */
+    private boolean recursiveSolve(SolverState state) {
+
+        if(cancelled.get() || nodeCount >= nodeLimit) {
+            limitReached = true;
+            return false;
+        }
+
+        int cell = searchOrder.selectCell(state);
+
+        // Every cell is filled
+        if(cell == -1) {
+            return true;
+        }
+
+        int cage = state.getPuzzle().getCellCage(cell);
+
+        for(int newValue : searchOrder.orderValues(state, cell)) {
+
+            if((++nodeCount & PROGRESS_INTERVAL) == 0) {
+                progress = nodeCount;
+            }
+
+            int mark = state.mark();
+            state.assign(cell, newValue);
+
+            maxDepth = Math.max(maxDepth, ++depth);
+
+            // Deductions are repeated after every guess, and undone with it if the guess was wrong
+            boolean solved = state.isCageConsistent(cage) && new Propagator(state).propagate() &&
+                    recursiveSolve(state);
+
+            depth--;
+
+            if(solved) {
+                return true;
+            }
+
+            state.undo(mark);
+        }
+
+        return false;
+    }
+
+    /**
+     * Recursively collects solutions until the limit is reached
+     * @param state the current search state
+     * @param limit the number of solutions after which counting stops
+     */
+    private void recursiveCount(SolverState state, int limit) {
+
+        if(cancelled.get() || nodeCount >= nodeLimit) {
+            limitReached = true;
+            return;
+        }
+
+        int cell = searchOrder.selectCell(state);
+
+        // Every cell is filled
+        if(cell == -1) {
+            countedSolutions.add(state.toGrid());
+            return;
+        }
+
+        int cage = state.getPuzzle().getCellCage(cell);
+
+        for(int newValue : searchOrder.orderValues(state, cell)) {
+
+            if((++nodeCount & PROGRESS_INTERVAL) == 0) {
+                progress = nodeCount;
+            }
+
+            int mark = state.mark();
+            state.assign(cell, newValue);
+
+            if(state.isCageConsistent(cage) && new Propagator(state).propagate()) {
+                recursiveCount(state, limit);
+            }
+
+            state.undo(mark);
+
+            if(countedSolutions.size() >= limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Getter for solved board
+     * @return the solution to the current puzzle
+     */
+    @Override
+    public int[][] getSolvedBoard() {
+        return solvedBoard;
+    }
+
+    /**
+     * Sets the solution of the board
+     * @param solvedBoard the solution to the current puzzle
+     */
+    public void setSolvedBoard(int[][] solvedBoard) {
+
+        if(solvedBoard != null) {
+            boardSize = solvedBoard.length;
+        }
+
+        this.solvedBoard = solvedBoard;
+    }
+
+    /**
+     * Get the number of values placed during the last search
+     * @return the number of search nodes explored
+     */
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Get the largest number of guesses the last search was nested in. Clause learning doesn't keep track of it,
+     * so it is 0 on boards larger than 9x9
+     * @return the deepest level of the search
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Set the number of values after which the search gives up, as if the puzzle had no solution. Counting
+     * solutions gives up the same way, with the solutions found so far
+     * @param nodeLimit the largest number of values placed, Long.MAX_VALUE for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Checks if the last search or count gave up before it was finished, because the node limit was reached or the
+     * cancellation flag was set. A puzzle that wasn't solved then may still have a solution, and a count may have
+     * missed solutions
+     * @return true if the last search or count was cut short, false if it was complete
+     */
+    public boolean wasLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * Get the number of values placed so far by the running search. Unlike getNodeCount, it can be read from
+     * another thread while the search is running, but is only updated every 1024 nodes
+     * @return the number of search nodes explored so far
+     */
+    public long getProgress() {
+
+        ClauseLearningSolver solver = learningSolver;
+
+        return solver != null ? solver.getProgress() : progress;
+    }
+
+    /**
+     * Set the order in which cells and values are tried
+     * @param searchOrder the new search order
+     */
+    public void setSearchOrder(SearchOrder searchOrder) {
+        this.searchOrder = searchOrder;
+    }
+
+    /**
+     * Set the flag that cancels the search once it is set. The flag can be shared between several solvers
+     * @param cancelled the cancellation flag
+     */
+    public void setCancelled(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Get the solutions found by the last count of solutions
+     * @return the solutions found, at most as many as the limit of the count
+     */
+    public List<int[][]> getCountedSolutions() {
+        return countedSolutions;
+    }
+}
@@ -0,0 +1,438 @@
+package mathdoku;
+
+import java.util.Arrays;
+
+/**
+ * The search state of a solver. Tracks the digits used in every row and column, and the candidate digits of
+ * every cell, as bitmasks that are updated on each assignment. Digit d is represented by bit d - 1
+ */
+public class SolverState {
+
+    // The puzzle being solved
+    private final Puzzle puzzle;
+
+    // The number of rows / columns in the board
+    private final int size;
+
+    // Mask with a bit set for every digit of the board
+    private final int fullMask;
+
+    // The value of every cell, 0 if the cell is empty
+    private final int[] values;
+
+    // The number of cells that are still empty
+    private int emptyCells;
+
+    // The digits already placed in every row and column
+    private final int[] rowUsed;
+    private final int[] columnUsed;
+
+    // The digits every cell is still allowed to take by its cage
+    private final int[] cellDomain;
+
+    // The number of filled cells in every cage, and the sum and product of their values
+    private final int[] cageFilled;
+    private final int[] cageSum;
+    private final long[] cageProduct;
+
+    // Scratch space for checking cage values
+    private final int[] cageValues;
+
+    /*
+     The tuples of digits that can fill every cage as bitsets, null for cages too loose to list them. Entry
+     [cage][index * size + digit - 1] has bit t set if tuple t puts the digit into the cage cell at that index.
+     Shared by copies
+      */
+    private final long[][][] cageSupports;
+
+    // Set for every cage whose cells had a value or candidate change since the cage was last pruned
+    private final boolean[] cageChanged;
+
+    /*
+     Changes that can be undone, most recent last. Each entry is a cell and its candidate mask before the
+     change, or -1 instead of the mask if a value was placed into the cell
+      */
+    private int[] trailCells;
+    private int[] trailDomains;
+    private int trailSize = 0;
+
+    /**
+     * Creates an empty search state for the puzzle
+     * @param puzzle the puzzle to be solved
+     */
+    public SolverState(Puzzle puzzle) {
+
+        this.puzzle = puzzle;
+        size = puzzle.getSize();
+        fullMask = (1 << size) - 1;
+
+        values = new int[size * size];
+        emptyCells = size * size;
+        rowUsed = new int[size];
+        columnUsed = new int[size];
+        cellDomain = new int[size * size];
+        cageFilled = new int[puzzle.getCageCount()];
+        cageSum = new int[puzzle.getCageCount()];
+        cageProduct = new long[puzzle.getCageCount()];
+
+        int largestCage = 0;
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+            largestCage = Math.max(largestCage, puzzle.getCageCells(cage).length);
+        }
+
+        cageValues = new int[largestCage];
+
+        trailCells = new int[size * size * 2];
+        trailDomains = new int[size * size * 2];
+
+        Arrays.fill(cageProduct, 1);
+
+        cageSupports = new long[puzzle.getCageCount()][][];
+        cageChanged = new boolean[puzzle.getCageCount()];
+
+        Arrays.fill(cageChanged, true);
+
+        // Every cell can only take the digits that appear in one of its cage's combinations
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            // Looked up once, so the search never has to find them again
+            cageSupports[cage] = toSupports(cage, CageCombinations.get(puzzle, cage).getTuples(puzzle, cage));
+
+            int[] cells = puzzle.getCageCells(cage);
+            int[] masks = CageCombinations.getCellMasks(puzzle, cage);
+
+            for(int index = 0; index < cells.length; index++) {
+                cellDomain[cells[index]] = masks[index] & fullMask;
+            }
+        }
+    }
+
+    /**
+     * Creates an independent copy of a search state. Changes made before the copy can't be undone in it
+     * @param other the state to be copied
+     */
+    public SolverState(SolverState other) {
+
+        puzzle = other.puzzle;
+        size = other.size;
+        fullMask = other.fullMask;
+
+        values = other.values.clone();
+        emptyCells = other.emptyCells;
+        rowUsed = other.rowUsed.clone();
+        columnUsed = other.columnUsed.clone();
+        cellDomain = other.cellDomain.clone();
+        cageFilled = other.cageFilled.clone();
+        cageSum = other.cageSum.clone();
+        cageProduct = other.cageProduct.clone();
+
+        cageValues = new int[other.cageValues.length];
+        cageSupports = other.cageSupports;
+        cageChanged = new boolean[other.cageChanged.length];
+
+        Arrays.fill(cageChanged, true);
+
+        trailCells = new int[size * size * 2];
+        trailDomains = new int[size * size * 2];
+    }
+
+    /**
+     * Turns the tuples of a cage into a bitset of the tuples that put each digit into each cell
+     * @param cage the index of the cage
+     * @param tuples the tuples of the cage, null if the cage has too many of them to be listed
+     * @return the bitsets, null if the tuples weren't listed
+     */
+    private long[][] toSupports(int cage, int[][] tuples) {
+
+        if(tuples == null) {
+            return null;
+        }
+
+        long[][] supports = new long[puzzle.getCageCells(cage).length * size][(tuples.length + 63) / 64];
+
+        for(int tuple = 0; tuple < tuples.length; tuple++) {
+            for(int index = 0; index < tuples[tuple].length; index++) {
+
+                supports[index * size + tuples[tuple][index] - 1][tuple >> 6] |= 1L << tuple;
+            }
+        }
+
+        return supports;
+    }
+
+    /**
+     * Get the tuples of digits that can fill a cage, as bitsets of the tuples that put each digit into each cell
+     * @param cage the index of the cage
+     * @return the bitsets, entry index * size + digit - 1 for the cage cell at that index, null if the cage has
+     * too many tuples to be listed
+     */
+    public long[][] getCageSupports(int cage) {
+        return cageSupports[cage];
+    }
+
+    /**
+     * Places a value into an empty cell
+     * @param cell the index of the cell
+     * @param value the value to be placed
+     */
+    public void assign(int cell, int value) {
+
+        record(cell, -1);
+
+        int bit = 1 << (value - 1);
+        int cage = puzzle.getCellCage(cell);
+
+        // Marked while the digit is still a candidate of the other cells of the row and column
+        markLines(cell, bit);
+
+        values[cell] = value;
+        emptyCells--;
+        rowUsed[cell / size] |= bit;
+        columnUsed[cell % size] |= bit;
+
+        cageFilled[cage]++;
+        cageSum[cage] += value;
+        cageProduct[cage] *= value;
+    }
+
+    /**
+     * Removes the value of a filled cell
+     * @param cell the index of the cell
+     */
+    private void removeValue(int cell) {
+
+        int bit = 1 << (values[cell] - 1);
+        int cage = puzzle.getCellCage(cell);
+
+        rowUsed[cell / size] &= ~bit;
+        columnUsed[cell % size] &= ~bit;
+
+        cageFilled[cage]--;
+        cageSum[cage] -= values[cell];
+        cageProduct[cage] /= values[cell];
+
+        values[cell] = 0;
+        emptyCells++;
+
+        // Marked once the digit is a candidate of the other cells of the row and column again
+        markLines(cell, bit);
+    }
+
+    /**
+     * Marks the cages of the cells in the row and column of a cell that have a digit as a candidate as changed,
+     * as placing the digit into the cell or removing it changes their candidates
+     * @param cell the index of the cell
+     * @param bit the bit of the digit
+     */
+    private void markLines(int cell, int bit) {
+
+        int row = cell / size * size;
+        int column = cell % size;
+
+        cageChanged[puzzle.getCellCage(cell)] = true;
+
+        for(int index = 0; index < size; index++) {
+
+            if(values[row + index] == 0 && (getCandidates(row + index) & bit) != 0) {
+                cageChanged[puzzle.getCellCage(row + index)] = true;
+            }
+
+            if(values[column + index * size] == 0 && (getCandidates(column + index * size) & bit) != 0) {
+                cageChanged[puzzle.getCellCage(column + index * size)] = true;
+            }
+        }
+    }
+
+    /**
+     * Checks if the values or candidates of the cells of a cage changed since the cage was last pruned
+     * @param cage the index of the cage
+     * @return true if the cage changed, false otherwise
+     */
+    public boolean isCageChanged(int cage) {
+        return cageChanged[cage];
+    }
+
+    /**
+     * Marks a cage as pruned, so it is only pruned again once one of its cells changes
+     * @param cage the index of the cage
+     */
+    public void clearCageChanged(int cage) {
+        cageChanged[cage] = false;
+    }
+
+    /**
+     * Get the digits that can be placed into a cell without repeating a digit in its row or column
+     * @param cell the index of the cell
+     * @return the mask of candidate digits
+     */
+    public int getCandidates(int cell) {
+        return cellDomain[cell] & ~(rowUsed[cell / size] | columnUsed[cell % size]);
+    }
+
+    /**
+     * Removes candidates from a cell
+     * @param cell the index of the cell
+     * @param mask the digits the cell is still allowed to take
+     * @return true if a candidate of the cell was removed, false otherwise
+     */
+    public boolean restrictCandidates(int cell, int mask) {
+
+        int before = getCandidates(cell);
+
+        if((before & mask) == before) {
+            return false;
+        }
+
+        record(cell, cellDomain[cell]);
+        cellDomain[cell] &= mask;
+        cageChanged[puzzle.getCellCage(cell)] = true;
+
+        return true;
+    }
+
+    /**
+     * Get a mark of the current state that can later be returned to
+     * @return the mark of the current state
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Undoes every placement and candidate removal made since the mark was taken
+     * @param mark the mark of the state to return to
+     */
+    public void undo(int mark) {
+
+        while(trailSize > mark) {
+
+            trailSize--;
+
+            if(trailDomains[trailSize] == -1) {
+                removeValue(trailCells[trailSize]);
+            } else {
+                cellDomain[trailCells[trailSize]] = trailDomains[trailSize];
+                cageChanged[puzzle.getCellCage(trailCells[trailSize])] = true;
+            }
+        }
+    }
+
+    /**
+     * Records a change so it can be undone
+     * @param cell the index of the changed cell
+     * @param domain the candidate mask of the cell before the change, -1 if a value was placed
+     */
+    private void record(int cell, int domain) {
+
+        if(trailSize == trailCells.length) {
+            trailCells = Arrays.copyOf(trailCells, trailSize * 2);
+            trailDomains = Arrays.copyOf(trailDomains, trailSize * 2);
+        }
+
+        trailCells[trailSize] = cell;
+        trailDomains[trailSize] = domain;
+        trailSize++;
+    }
+
+    /**
+     * Checks if a cage can still reach its target with its current values. Full cages are checked exactly,
+     * partially filled cages are checked against the bounds their operation allows
+     * @param cage the index of the cage
+     * @return true if the cage can still be completed correctly, false otherwise
+     */
+    public boolean isCageConsistent(int cage) {
+
+        int[] cells = puzzle.getCageCells(cage);
+        char operation = puzzle.getCageOperation(cage);
+        int target = puzzle.getCageTarget(cage);
+
+        int remaining = cells.length - cageFilled[cage];
+
+        // Full cages are checked exactly
+        if(remaining == 0) {
+
+            for(int index = 0; index < cells.length; index++) {
+                cageValues[index] = values[cells[index]];
+            }
+
+            return Puzzle.isCageCorrect(operation, target, cageValues, cells.length);
+        }
+
+        switch(operation) {
+
+            case '+':
+
+                // Every empty cell adds at least 1 and at most the board size
+                return cageSum[cage] + remaining <= target && cageSum[cage] + remaining * size >= target;
+
+            case 'x':
+
+                // The values placed so far must divide the target
+                return target > 0 && target % cageProduct[cage] == 0;
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Get the number of empty cells in a cage
+     * @param cage the index of the cage
+     * @return the number of empty cells
+     */
+    public int getEmptyCageCells(int cage) {
+        return puzzle.getCageCells(cage).length - cageFilled[cage];
+    }
+
+    /**
+     * Get the number of cells that are still empty
+     * @return the number of empty cells
+     */
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+    /**
+     * Get the size of the board (number of rows / columns)
+     * @return the size of the board
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the value of a cell
+     * @param cell the index of the cell
+     * @return the value of the cell, 0 if it is empty
+     */
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * Get the puzzle being solved
+     * @return the puzzle being solved
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Copies the values of the cells into a grid
+     * @return the values of the board, row by row
+     */
+    public int[][] toGrid() {
+
+        int[][] grid = new int[size][size];
+
+        for(int row = 0; row < size; row++) {
+            for(int column = 0; column < size; column++) {
+
+                grid[row][column] = values[row * size + column];
+            }
+        }
+
+        return grid;
+    }
+}
@@ -0,0 +1,310 @@
+package mathdoku;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Generates puzzles whose difficulty score falls into a band, by generating candidates on several threads,
+ * grading them and keeping only the ones in the band. The search stops once enough puzzles are kept, or once the
+ * budget of attempts or time runs out. Every worker owns its generator and a random stream split from the seed,
+ * but which candidates are kept first depends on the scheduling of the workers
+ */
+public class TargetedGenerator {
+
+    // How often the progress is reported, in milliseconds
+    private static final long REPORT_INTERVAL = 1000;
+
+    // The number of rows / columns of the generated puzzles
+    private final int size;
+
+    // The scores a kept puzzle can have, both included
+    private final double minimumScore;
+    private final double maximumScore;
+
+    // The number of puzzles to be kept
+    private final int count;
+
+    // The seed the random stream of every worker is split from
+    private final long seed;
+
+    // The number of generator threads
+    private final int workers;
+
+    // The largest number of candidates generated, and the longest the search runs in milliseconds, 0 for no limit
+    private long attemptBudget;
+    private long timeBudget;
+
+    // If the puzzles must have exactly one solution
+    private boolean uniqueSolution;
+
+    // Grades the candidates, shared by the workers
+    private final DifficultyGrader grader = new DifficultyGrader();
+
+    // The puzzles kept so far
+    private final List<Puzzle> accepted = new ArrayList<>();
+
+    // The number of candidates handed out to workers
+    private final AtomicInteger claimed = new AtomicInteger();
+
+    // Set once the time budget runs out, so a candidate being graded is given up on
+    private final AtomicBoolean timeUp = new AtomicBoolean();
+
+    // The number of candidates graded, and of those below and above the band
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder tooEasy = new LongAdder();
+    private final LongAdder tooHard = new LongAdder();
+
+    /**
+     * @param size the number of rows / columns of the generated puzzles
+     * @param minimumScore the lowest score a kept puzzle can have
+     * @param maximumScore the highest score a kept puzzle can have, Double.POSITIVE_INFINITY for no limit
+     * @param count the number of puzzles to be kept
+     * @param seed the seed of the search
+     * @param workers the number of generator threads
+     */
+    public TargetedGenerator(int size, double minimumScore, double maximumScore, int count, long seed, int workers) {
+
+        if(minimumScore > maximumScore) {
+            throw new IllegalArgumentException("The lowest score of the band is above its highest score");
+        }
+
+        this.size = size;
+        this.minimumScore = minimumScore;
+        this.maximumScore = maximumScore;
+        this.count = count;
+        this.seed = seed;
+        this.workers = workers;
+    }
+
+    /**
+     * Generates candidates until enough puzzles are kept or the budget runs out
+     * @param progress receives a line describing the progress about once a second, and at the end
+     * @return the kept puzzles, fewer than asked for if the budget ran out
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     */
+    public List<Puzzle> run(Consumer<String> progress) throws InterruptedException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        long deadline = timeBudget > 0 ? start + TimeUnit.MILLISECONDS.toNanos(timeBudget) : Long.MAX_VALUE;
+
+        if(timeBudget > 0) {
+            CompletableFuture.delayedExecutor(timeBudget, TimeUnit.MILLISECONDS).execute(() -> timeUp.set(true));
+        }
+
+        // The streams are split before any worker starts, so every worker draws the same candidates on every run
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for(int worker = 0; worker < workers; worker++) {
+
+            SplittableRandom workerRandom = random.split();
+            futures.add(pool.submit(() -> search(workerRandom, deadline)));
+        }
+
+        pool.shutdown();
+
+        try {
+
+            while(!pool.awaitTermination(REPORT_INTERVAL, TimeUnit.MILLISECONDS)) {
+                progress.accept(describeProgress(start));
+            }
+
+            for(Future<?> future : futures) {
+
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A generator worker failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        progress.accept(describeProgress(start));
+
+        synchronized(accepted) {
+            return new ArrayList<>(accepted);
+        }
+    }
+
+    /**
+     * Generates and grades candidates until enough puzzles are kept or the budget runs out
+     * @param random the random stream owned by the worker
+     * @param deadline when the time budget runs out, in nanoseconds
+     */
+    private void search(SplittableRandom random, long deadline) {
+
+        // Every worker has its own generator, which doesn't need a board
+        Generator generator = new Generator();
+        generator.setUniqueSolution(uniqueSolution);
+
+        while(getAcceptedCount() < count && System.nanoTime() < deadline &&
+                (attemptBudget == 0 || claimed.getAndIncrement() < attemptBudget)) {
+
+            Puzzle puzzle = generator.generatePuzzle(size, random.nextLong());
+            DifficultyGrader.Grade grade = grader.grade(puzzle, timeUp);
+
+            // A grade cut short by the time budget says nothing about the candidate
+            if(!grade.isSolved() && timeUp.get()) {
+                return;
+            }
+
+            attempts.increment();
+
+            // A search that gave up only gives a lower bound, which is enough to tell that the puzzle is too hard
+            if(grade.getScore() < minimumScore) {
+                tooEasy.increment();
+            } else if(grade.getScore() > maximumScore || grade.isLimitReached() &&
+                    maximumScore != Double.POSITIVE_INFINITY) {
+                tooHard.increment();
+            } else {
+
+                synchronized(accepted) {
+                    if(accepted.size() < count) {
+                        accepted.add(puzzle);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Describes the progress of the search
+     * @param start when the search started, in nanoseconds
+     * @return the numbers of candidates and kept puzzles, the acceptance rate and the rejections on either side
+     */
+    private String describeProgress(long start) {
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+
+        return String.format("attempts %d, accepted %d/%d (%.1f%%), too easy %d, too hard %d, %.1f attempts/s",
+                getAttemptCount(), getAcceptedCount(), count, getAcceptanceRate() * 100, tooEasy.sum(),
+                tooHard.sum(), getAttemptCount() / seconds);
+    }
+
+    /**
+     * Set the largest number of candidates generated
+     * @param attemptBudget the number of candidates, 0 for no limit
+     */
+    public void setAttemptBudget(long attemptBudget) {
+        this.attemptBudget = attemptBudget;
+    }
+
+    /**
+     * Set the longest the search runs. A candidate being graded when it runs out is given up on, but one being
+     * generated is still finished
+     * @param timeBudget the time in milliseconds, 0 for no limit
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Set if the puzzles must have exactly one solution
+     * @param uniqueSolution true if the solution must be unique, false otherwise
+     */
+    public void setUniqueSolution(boolean uniqueSolution) {
+        this.uniqueSolution = uniqueSolution;
+    }
+
+    /**
+     * Get the grader the candidates are graded with, so its node limit can be set
+     * @return the grader
+     */
+    public DifficultyGrader getGrader() {
+        return grader;
+    }
+
+    /**
+     * Get the number of candidates graded so far
+     * @return the number of candidates
+     */
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    /**
+     * Get the number of puzzles kept so far
+     * @return the number of puzzles
+     */
+    public int getAcceptedCount() {
+
+        synchronized(accepted) {
+            return accepted.size();
+        }
+    }
+
+    /**
+     * Get the share of the graded candidates that were kept
+     * @return the acceptance rate from 0 to 1, 0 if no candidate was graded yet
+     */
+    public double getAcceptanceRate() {
+
+        long attemptCount = getAttemptCount();
+
+        return attemptCount == 0 ? 0 : (double) getAcceptedCount() / attemptCount;
+    }
+
+    /**
+     * Generates puzzles in a difficulty band and prints them in the cage line format, with an empty line after
+     * every puzzle. The progress and the acceptance rate are printed to the error stream
+     * @param args the size, the lowest and highest score, the number of puzzles, the seed, and optionally the
+     *             number of workers, the attempt budget and the time budget in seconds, 0 for no limit, and
+     *             unique if the puzzles must have exactly one solution. The highest score can be Infinity for an
+     *             open band
+     * @throws Exception if the puzzles can't be generated
+     */
+    public static void main(String[] args) throws Exception {
+
+        if(args.length < 5) {
+            System.err.println("usage: TargetedGenerator <size> <minimum score> <maximum score> <count> <seed> " +
+                    "[workers] [attempts] [seconds] [unique]");
+            System.exit(1);
+        }
+
+        int workers = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        TargetedGenerator generator = new TargetedGenerator(Integer.parseInt(args[0]),
+                Double.parseDouble(args[1]), Double.parseDouble(args[2]), Integer.parseInt(args[3]),
+                Long.parseLong(args[4]), workers);
+
+        generator.setAttemptBudget(args.length > 6 ? Long.parseLong(args[6]) : 0);
+        generator.setTimeBudget(args.length > 7 ? Long.parseLong(args[7]) * 1000 : 0);
+        generator.setUniqueSolution(args.length > 8 && args[8].equals("unique"));
+
+        List<Puzzle> puzzles = generator.run(System.err::println);
+
+        // The division sign needs UTF-8, whatever the platform encoding is
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+        for(Puzzle puzzle : puzzles) {
+
+            for(String line : PuzzleLoader.toCageLines(puzzle)) {
+                output.write(line + "\n");
+            }
+
+            output.write("\n");
+        }
+
+        output.flush();
+        System.exit(puzzles.size() == Integer.parseInt(args[3]) ? 0 : 2);
+    }
+}
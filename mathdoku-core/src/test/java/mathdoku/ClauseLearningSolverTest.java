@@ -0,0 +1,108 @@
+package mathdoku;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that clause learning counts as many solutions as backtracking, that every solution it finds fills the
+ * rows, columns and cages correctly, and that the solver hands boards larger than 9x9 over to it
+ */
+class ClauseLearningSolverTest {
+
+    /**
+     * Checks that a grid holds every digit once in every row and column, and reaches the target of every cage
+     * @param puzzle the puzzle
+     * @param grid the values of the board, row by row
+     */
+    private static void assertSolves(Puzzle puzzle, int[][] grid) {
+
+        int size = puzzle.getSize();
+
+        for(int line = 0; line < size; line++) {
+
+            boolean[] inRow = new boolean[size + 1];
+            boolean[] inColumn = new boolean[size + 1];
+
+            for(int index = 0; index < size; index++) {
+
+                assertFalse(inRow[grid[line][index]]);
+                assertFalse(inColumn[grid[index][line]]);
+
+                inRow[grid[line][index]] = true;
+                inColumn[grid[index][line]] = true;
+            }
+        }
+
+        for(int cage = 0; cage < puzzle.getCageCount(); cage++) {
+
+            int[] cells = puzzle.getCageCells(cage);
+            int[] values = new int[cells.length];
+
+            for(int index = 0; index < cells.length; index++) {
+                values[index] = grid[cells[index] / size][cells[index] % size];
+            }
+
+            assertTrue(Puzzle.isCageCorrect(puzzle.getCageOperation(cage), puzzle.getCageTarget(cage), values,
+                    cells.length));
+        }
+    }
+
+    @Test
+    void countsMatchBacktracking() {
+
+        Generator generator = new Generator(null, new SplittableRandom(20210221L));
+
+        for(int size = 2; size <= 6; size++) {
+            for(int index = 0; index < 10; index++) {
+
+                Puzzle puzzle = generator.generatePuzzle(size);
+                ClauseLearningSolver solver = new ClauseLearningSolver(puzzle);
+
+                assertEquals(new Solver(puzzle).countSolutions(3), solver.countSolutions(3));
+
+                List<int[][]> solutions = solver.getCountedSolutions();
+
+                for(int solution = 0; solution < solutions.size(); solution++) {
+
+                    assertSolves(puzzle, solutions.get(solution));
+
+                    for(int other = 0; other < solution; other++) {
+                        assertFalse(Arrays.deepEquals(solutions.get(other), solutions.get(solution)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void puzzleWithoutSolutionIsReported() throws PuzzleFormatException {
+
+        // The two cells of a row of a 2x2 board always add up to 3
+        ClauseLearningSolver solver = new ClauseLearningSolver(PuzzleParser.parse("4+ 1,2\n3+ 3,4"));
+
+        assertFalse(solver.solvePuzzle());
+        assertFalse(solver.wasLimitReached());
+        assertNull(solver.getSolvedBoard());
+    }
+
+    @Test
+    void largeBoardsAreSolved() {
+
+        for(int size : new int[] {10, 12, 16}) {
+
+            Puzzle puzzle = new Generator(null, new SplittableRandom(20210221L + size)).generatePuzzle(size);
+            Solver solver = new Solver(puzzle);
+
+            assertTrue(solver.solvePuzzle());
+            assertSolves(puzzle, solver.getSolvedBoard());
+        }
+    }
+}
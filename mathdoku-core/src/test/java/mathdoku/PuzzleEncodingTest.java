@@ -0,0 +1,193 @@
+package mathdoku;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that puzzles survive the binary encoding unchanged, compared through the cage line format, and that
+ * broken encodings are rejected
+ */
+class PuzzleEncodingTest {
+
+    // Puzzles in the cage line format, with the cells of every cage in increasing order and the cages in the order
+    // of their first cell, which is the order the encoding gives back
+    private static final String[] PUZZLES = {
+            "1 1",
+            "3+ 1,3\n" +
+            "1- 2,4",
+            "32x 1,2,5\n" +
+            "1÷ 3,4,7,8\n" +
+            "1- 6,10\n" +
+            "1÷ 9,13,14\n" +
+            "64x 11,12,15,16",
+            "10+ 1,2,7\n" +
+            "11+ 3,4\n" +
+            "16x 5,6,11,12\n" +
+            "120x 8,9,10,16\n" +
+            "200x 13,14,19,20,25\n" +
+            "0- 15,21,22,23\n" +
+            "2÷ 17,18,24\n" +
+            "16+ 26,27,31,32\n" +
+            "900x 28,29,30,34,35,36\n" +
+            "4 33",
+            "6+ 1,8\n" +
+            "17+ 2,3,9\n" +
+            "10+ 4,5,10,11\n" +
+            "21+ 6,13,20,27\n" +
+            "2÷ 7,14\n" +
+            "56x 12,17,18,19,26\n" +
+            "6 15\n" +
+            "0- 16,22,23\n" +
+            "17+ 21,28,34,35\n" +
+            "48x 24,30,31\n" +
+            "42x 25,32\n" +
+            "20+ 29,36,37,43,44\n" +
+            "26+ 33,38,39,40,46\n" +
+            "12+ 41,42,47,48,49\n" +
+            "6 45"
+    };
+
+    /**
+     * Describes a puzzle in the cage line format
+     * @param puzzle the puzzle
+     * @return the lines of the cages joined by line breaks
+     */
+    private static String toText(Puzzle puzzle) {
+        return String.join("\n", PuzzleLoader.toCageLines(puzzle));
+    }
+
+    /**
+     * Generates puzzles of every size whose solution fits the encoding
+     * @return the generated puzzles
+     */
+    private static List<Puzzle> generatePuzzles() {
+
+        List<Puzzle> puzzles = new ArrayList<>();
+        Generator generator = new Generator();
+
+        for(int size = 1; size <= 16; size++) {
+            for(long seed = 0; seed < 3; seed++) {
+                puzzles.add(generator.generatePuzzle(size, seed));
+            }
+        }
+
+        return puzzles;
+    }
+
+    @Test
+    void textSurvivesEncoding() throws PuzzleFormatException {
+
+        for(String text : PUZZLES) {
+            assertEquals(text, toText(Puzzle.fromBytes(PuzzleParser.parse(text).toBytes())));
+        }
+    }
+
+    @Test
+    void generatedPuzzlesSurviveEncoding() throws PuzzleFormatException {
+
+        for(Puzzle puzzle : generatePuzzles()) {
+
+            // The generator lists cells in the order it grew its cages, so the first trip puts them in order
+            String text = toText(Puzzle.fromBytes(puzzle.toBytes()));
+
+            assertEquals(text, toText(Puzzle.fromBytes(PuzzleParser.parse(text).toBytes())));
+            assertEquals(puzzle.getCageCount(), PuzzleParser.parse(text).getCageCount());
+        }
+    }
+
+    @Test
+    void reencodingIsByteStable() throws PuzzleFormatException {
+
+        for(String text : PUZZLES) {
+
+            byte[] bytes = PuzzleParser.parse(text).toBytes();
+
+            assertArrayEquals(bytes, Puzzle.fromBytes(bytes).toBytes());
+        }
+
+        for(Puzzle puzzle : generatePuzzles()) {
+
+            byte[] bytes = puzzle.toBytes();
+
+            assertArrayEquals(bytes, Puzzle.fromBytes(bytes).toBytes());
+        }
+    }
+
+    @Test
+    void solutionSurvivesEncoding() throws PuzzleFormatException {
+
+        for(String text : PUZZLES) {
+
+            Puzzle puzzle = PuzzleParser.parse(text);
+            Solver solver = new Solver(puzzle);
+
+            assertTrue(solver.solvePuzzle());
+
+            int[][] solution = solver.getSolvedBoard();
+            byte[] bytes = puzzle.toBytes(solution);
+
+            assertTrue(Arrays.deepEquals(solution, PuzzleEncoding.decodeSolution(bytes)));
+            assertEquals(text, toText(Puzzle.fromBytes(bytes)));
+            assertArrayEquals(bytes, Puzzle.fromBytes(bytes).toBytes(solution));
+        }
+    }
+
+    @Test
+    void missingSolutionDecodesAsNull() throws PuzzleFormatException {
+
+        for(String text : PUZZLES) {
+            assertNull(PuzzleEncoding.decodeSolution(PuzzleParser.parse(text).toBytes()));
+        }
+    }
+
+    @Test
+    void truncatedEncodingIsRejected() throws PuzzleFormatException {
+
+        for(String text : PUZZLES) {
+
+            Puzzle puzzle = PuzzleParser.parse(text);
+            Solver solver = new Solver(puzzle);
+            solver.solvePuzzle();
+
+            byte[] bytes = puzzle.toBytes(solver.getSolvedBoard());
+
+            // Every byte holds bits that are read, so any shorter encoding runs out of bits
+            for(int length = 0; length < bytes.length; length++) {
+
+                byte[] truncated = Arrays.copyOf(bytes, length);
+
+                assertThrows(IllegalArgumentException.class, () -> PuzzleEncoding.decodeSolution(truncated));
+            }
+        }
+    }
+
+    @Test
+    void corruptEncodingIsRejected() throws PuzzleFormatException {
+
+        // All ones give a board of 64 rows
+        assertThrows(IllegalArgumentException.class, () -> Puzzle.fromBytes(new byte[] {-1, -1, -1, -1}));
+
+        // A 4x4 board whose solution has values of 16 at its end
+        Puzzle puzzle = PuzzleParser.parse(PUZZLES[2]);
+        Solver solver = new Solver(puzzle);
+
+        assertTrue(solver.solvePuzzle());
+
+        byte[] bytes = puzzle.toBytes(solver.getSolvedBoard());
+        byte[] corrupt = bytes.clone();
+
+        corrupt[corrupt.length - 1] = -1;
+        corrupt[corrupt.length - 2] = -1;
+
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEncoding.decodeSolution(corrupt));
+    }
+}
@@ -0,0 +1,213 @@
+package mathdoku;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the parser reads valid puzzles from both readers and UTF-8 bytes, and that invalid ones are
+ * rejected with the line and column of the problem
+ */
+class PuzzleParserTest {
+
+    // A 4x4 puzzle that uses every operation, including the division sign that takes two bytes in UTF-8
+    private static final String PUZZLE =
+            "32x 1,2,5\n" +
+            "1÷ 3,4,7,8\n" +
+            "1- 6,10\n" +
+            "1÷ 9,13,14\n" +
+            "64x 11,12,15,16";
+
+    /**
+     * Describes a puzzle in the cage line format
+     * @param puzzle the puzzle
+     * @return the lines of the cages joined by line breaks
+     */
+    private static String toText(Puzzle puzzle) {
+        return String.join("\n", PuzzleLoader.toCageLines(puzzle));
+    }
+
+    /**
+     * Creates a parser reading the UTF-8 bytes of a text
+     * @param text the text to be read
+     * @return the parser
+     */
+    private static PuzzleParser bytesParser(String text) {
+        return new PuzzleParser(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Reads a text that should describe one invalid puzzle
+     * @param text the text to be read
+     * @return the exception the parser threw
+     */
+    private static PuzzleFormatException parseError(String text) {
+        return assertThrows(PuzzleFormatException.class, () -> PuzzleParser.parse(text));
+    }
+
+    /**
+     * Checks where a problem was reported
+     * @param exception the exception the parser threw
+     * @param line the expected line, counted from 1
+     * @param column the expected column, counted from 1
+     */
+    private static void assertPosition(PuzzleFormatException exception, int line, int column) {
+
+        assertEquals(line, exception.getLine());
+        assertEquals(column, exception.getColumn());
+    }
+
+    @Test
+    void validPuzzleIsRead() throws PuzzleFormatException {
+
+        Puzzle puzzle = PuzzleParser.parse(PUZZLE);
+
+        assertEquals(4, puzzle.getSize());
+        assertEquals(5, puzzle.getCageCount());
+        assertEquals('÷', puzzle.getCageOperation(1));
+        assertEquals(64, puzzle.getCageTarget(4));
+        assertEquals(PUZZLE, toText(puzzle));
+    }
+
+    @Test
+    void blanksAndLineEndingsAreIgnored() throws PuzzleFormatException {
+
+        Puzzle puzzle = PuzzleParser.parse("\r\n\n3+\t1 , 3 \r\n1-  2,4\r\n\r\n");
+
+        assertEquals("3+ 1,3\n1- 2,4", toText(puzzle));
+    }
+
+    @Test
+    void errorsAreReportedWhereTheyAre() {
+
+        assertPosition(parseError("3+ 1,3\n1? 2,4"), 2, 2);
+        assertPosition(parseError("3+ 1,3\n+ 2,4"), 2, 1);
+        assertPosition(parseError("3+ 1,3\n1-2,4"), 2, 3);
+        assertPosition(parseError("3+ 1,3\n1-"), 2, 3);
+        assertPosition(parseError("3+ 1,a\n1- 2,4"), 1, 6);
+        assertPosition(parseError("3+ 1,3;\n1- 2,4"), 1, 7);
+        assertPosition(parseError("3+ 0,3\n1- 2,4"), 1, 4);
+        assertPosition(parseError("3+ 1,99999999999\n1- 2,4"), 1, 6);
+        assertPosition(parseError("3+ 1,3\n1- 2,4,5"), 2, 8);
+    }
+
+    @Test
+    void overlappingCagesAreRejected() {
+
+        PuzzleFormatException exception = parseError("3+ 1,2\n3+ 2,3,4");
+
+        assertPosition(exception, 2, 4);
+        assertTrue(exception.getMessage().contains("cell 2 is already in the cage on line 1"));
+    }
+
+    @Test
+    void disconnectedCagesAreRejected() {
+
+        // Cells 4 and 6 are on the same row, but cell 5 is between them
+        PuzzleFormatException exception = parseError("6+ 1,2,3\n5+ 4,6\n3 5\n15+ 7,8,9");
+
+        assertPosition(exception, 2, 1);
+        assertTrue(exception.getMessage().contains("not connected"));
+
+        // Cells 1 and 4 only touch at a corner
+        assertPosition(parseError("3+ 1,4\n3+ 2,3"), 1, 1);
+    }
+
+    @Test
+    void missingCellsAreRejected() {
+
+        PuzzleFormatException exception = parseError("3+ 1,2\n4 4");
+
+        assertTrue(exception.getMessage().contains("cell 3 is in no cage"));
+
+        // Three cells can't make up a square board
+        assertPosition(parseError("3+ 1,2\n3 3"), 2, 3);
+    }
+
+    @Test
+    void emptyAndRepeatedPuzzlesAreRejected() {
+
+        assertPosition(parseError(" \n\r\n"), 1, 1);
+        assertPosition(parseError("1 1\n\n1 1"), 3, 1);
+    }
+
+    @Test
+    void streamOfPuzzlesIsReadPastInvalidOnes() throws IOException, PuzzleFormatException {
+
+        PuzzleParser parser = new PuzzleParser(new StringReader(
+                "1 1\n" +
+                "\n" +
+                "3+ 1,3\n" +
+                "1? 2,4\n" +
+                "1- 5,6\n" +
+                "\n" +
+                "\n" +
+                PUZZLE + "\n" +
+                "\n" +
+                "3+ 1,2\n" +
+                "3+ 2,3,4\n" +
+                "\n" +
+                "3+ 1,3\n" +
+                "1- 2,4\n"));
+
+        assertEquals("1 1", toText(parser.next()));
+        assertPosition(assertThrows(PuzzleFormatException.class, parser::next), 4, 2);
+
+        parser.skipPuzzle();
+
+        assertEquals(PUZZLE, toText(parser.next()));
+        assertPosition(assertThrows(PuzzleFormatException.class, parser::next), 15, 4);
+
+        // The whole puzzle was read before the overlap was found, so there is nothing left of it to skip
+        parser.skipPuzzle();
+
+        assertEquals("3+ 1,3\n1- 2,4", toText(parser.next()));
+        assertNull(parser.next());
+        assertNull(parser.next());
+    }
+
+    @Test
+    void bytesAreReadLikeText() throws IOException, PuzzleFormatException {
+
+        PuzzleParser parser = bytesParser(PUZZLE + "\n\n1 1\n");
+
+        assertEquals(PUZZLE, toText(parser.next()));
+        assertEquals("1 1", toText(parser.next()));
+        assertNull(parser.next());
+    }
+
+    @Test
+    void multiByteCharactersTakeOneColumn() {
+
+        // The division sign is two bytes in UTF-8 but one column of the line
+        PuzzleFormatException text = parseError("2÷ 1,2;\n1- 3,4");
+        PuzzleFormatException bytes = assertThrows(PuzzleFormatException.class,
+                () -> bytesParser("2÷ 1,2;\n1- 3,4").next());
+
+        assertPosition(text, 1, 7);
+        assertPosition(bytes, 1, 7);
+    }
+
+    @Test
+    void invalidUtf8IsRejected() {
+
+        byte[][] invalid = {
+                {'1', ' ', (byte) 0xFF},
+                {'1', ' ', (byte) 0xC3},
+                {'1', ' ', (byte) 0xC3, '1'},
+                {'1', (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80, ' ', '1'}
+        };
+
+        for(byte[] bytes : invalid) {
+            assertThrows(PuzzleFormatException.class, () -> new PuzzleParser(ByteBuffer.wrap(bytes)).next());
+        }
+    }
+}
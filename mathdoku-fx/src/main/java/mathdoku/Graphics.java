@@ -1,3 +1,5 @@
+package mathdoku;
+
 import com.sun.javafx.tk.FontMetrics;
 import com.sun.javafx.tk.Toolkit;
 import javafx.animation.FadeTransition;
@@ -21,6 +23,7 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
@@ -39,6 +42,9 @@ public class Graphics extends Application {
      */
     public enum FontSize {SMALL, MEDIUM, LARGE}
 
+    // The largest board that can be generated from the menu. Values above 9 are entered as two digits
+    private static final int MAXIMUM_GENERATED_SIZE = 16;
+
     // Handles logical operations of the game
     private Logic gameLogic = new Logic();
 
@@ -102,6 +108,7 @@ public class Graphics extends Application {
     private Button sevenButton = new Button("7");
     private Button eightButton = new Button("8");
     private Button nineButton = new Button("9");
+    private Button zeroButton = new Button("0");
     private Button deleteButton = new Button("<-");
 
     private SplitMenuButton fontSelection = new SplitMenuButton();
@@ -123,7 +130,7 @@ public class Graphics extends Application {
 
         fontSelection.getItems().addAll(fontSmall, fontMedium, fontLarge);
 
-        for(int option = 2; option <= 8; option++) {
+        for(int option = 2; option <= MAXIMUM_GENERATED_SIZE; option++) {
             generateButton.getItems().add(new MenuItem(option + "x" + option));
         }
 
@@ -136,7 +143,8 @@ public class Graphics extends Application {
         numberPad.add(sevenButton, 0, 2, 1, 1);
         numberPad.add(eightButton, 1, 2, 1, 1);
         numberPad.add(nineButton, 2, 2, 1, 1);
-        numberPad.add(deleteButton, 0, 3, 3, 1);
+        numberPad.add(zeroButton, 0, 3, 1, 1);
+        numberPad.add(deleteButton, 1, 3, 2, 1);
 
         topButtons.getChildren().addAll(undoButton, redoButton, clearButton, mistakesButton, hintButton, solveButton);
         mainBoard.getChildren().addAll(gameGrid, numberPad);
@@ -169,18 +177,18 @@ public class Graphics extends Application {
         int row = getGameLogic().getHintCell().getRow();
         int column = getGameLogic().getHintCell().getColumn();
 
-        Logic.Cell cell = gameLogic.getBoard().getBoardLayout()[row][column];
+        Logic.Board board = gameLogic.getBoard();
 
         // If the cell has a left cage wall, it's starting X position will be increase by regularWall worth of pixels
-        int drawFromX = cell.isCageLeft() ?
+        int drawFromX = board.isCageLeft(row, column) ?
                 getCellStart(column, column + 1) : getCellStart(column);
 
         // If the cell has a top cage wall, it's starting Y position will be increase by regularWall worth of pixels
-        int drawFromY = cell.isCageTop() ?
+        int drawFromY = board.isCageTop(row, column) ?
                 getCellStart(row, row + 1) : getCellStart(row);
 
-        int drawDistanceX = setDistance(cell.isCageLeft(), cell.isCageRight());
-        int drawDistanceY = setDistance(cell.isCageTop(), cell.isCageBottom());
+        int drawDistanceX = setDistance(board.isCageLeft(row, column), board.isCageRight(row, column));
+        int drawDistanceY = setDistance(board.isCageTop(row, column), board.isCageBottom(row, column));
 
         // Canvas will be displayed over the hint cell
         Canvas canvas = new Canvas(drawDistanceX, drawDistanceY);
@@ -224,9 +232,8 @@ public class Graphics extends Application {
 
         double positionX, positionY;
 
-        // FIXME: 21/02/2021 computeStringWidth removed in new version of javafx
-        positionX = ( (double) cellSize - fontMetrics.computeStringWidth(
-                gameLogic.getSolver().getSolvedBoard()[row][column] + "")) / 2;
+        positionX = ( (double) cellSize - computeStringWidth(
+                gameLogic.getSolver().getSolvedBoard()[row][column] + "", valueFont)) / 2;
 
         positionY = ( (double) cellSize + fontMetrics.getLineHeight()) / 2;
 
@@ -234,6 +241,21 @@ public class Graphics extends Application {
                 positionX, positionY);
     }
 
+    /**
+     * Measures the width of a string drawn with a font. Replaces FontMetrics.computeStringWidth, which is no
+     * longer part of JavaFX
+     * @param string the string to be measured
+     * @param font the font the string is drawn with
+     * @return the width of the string in pixels
+     */
+    private double computeStringWidth(String string, Font font) {
+
+        Text text = new Text(string);
+        text.setFont(font);
+
+        return text.getLayoutBounds().getWidth();
+    }
+
     /**
      * Draws the correct label of the cell on the hint canvas
      * @param row the row of the correct cell
@@ -249,7 +271,7 @@ public class Graphics extends Application {
 
         double offset = (double) cellSize / 20;
 
-        graphicsContext.fillText(gameLogic.getBoard().getBoardLayout()[row][column].getLabel(),
+        graphicsContext.fillText(gameLogic.getBoard().getLabel(row, column),
                 offset, fontMetrics.getLineHeight() / 2 + offset);
     }
 
@@ -373,9 +395,9 @@ public class Graphics extends Application {
         setNumPadButton(sevenButton);
         setNumPadButton(eightButton);
         setNumPadButton(nineButton);
+        setNumPadButton(zeroButton);
 
-        deleteButton.prefWidthProperty().bind(oneButton.widthProperty()
-                .add(oneButton.widthProperty()).add(oneButton.widthProperty()));
+        deleteButton.prefWidthProperty().bind(oneButton.widthProperty().add(oneButton.widthProperty()));
         deleteButton.prefHeightProperty().bind(mainBoard.heightProperty().divide(4).subtract(1));
 
         setBottomButtonSize(loadFileButton);
@@ -432,6 +454,8 @@ public class Graphics extends Application {
      */
     public void disableNumPad() {
 
+        // Zero is only needed as the second digit of values from 10 up
+        zeroButton.setDisable(gameLogic.getBoard().getSize() < 10);
         nineButton.setDisable(gameLogic.getBoard().getSize() < 9);
         eightButton.setDisable(gameLogic.getBoard().getSize() < 8);
         sevenButton.setDisable(gameLogic.getBoard().getSize() < 7);
@@ -516,7 +540,7 @@ public class Graphics extends Application {
     private void updateButtonStatus() {
         undoButton.setDisable(!gameLogic.isUndoPossible());
         redoButton.setDisable(!gameLogic.isRedoPossible());
-        hintButton.setDisable(gameLogic.getClusterCells().isEmpty());
+        hintButton.setDisable(gameLogic.getClusterCells().isEmpty() || gameLogic.getSolver().getSolvedBoard() == null);
         solveButton.setDisable(gameLogic.getSolver().getSolvedBoard() == null);
     }
 
@@ -537,7 +561,7 @@ public class Graphics extends Application {
         int drawDistanceX;
         int drawDistanceY;
 
-        Logic.Cell cell;
+        Logic.Board board = gameLogic.getBoard();
 
         /*
             Draws the cells of the board following these guidelines:
@@ -552,23 +576,21 @@ public class Graphics extends Application {
 
             for(int j = 0; j < gameLogic.getBoard().getSize(); j++) {
 
-                cell = gameLogic.getBoard().getBoardLayout()[i][j];
-
                 // If cell has a top cell wall, starting position Y is higher by regularWall pixels
-                drawFromY += cell.isCageTop() ? regularWall : 0;
+                drawFromY += board.isCageTop(i, j) ? regularWall : 0;
 
                 // Updates draw distance for a cell according to the type of walls it is surrounded by
-                drawDistanceX = setDistance(cell.isCageRight(), cell.isCageLeft());
-                drawDistanceY = setDistance(cell.isCageTop(), cell.isCageBottom());
+                drawDistanceX = setDistance(board.isCageRight(i, j), board.isCageLeft(i, j));
+                drawDistanceY = setDistance(board.isCageTop(i, j), board.isCageBottom(i, j));
 
                 // Draws a single cell
                 boardGraphics.fillRect(drawFromX, drawFromY, drawDistanceX, drawDistanceY);
 
                 // Skip a number of pixels depending on the wall type of the right
-                drawFromX += cell.isCageRight() ? drawDistanceX + cageWall : drawDistanceX + regularWall;
+                drawFromX += board.isCageRight(i, j) ? drawDistanceX + cageWall : drawDistanceX + regularWall;
 
                 // Reset Y coordinate for the next cell
-                drawFromY -= gameLogic.getBoard().getBoardLayout()[i][j].isCageTop() ? regularWall : 0;
+                drawFromY -= board.isCageTop(i, j) ? regularWall : 0;
 
             }
         }
@@ -633,18 +655,18 @@ public class Graphics extends Application {
 
         boardGraphics.setFill(color);
 
-        Logic.Cell cell = gameLogic.getBoard().getBoardLayout()[row][column];
+        Logic.Board board = gameLogic.getBoard();
 
         // If the cell has a left cage wall, it's starting X position will be increase by regularWall worth of pixels
-        int drawFromX = cell.isCageLeft() ?
+        int drawFromX = board.isCageLeft(row, column) ?
                 getCellStart(column, column + 1) : getCellStart(column);
 
         // If the cell has a top cage wall, it's starting Y position will be increase by regularWall worth of pixels
-        int drawFromY = cell.isCageTop() ?
+        int drawFromY = board.isCageTop(row, column) ?
                 getCellStart(row, row + 1) : getCellStart(row);
 
-        int drawDistanceX = setDistance(cell.isCageLeft(), cell.isCageRight());
-        int drawDistanceY = setDistance(cell.isCageTop(), cell.isCageBottom());
+        int drawDistanceX = setDistance(board.isCageLeft(row, column), board.isCageRight(row, column));
+        int drawDistanceY = setDistance(board.isCageTop(row, column), board.isCageBottom(row, column));
 
         boardGraphics.fillRect(drawFromX, drawFromY, drawDistanceX, drawDistanceY);
     }
@@ -654,7 +676,7 @@ public class Graphics extends Application {
      */
     private void drawCorners() {
 
-        Logic.Cell[][] cells = gameLogic.getBoard().getBoardLayout();
+        Logic.Board board = gameLogic.getBoard();
 
         boardGraphics.setFill(Color.BLACK);
 
@@ -663,8 +685,8 @@ public class Graphics extends Application {
             for(int j = 0; j < gameLogic.getBoard().getSize() - 1; j++) {
 
                 // Draw corner if cell has right and bottom cage walls, while diagonal cell from it doesn't have left and top as cage walls
-                if(cells[i][j].isCageRight() && cells[i][j].isCageBottom() &&
-                        !cells[i + 1][j + 1].isCageLeft() && !cells[i + 1][j + 1].isCageTop()) {
+                if(board.isCageRight(i, j) && board.isCageBottom(i, j) &&
+                        !board.isCageLeft(i + 1, j + 1) && !board.isCageTop(i + 1, j + 1)) {
 
                     // Draws a regularWall X regularWall size rectangle as a corner
                     boardGraphics.fillRect(getCellStart(j + 1), getCellStart(i + 1),
@@ -678,8 +700,8 @@ public class Graphics extends Application {
             for(int j = 1; j < gameLogic.getBoard().getSize(); j++) {
 
                 // Draw corner if cell has left and bottom cage walls, while diagonal cell from it doesn't have right and top as cage walls
-                if(cells[i][j].isCageLeft() && cells[i][j].isCageBottom() &&
-                        !cells[i + 1][j - 1].isCageRight() && !cells[i + 1][j - 1].isCageTop()) {
+                if(board.isCageLeft(i, j) && board.isCageBottom(i, j) &&
+                        !board.isCageRight(i + 1, j - 1) && !board.isCageTop(i + 1, j - 1)) {
 
                     boardGraphics.fillRect(getCellStart(j, j - 2), getCellStart(i + 1),
                             regularWall, regularWall);
@@ -692,8 +714,8 @@ public class Graphics extends Application {
             for(int j = 0; j < gameLogic.getBoard().getSize() - 1; j++) {
 
                 // Draw corner if cell has right and top cage walls, while diagonal cell from it doesn't have left and bottom as cage walls
-                if(cells[i][j].isCageRight() && cells[i][j].isCageTop() &&
-                        !cells[i - 1][j + 1].isCageLeft() && !cells[i - 1][j + 1].isCageBottom()) {
+                if(board.isCageRight(i, j) && board.isCageTop(i, j) &&
+                        !board.isCageLeft(i - 1, j + 1) && !board.isCageBottom(i - 1, j + 1)) {
 
                     boardGraphics.fillRect(getCellStart(j + 1), getCellStart(i, i - 2),
                             regularWall, regularWall);
@@ -706,8 +728,8 @@ public class Graphics extends Application {
             for(int j = 1; j < gameLogic.getBoard().getSize(); j++) {
 
                 // Draw corner if cell has left and top cage walls, while diagonal cell from it doesn't have right and bottom as cage walls
-                if(cells[i][j].isCageLeft() && cells[i][j].isCageTop() &&
-                        !cells[i - 1][j - 1].isCageRight() && !cells[i - 1][j - 1].isCageBottom()) {
+                if(board.isCageLeft(i, j) && board.isCageTop(i, j) &&
+                        !board.isCageRight(i - 1, j - 1) && !board.isCageBottom(i - 1, j - 1)) {
 
                     boardGraphics.fillRect(getCellStart(j, j - 2), getCellStart(i, i - 2),
                             regularWall, regularWall);
@@ -726,19 +748,17 @@ public class Graphics extends Application {
 
         FontMetrics fontMetrics = Toolkit.getToolkit().getFontLoader().getFontMetrics(labelFont);
 
-        Logic.Cell cell;
+        Logic.Board board = gameLogic.getBoard();
         double offset = (double)cellSize / 20;
 
         for(int i = 0; i < gameLogic.getBoard().getSize(); i++) {
             for(int j = 0; j < gameLogic.getBoard().getSize(); j++) {
 
-                cell = gameLogic.getBoard().getBoardLayout()[i][j];
-
                 // For each non empty label
-                if(!cell.getLabel().isEmpty()) {
+                if(board.hasLabel(i, j)) {
 
                     // Draws label at top left corner with some offset from top and left
-                    boardGraphics.fillText(cell.getLabel(), getCellStart(j) + offset,
+                    boardGraphics.fillText(board.getLabel(i, j), getCellStart(j) + offset,
                             fontMetrics.getLineHeight() / 2 + getCellStart(i) + offset);
                 }
             }
@@ -755,26 +775,23 @@ public class Graphics extends Application {
 
         FontMetrics fontMetrics = Toolkit.getToolkit().getFontLoader().getFontMetrics(valueFont);
 
-        Logic.Cell cell;
+        Logic.Board board = gameLogic.getBoard();
         double positionX, positionY;
 
         for(int i = 0; i < gameLogic.getBoard().getSize(); i++) {
             for(int j = 0; j < gameLogic.getBoard().getSize(); j++) {
 
-                cell = gameLogic.getBoard().getBoardLayout()[i][j];
-
                 // For each non empty cell
-                if(cell.getValue() != 0) {
+                if(board.getValue(i, j) != 0) {
 
-                    // FIXME: 21/02/2021 computeStringWidth removed in new version of javafx
                     // draw from x = position inside the cell + choosing the right cell
-                    positionX = ( (double) cellSize - fontMetrics.computeStringWidth(
-                            cell.getValue() + "")) / 2 + getCellStart(j);
+                    positionX = ( (double) cellSize - computeStringWidth(
+                            board.getValue(i, j) + "", valueFont)) / 2 + getCellStart(j);
 
                     // draw from y = position inside the cell + choosing the right cell
                     positionY = ( (double) cellSize + fontMetrics.getLineHeight()) / 2 + getCellStart(i);
 
-                    boardGraphics.fillText(cell.getValue() + "", positionX, positionY);
+                    boardGraphics.fillText(board.getValue(i, j) + "", positionX, positionY);
                 }
             }
         }
@@ -1056,6 +1073,14 @@ public class Graphics extends Application {
         return nineButton;
     }
 
+    /**
+     * Returns the button that enters the digit '0', the second digit of values from 10 up
+     * @return the button that enters the digit '0'
+     */
+    public Button getZeroButton() {
+        return zeroButton;
+    }
+
     /**
      * Returns the button that deletes a cell value
      * @return the button that deletes a cell value
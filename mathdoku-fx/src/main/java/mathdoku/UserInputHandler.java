@@ -1,3 +1,9 @@
+package mathdoku;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -7,10 +13,17 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Handles events that occur in the Graphics class
@@ -25,6 +38,32 @@ public class UserInputHandler {
     // The stage where the game takes place
     private Stage primaryStage;
 
+    // The time budget for solving a loaded puzzle in seconds, 0 for no budget
+    private long solveTimeout = Long.getLong("mathdoku.solveTimeout", 30);
+
+    // Runs the searches for the solutions of loaded puzzles, so the window never waits for them
+    private ExecutorService solveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+
+        Thread thread = new Thread(runnable, "mathdoku-solver");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    // The search for the solution of the current puzzle, null if none is running
+    private SolveTask solveTask;
+
+    // Shows the progress of the running search in the title of the window
+    private Timeline solveProgress;
+
+    // How long after the first digit of a value its second digit can be typed, in nanoseconds
+    private static final long SECOND_DIGIT_TIMEOUT = 1_000_000_000L;
+
+    // The cell that was given a digit which a second digit can still follow, null if there is none
+    private Logic.CellPos pendingCell;
+    private int pendingValue;
+    private long pendingTime;
+
     /**
      * Connects the class with the game window
      * @param graphics the Graphics object where events occur
@@ -144,15 +183,16 @@ public class UserInputHandler {
         // Deletion just sets the cells value to 0, since values less that 1 aren't showed on board
         graphics.getDeleteButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(0));
 
-        graphics.getOneButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(1));
-        graphics.getTwoButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(2));
-        graphics.getThreeButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(3));
-        graphics.getFourButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(4));
-        graphics.getFiveButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(5));
-        graphics.getSixButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(6));
-        graphics.getSevenButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(7));
-        graphics.getEightButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(8));
-        graphics.getNineButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleKeyPressed(9));
+        graphics.getOneButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(1));
+        graphics.getTwoButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(2));
+        graphics.getThreeButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(3));
+        graphics.getFourButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(4));
+        graphics.getFiveButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(5));
+        graphics.getSixButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(6));
+        graphics.getSevenButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(7));
+        graphics.getEightButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(8));
+        graphics.getNineButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(9));
+        graphics.getZeroButton().addEventHandler(MouseEvent.MOUSE_CLICKED, event -> handleDigit(0));
     }
 
     /**
@@ -179,6 +219,48 @@ public class UserInputHandler {
         });
     }
 
+    /**
+     * Handles a digit typed on the keyboard or the number pad. The digit fills the selected cell if it is empty.
+     * On boards larger than 9x9, a second digit typed soon after, while the cell stays selected, is appended to
+     * the first one as long as the value stays on the board, so values from 10 up take two digits
+     * @param digit the digit typed, from 0 to 9
+     */
+    private void handleDigit(int digit) {
+
+        if(graphics.getSelectedCell() == null) {
+            return;
+        }
+
+        int row = graphics.getSelectedCell().getRow();
+        int column = graphics.getSelectedCell().getColumn();
+        int value = gameLogic.getBoard().getValue(row, column);
+
+        boolean secondDigit = pendingCell == graphics.getSelectedCell() && pendingValue == value &&
+                System.nanoTime() - pendingTime < SECOND_DIGIT_TIMEOUT;
+
+        pendingCell = null;
+
+        if(secondDigit && value * 10 + digit <= gameLogic.getBoard().getSize()) {
+
+            // The action that entered the first digit now enters the whole value, so undo empties the cell again
+            gameLogic.amendLastUserAction(row, column, value * 10 + digit);
+            gameLogic.getBoard().setValue(row, column, value * 10 + digit);
+            gameLogic.cancelRedo();
+
+            graphics.drawBoard();
+        } else if(value == 0 && digit != 0) {
+
+            handleKeyPressed(digit);
+
+            // Waits for a second digit only if one could still make a value of the board
+            if(gameLogic.getBoard().getValue(row, column) == digit && digit * 10 <= gameLogic.getBoard().getSize()) {
+                pendingCell = graphics.getSelectedCell();
+                pendingValue = digit;
+                pendingTime = System.nanoTime();
+            }
+        }
+    }
+
     /**
      * Handles number entering via GUI number pad provided
      * @param value the value of the button pressed
@@ -192,23 +274,24 @@ public class UserInputHandler {
             int column = graphics.getSelectedCell().getColumn();
 
             // If digit was entered and the cell is empty
-            if(value != 0 && gameLogic.getBoard().getBoardLayout()[row][column].getValue() == 0) {
+            if(value != 0 && value <= gameLogic.getBoard().getSize() &&
+                    gameLogic.getBoard().getValue(row, column) == 0) {
 
                 // Add value to sequence of actions
                 gameLogic.addNewUserAction(row, column, value);
 
                 // Change the value of the cell
-                gameLogic.getBoard().getBoardLayout()[row][column].setValue(value);
+                gameLogic.getBoard().setValue(row, column, value);
             }
 
             // If it's a backspace and the cell is not empty
-            else if(value == 0 && gameLogic.getBoard().getBoardLayout()[row][column].getValue() != 0) {
+            else if(value == 0 && gameLogic.getBoard().getValue(row, column) != 0) {
 
                 // Add value to sequence of actions
                 gameLogic.addNewUserAction(row, column, 0);
 
                 // Make cell empty
-                gameLogic.getBoard().getBoardLayout()[row][column].setValue(0);
+                gameLogic.getBoard().setValue(row, column, 0);
             }
 
             // If an action is done after undoing, redo isn't possible anymore
@@ -237,33 +320,13 @@ public class UserInputHandler {
         // If the file ends with .txt
         else if(file.isFile() && file.getName().endsWith(".txt")) {
 
-            Scanner scanner = null;
-
-            try {
-
-                // Each List entry describes one cage
-                List<String> cages = new ArrayList<>();
-
-                scanner = new Scanner(file);
-
-                // Read all lines of the file
-                while(scanner.hasNextLine()) {
-                    cages.add(scanner.nextLine());
-                }
-
-                initialiseInput(cages);
-
-            } catch (FileNotFoundException e) {
+            // The file is read as it is parsed
+            try(Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                initialiseInput(reader);
+            } catch (NoSuchFileException e) {
                 new Alert(Alert.AlertType.ERROR, "File not found").showAndWait();
             } catch (Exception e) {
                 new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
-                gameLogic.deleteLastBoard();
-            } finally {
-
-                // Close the scanner
-                if(scanner != null) {
-                    scanner.close();
-                }
             }
         } else {
             new Alert(Alert.AlertType.ERROR, "Only .txt files are permitted").showAndWait();
@@ -311,249 +374,102 @@ public class UserInputHandler {
      */
     private void createBoardFromText(String userInputText) {
 
-        // Each line describing a single cage
-        List<String> cages = new ArrayList<>(Arrays.asList(userInputText.split("\n")));
-
         try {
-            initialiseInput(cages);
+            initialiseInput(new StringReader(userInputText));
         } catch (Exception e) {
             new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
-            gameLogic.deleteLastBoard();
         }
     }
 
     /**
-     * Sets up the game board using the user's input
-     * @param inputLines the description of cages provided by the user
-     * @throws Exception if the description of the cages break the rules of file configuration
+     * Sets up the game board using the user's input. The description is parsed before anything changes, so an
+     * invalid one leaves the game in progress and the search for its solution alone
+     * @param input the description of cages provided by the user
+     * @throws IOException if the description can't be read
+     * @throws PuzzleFormatException if the description of the cages break the rules of file configuration
      */
-    private void initialiseInput(List<String> inputLines) throws Exception {
+    private void initialiseInput(Reader input) throws IOException, PuzzleFormatException {
 
-        // If the input is empty
-        if(inputLines.size() == 0) {
-            throw new Exception("Incorrect file configuration: the file is empty");
-        }
+        Puzzle puzzle = PuzzleParser.parse(input);
 
-        // Clear previous user's actions
-        gameLogic.deleteLastBoard();
         graphics.setSelectedCell(null);
+        pendingCell = null;
 
-        List<Integer> cellIndexes;
-
-        // Returns -1 if the board cannot be constructed
-        gameLogic.getBoard().setSize(findBoardSize(inputLines));
-
-        if(gameLogic.getBoard().getSize() == -1) {
-            gameLogic.getBoard().setSize(6);
-            throw new Exception("Incorrect file configuration: the board must be a square");
-        }
-
-        gameLogic.getBoard().resizeBoard();
-
-        // For each cage
-        for(String cage : inputLines) {
+        cancelSolve();
 
-            // Get a list of cell ids that make up the cage
-            cellIndexes = deconstructInputLine(cage);
-
-            if(cellIndexes != null) {
-                initialiseCage(cage, cellIndexes);
-            } else {
-                throw new Exception("Incorrect file configuration: cell number must be an integer");
-            }
-        }
-
-        // Checks if the cages can construct a complete board
-        if(!gameLogic.isBoardComplete()) {
-            throw new Exception("Incorrect file configuration: the board has too few cells");
-        }
+        gameLogic.setPuzzle(puzzle);
 
         // Disable number pad buttons according to board size
         graphics.disableNumPad();
 
-        // Creates the walls for the game
-        gameLogic.setUpWalls();
-
-        // If the game is unsolvable
-        if(!gameLogic.getSolver().solvePuzzle()) {
-            throw new Exception("Game cannot be solved with the given data");
-        }
+        // The puzzle can be played while its solution is searched for
+        startSolve();
     }
 
     /**
-     * If possible, tries to construct a cage with the given data
-     * @param cage a single user provided line describing ac age
-     * @param cells the cells within that line
-     * @throws Exception if the cage cannot be constructed with the given data
+     * Starts searching for the solution of the current puzzle on the solver thread
      */
-    private void initialiseCage(String cage, List<Integer> cells) throws Exception {
+    private void startSolve() {
 
-        // If all the cells connect and no one cell is in two cages at once
-        if(gameLogic.isCage(cells) && gameLogic.isCageUnique(cells)) {
-            addCageData(cage, cells);
-        } else {
-
-            // Remove the current description of the board since it's incorrect
-            gameLogic.getClusterCells().clear();
-            throw new Exception("Cage creation is impossible with the given data");
-        }
-    }
-
-    /**
-     * Creates a cage with the given data
-     * @param cage a text line describing a single cage
-     * @param cellIds ids of cells in the cage provided
-     */
-    private void addCageData(String cage, List<Integer> cellIds) {
+        SolveTask task = new SolveTask(Puzzle.fromLogic(gameLogic), solveTimeout * 1000);
+        solveTask = task;
 
-        // Coordinates of cell within the board
-        int x, y;
+        solveProgress = new Timeline(new KeyFrame(Duration.millis(250), event ->
+                primaryStage.setTitle(String.format("Mathdoku - solving: %,d nodes, %,.0f nodes/s",
+                        task.getNodeCount(), task.getNodesPerSecond()))));
+        solveProgress.setCycleCount(Animation.INDEFINITE);
+        solveProgress.play();
 
-        List<Logic.CellPos> cells = new ArrayList<>();
-
-        for(Integer id : cellIds) {
-            x = (id - 1) % gameLogic.getBoard().getSize();
-            y = (id - x) / gameLogic.getBoard().getSize();
-
-            cells.add(new Logic.CellPos(y, x));
-        }
-
-        attachLabel(cage);
-        gameLogic.getClusterCells().add(cells);
+        // The outcome is used on the application thread
+        task.start(solveExecutor).whenComplete((finished, error) ->
+                Platform.runLater(() -> solveFinished(task, error)));
     }
 
     /**
-     * Attaches a label to a cell
-     * @param cage a line describing a single cage
+     * Uses the outcome of a search once it ends. Hints and solving become available if the solution was found
+     * @param task the search that ended
+     * @param error the failure of the search, null if it didn't fail
      */
-    private void attachLabel(String cage) {
+    private void solveFinished(SolveTask task, Throwable error) {
 
-        // The cell that the label will be attached to
-        int firstCell;
-
-        // If the cage consists of more that one cell
-        if(cage.contains(",")) {
-            firstCell = Integer.parseInt(cage.substring(cage.indexOf(" ") + 1, cage.indexOf(",")));
-        } else {
-            firstCell = Integer.parseInt(cage.substring(cage.indexOf(" ") + 1));
+        // The puzzle was replaced while the search was running
+        if(task != solveTask) {
+            return;
         }
 
-        int x = (firstCell - 1) % gameLogic.getBoard().getSize();
-        int y = (firstCell - x) / gameLogic.getBoard().getSize();
-
-        gameLogic.getBoard().getBoardLayout()[y][x].setLabel(getLabel(cage));
-    }
-
-    /**
-     * Extracts the label from cage description line
-     * @param cage a line describing a single cage
-     * @return the label of the cage
-     */
-    private String getLabel(String cage){
-        return cage.substring(0, cage.indexOf(" "));
-    }
-
-    /**
-     * Extracts the list of cell ids from a text description of a cage
-     * @param cage the text description of a cage
-     * @return the list of cell ids making up the cage
-     */
-    private List<Integer> deconstructInputLine(String cage) {
+        solveProgress.stop();
+        solveTask = null;
 
-        List<Integer> cellIndexes = new ArrayList<>();
+        primaryStage.setTitle(String.format("Mathdoku - %,d nodes in %.2f s, %,.0f nodes/s", task.getNodeCount(),
+                task.getElapsedTime() / 1e9, task.getNodesPerSecond()));
 
-        // Remove label
-        cage = cage.substring(cage.indexOf(" ") + 1);
-
-        String[] cells = cage.split(",");
-
-        for(String cell : cells) {
-            if(!isInteger(cell)) {
-                return null;
-            } else {
-                cellIndexes.add(Integer.parseInt(cell));
-            }
-        }
-
-        return cellIndexes;
-    }
-
-    /**
-     * Calculates the appropriate size for the board, given the cage descriptions
-     * @param inputLines a list of lines, each describing one cage
-     * @return -1 if the board is not possible to construct, board size otherwise
-     * @throws Exception if the description of the cages break the rules of file configuration
-     */
-    private int findBoardSize(List<String> inputLines) throws Exception {
-
-        String[] cells;
-
-        int largestCell = 0;
-
-        for(String cage : inputLines) {
-
-            // Separator between label and cells
-            if(!cage.contains(" ")) {
-                throw new Exception("Incorrect file configuration: label could not be found");
-            }
-
-            // String of all cage cells
-            cage = cage.substring(cage.indexOf(" ") + 1);
-
-            // Get each cell
-            cells = cage.split(",");
-
-            // Finds largest cell
-            for(String cell : cells) {
-
-                // Checking if the cell's an integer
-                if(isInteger(cell)) {
-                    largestCell = largestCell > Integer.parseInt(cell) ? largestCell : Integer.parseInt(cell);
-                } else {
-                    throw new Exception("Incorrect file configuration: cell number must be an integer");
-                }
-            }
-
-        }
-
-        // The square root of the largest cell is suppose to be the size of the board
-        if(isPerfectSquare(largestCell)) {
-            return (int)Math.sqrt(largestCell);
+        if(error != null) {
+            new Alert(Alert.AlertType.ERROR, "The solver failed: " + error.getMessage()).showAndWait();
+        } else if(task.getStatus() == SolveTask.Status.SOLVED) {
+            gameLogic.getSolver().setSolvedBoard(task.getSolution());
+        } else if(task.getStatus() == SolveTask.Status.UNSOLVABLE) {
+            new Alert(Alert.AlertType.ERROR, "Game cannot be solved with the given data").showAndWait();
+            gameLogic.deleteLastBoard();
+        } else if(task.getStatus() == SolveTask.Status.TIMED_OUT) {
+            new Alert(Alert.AlertType.WARNING, "No solution was found within " + solveTimeout +
+                    " seconds, hints and solving are unavailable for this puzzle").showAndWait();
         }
 
-        return -1;
+        graphics.drawBoard();
     }
 
     /**
-     * Checks if the given String in an integer
-     * @param number the String to be checked
-     * @return true if it is an integer, false otherwise
+     * Stops the search for the solution of the current puzzle, if one is running
      */
-    private boolean isInteger(String number) {
+    private void cancelSolve() {
 
-        if(number == null || number.length() == 0) {
-            return false;
-        }
-
-        // If each letter is an integer
-        for(char c : number.toCharArray()) {
-            if(!Character.isDigit(c)) {
-                return false;
-            }
+        if(solveTask != null) {
+            solveTask.cancel();
+            solveProgress.stop();
+            solveTask = null;
         }
 
-        return true;
-    }
-
-    /**
-     * Checks if a number is a perfect square
-     * @param number the number to be checked
-     * @return true if the number is a perfect square, false otherwise
-     */
-    private boolean isPerfectSquare(double number) {
-
-        double squareRoot = Math.sqrt(number);
-        return squareRoot - Math.floor(squareRoot) == 0;
+        primaryStage.setTitle("Mathdoku");
     }
 
     /**
@@ -565,10 +481,17 @@ public class UserInputHandler {
 
             sizeOption.setOnAction(event -> {
 
-                graphics.getGameLogic().getGenerator().generateBoard(Integer.parseInt(sizeOption.getText().charAt(0) + ""));
+                cancelSolve();
+
+                // The options read "<size>x<size>", and sizes can have more than one digit
+                String option = sizeOption.getText();
+                int size = Integer.parseInt(option.substring(0, option.indexOf('x')));
+
+                graphics.getGameLogic().getGenerator().generateBoard(size);
 
                 graphics.setSelectedCell(null);
                 graphics.disableNumPad();
+                pendingCell = null;
 
                 graphics.drawBoard();
             });
@@ -590,25 +513,20 @@ public class UserInputHandler {
             // Only writes cells, once one is selected
             if (graphics.getSelectedCell() != null) {
 
-                // If it's a digit and it's value doesn't exceed the board size, and the selected cell is empty (0 represents empty cells)
-                if (code.isDigitKey() && Integer.parseInt(value) <= gameLogic.getBoard().getSize() &&
-                        gameLogic.getBoard().getBoardLayout()[row][column].getValue() == 0) {
-
-                    // Add the action done by the user to the action sequence
-                    gameLogic.addNewUserAction(row, column, Integer.parseInt(value));
-
-                    // Change the value of the cell
-                    gameLogic.getBoard().getBoardLayout()[row][column].setValue(Integer.parseInt(value));
+                // Digits are entered the same way as from the number pad, which also handles values of two digits
+                if (code.isDigitKey()) {
+                    handleDigit(Integer.parseInt(value));
+                    return;
                 }
 
                 // If it's a backspace and the cell is not empty
-                else if (code == KeyCode.BACK_SPACE && gameLogic.getBoard().getBoardLayout()[row][column].getValue() != 0) {
+                else if (code == KeyCode.BACK_SPACE && gameLogic.getBoard().getValue(row, column) != 0) {
 
                     // Add the action done by the user to the action sequence
                     gameLogic.addNewUserAction(row, column, 0);
 
                     // Make cell empty
-                    gameLogic.getBoard().getBoardLayout()[row][column].setValue(0);
+                    gameLogic.getBoard().setValue(row, column, 0);
                 }
 
                 // If an action is done after undoing, redo isn't possible anymore
@@ -620,6 +538,14 @@ public class UserInputHandler {
         }
     }
 
+    /**
+     * Set the time budget for solving a loaded puzzle
+     * @param solveTimeout the time budget in seconds, 0 for no budget
+     */
+    public void setSolveTimeout(long solveTimeout) {
+        this.solveTimeout = solveTimeout;
+    }
+
     /**
      * Clears the values of all cells
      */